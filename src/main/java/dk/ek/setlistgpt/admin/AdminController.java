@@ -1,14 +1,19 @@
 package dk.ek.setlistgpt.admin;
 
+import dk.ek.setlistgpt.profile.CurrentProfile;
 import dk.ek.setlistgpt.profile.Profile;
 import dk.ek.setlistgpt.profile.ProfileRepository;
+import dk.ek.setlistgpt.profile.ProfileService;
 import dk.ek.setlistgpt.profile.ProfileType;
 import dk.ek.setlistgpt.repertoire.Repertoire;
 import dk.ek.setlistgpt.repertoire.RepertoireRepository;
 import dk.ek.setlistgpt.setlist.Setlist;
 import dk.ek.setlistgpt.setlist.SetlistRepository;
+import dk.ek.setlistgpt.setlist.SetlistWriteBehind;
+import dk.ek.setlistgpt.stats.SiteStats;
+import dk.ek.setlistgpt.stats.StatsService;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpSession;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,6 +29,12 @@ public class AdminController {
     private final ProfileRepository profiles;
     private final RepertoireRepository repertoires;
     private final SetlistRepository setlists;
+    private final SetlistWriteBehind setlistWriteBehind;
+    private final ProfileService profileService;
+    private final StatsService stats;
+
+    private static final int DEFAULT_PROFILE_PAGE_SIZE = 100;
+    private static final int MAX_PROFILE_PAGE_SIZE = 500;
 
     // Super admin guard: adjust name/id as needed.
     private static final Set<String> SUPER_ADMIN_NAMES = Set.of("admin");
@@ -31,42 +42,74 @@ public class AdminController {
 
     public AdminController(ProfileRepository profiles,
                            RepertoireRepository repertoires,
-                           SetlistRepository setlists) {
+                           SetlistRepository setlists,
+                           SetlistWriteBehind setlistWriteBehind,
+                           ProfileService profileService,
+                           StatsService stats) {
         this.profiles = profiles;
         this.repertoires = repertoires;
         this.setlists = setlists;
+        this.setlistWriteBehind = setlistWriteBehind;
+        this.profileService = profileService;
+        this.stats = stats;
     }
 
+    // Dashboard: first page (or ?page=&size=) of admins and musicians by name, totals from SiteStats.
     @GetMapping("/profiles/grouped")
-    public ResponseEntity<AdminProfilesGroupedDto> getGroupedProfiles(HttpServletRequest request) {
+    public ResponseEntity<AdminProfilesGroupedDto> getGroupedProfiles(@RequestParam(defaultValue = "0") int page,
+                                                                      @RequestParam(required = false) Integer size,
+                                                                      HttpServletRequest request) {
         // Require ADMIN session; deny otherwise.
         if (!ProfileType.ADMIN.verifyAccessLevel(request)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        List<AdminProfileSummaryDto> summaries = profiles.fetchAdminProfileSummaries();
-
-        var admins = summaries.stream()
-                .filter(s -> s.getType() == ProfileType.ADMIN)
-                .sorted(Comparator.comparing(AdminProfileSummaryDto::getName, String.CASE_INSENSITIVE_ORDER))
-                .toList();
-
-        var musicians = summaries.stream()
-                .filter(s -> s.getType() == ProfileType.MUSICIAN)
-                .sorted(Comparator.comparing(AdminProfileSummaryDto::getName, String.CASE_INSENSITIVE_ORDER))
-                .toList();
+        PageRequest pageRequest = pageRequest(page, size);
+        var admins = profiles.fetchAdminProfileSummaries(ProfileType.ADMIN, pageRequest);
+        var musicians = profiles.fetchAdminProfileSummaries(ProfileType.MUSICIAN, pageRequest);
+        SiteStats totals = stats.totals();
 
-        Profile current = sessionProfile(request);
+        Profile current = CurrentProfile.get(request);
         AdminProfilesGroupedDto dto = new AdminProfilesGroupedDto(admins, musicians);
-        dto.setTotalProfiles((long) summaries.size());
-        dto.setAdminProfiles((long) admins.size());
-        dto.setMusicianProfiles((long) musicians.size());
-        dto.setRepertoires(summaries.stream().mapToLong(AdminProfileSummaryDto::getRepertoireCount).sum());
-        dto.setSongs(summaries.stream().mapToLong(AdminProfileSummaryDto::getSongCount).sum());
-        dto.setSetlists(summaries.stream().mapToLong(AdminProfileSummaryDto::getSetlistCount).sum());
+        dto.setTotalProfiles(totals.getProfiles());
+        dto.setAdminProfiles(totals.getAdmins());
+        dto.setMusicianProfiles(totals.getMusicians());
+        dto.setRepertoires(totals.getRepertoires());
+        dto.setSongs(totals.getSongs());
+        dto.setSetlists(totals.getSetlists());
         dto.setCurrentAdminName(current != null ? current.getName() : null);
         return ResponseEntity.ok(dto);
     }
 
+    // Page through one profile type: /api/admin/profiles?type=MUSICIAN&page=2&size=100
+    @GetMapping("/profiles")
+    public ResponseEntity<AdminProfilePageDto> profilePage(@RequestParam ProfileType type,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(required = false) Integer size,
+                                                           HttpServletRequest request) {
+        if (!ProfileType.ADMIN.verifyAccessLevel(request)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        PageRequest pageRequest = pageRequest(page, size);
+        SiteStats totals = stats.totals();
+        long total = switch (type) {
+            case ADMIN -> totals.getAdmins();
+            case MUSICIAN -> totals.getMusicians();
+            default -> totals.getProfiles() - totals.getAdmins() - totals.getMusicians();
+        };
+        return ResponseEntity.ok(new AdminProfilePageDto(
+                profiles.fetchAdminProfileSummaries(type, pageRequest),
+                pageRequest.getPageNumber(), pageRequest.getPageSize(), total));
+    }
+
+    // Recounts the maintained statistics from the source tables (e.g. after manual SQL changes).
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<SiteStats> rebuildStats(HttpServletRequest request) {
+        if (!ProfileType.ADMIN.verifyAccessLevel(request)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(stats.rebuild());
+    }
+
     @GetMapping("/profiles/{profileId}")
     public ResponseEntity<AdminProfileDetailDto> profileDetail(@PathVariable Long profileId,
                                                                HttpServletRequest request) {
@@ -77,7 +120,7 @@ public class AdminController {
         if (pOpt.isEmpty()) return ResponseEntity.notFound().build();
         Profile p = pOpt.get();
 
-        List<AdminRepertoireSummaryDto> repDtos = repertoires.findByOwnerId(profileId).stream()
+        List<AdminRepertoireSummaryDto> repDtos = repertoires.findSummariesByOwnerId(profileId).stream()
                 .map(AdminRepertoireSummaryDto::from)
                 .sorted(Comparator.comparing(AdminRepertoireSummaryDto::getTitle, String.CASE_INSENSITIVE_ORDER))
                 .toList();
@@ -124,6 +167,15 @@ public class AdminController {
         return ResponseEntity.ok(songs);
     }
 
+    // Queue depth and flush latency of the setlist write-behind (see app.setlist.write-behind.*).
+    @GetMapping("/metrics/setlist-writes")
+    public ResponseEntity<SetlistWriteBehind.Stats> setlistWriteStats(HttpServletRequest request) {
+        if (!ProfileType.ADMIN.verifyAccessLevel(request)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(setlistWriteBehind.stats());
+    }
+
     @DeleteMapping("/profiles/{id}")
     public ResponseEntity<Void> deleteProfileAsAdmin(@PathVariable Long id, HttpServletRequest request) {
         // Only admins can delete.
@@ -138,15 +190,13 @@ public class AdminController {
         if (isSuperAdmin(target)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        profiles.deleteById(id);
+        profileService.deleteProfile(target);
         return ResponseEntity.noContent().build();
     }
 
-    private static Profile sessionProfile(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
-        if (session == null) return null;
-        Object obj = session.getAttribute("profile");
-        return (obj instanceof Profile) ? (Profile) obj : null;
+    private static PageRequest pageRequest(int page, Integer size) {
+        int s = size == null ? DEFAULT_PROFILE_PAGE_SIZE : Math.max(1, Math.min(MAX_PROFILE_PAGE_SIZE, size));
+        return PageRequest.of(Math.max(0, page), s);
     }
 
     private static boolean isSuperAdmin(Profile p) {
@@ -1,9 +1,9 @@
 package dk.ek.setlistgpt.admin;
 
+import dk.ek.setlistgpt.profile.CurrentProfile;
 import dk.ek.setlistgpt.profile.Profile;
 import dk.ek.setlistgpt.profile.ProfileType;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Controller;
@@ -16,8 +16,7 @@ public class AdminPageController {
 
     @GetMapping({"/admin", "/admin/"})
     public String admin(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
-        Profile profile = (session != null) ? (Profile) session.getAttribute("profile") : null;
+        Profile profile = CurrentProfile.get(request);
         log.debug("/admin requested; profileType={}", profile != null ? profile.getType() : null);
         if (profile == null || profile.getType() != ProfileType.ADMIN) {
             return "redirect:/";
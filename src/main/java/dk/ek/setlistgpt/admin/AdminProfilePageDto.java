@@ -0,0 +1,7 @@
+package dk.ek.setlistgpt.admin;
+
+import java.util.List;
+
+/** One page of admin profile summaries of a single type; total comes from the maintained counters. */
+public record AdminProfilePageDto(List<AdminProfileSummaryDto> items, int page, int size, long total) {
+}
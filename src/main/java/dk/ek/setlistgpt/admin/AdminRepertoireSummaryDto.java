@@ -1,6 +1,6 @@
 package dk.ek.setlistgpt.admin;
 
-import dk.ek.setlistgpt.repertoire.Repertoire;
+import dk.ek.setlistgpt.repertoire.RepertoireSummaryDto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,9 +13,8 @@ public class AdminRepertoireSummaryDto {
     private String title;
     private int songCount;
 
-    public static AdminRepertoireSummaryDto from(Repertoire r) {
-        int cnt = (r.getSongs() == null) ? 0 : r.getSongs().size();
+    public static AdminRepertoireSummaryDto from(RepertoireSummaryDto r) {
         String title = (r.getName() == null) ? "" : r.getName();
-        return new AdminRepertoireSummaryDto(r.getId(), title, cnt);
+        return new AdminRepertoireSummaryDto(r.getId(), title, r.getSongCount());
     }
 }
\ No newline at end of file
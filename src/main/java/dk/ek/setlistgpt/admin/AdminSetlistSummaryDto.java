@@ -14,7 +14,6 @@ public class AdminSetlistSummaryDto {
     private int songCount;
 
     public static AdminSetlistSummaryDto from(Setlist s) {
-        int cnt = (s.getItems() == null) ? 0 : s.getItems().size();
-        return new AdminSetlistSummaryDto(s.getId(), s.getTitle(), cnt);
+        return new AdminSetlistSummaryDto(s.getId(), s.getTitle(), s.getItemCount());
     }
 }
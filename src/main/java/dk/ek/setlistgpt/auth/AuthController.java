@@ -2,11 +2,13 @@ package dk.ek.setlistgpt.auth;
 
 import dk.ek.setlistgpt.profile.Profile;
 import dk.ek.setlistgpt.profile.ProfileService;
+import dk.ek.setlistgpt.security.LoginThrottledException;
+import dk.ek.setlistgpt.security.ProfileTokenService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
@@ -17,7 +19,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Session login that delegates password verification to ProfileService (uses PasswordEncoder).
+ * Login that delegates password verification to ProfileService (uses PasswordEncoder) and signs
+ * the profile in through ProfileTokenService (server session or signed token, per app.auth.mode).
  * Does NOT create or promote ADMINs — signup must use POST /api/profile/signup or admin-only APIs.
  */
 @RestController
@@ -28,10 +31,12 @@ public class AuthController {
 
     private final ProfileService profileService;
     private final CookieCsrfTokenRepository csrfRepo;
+    private final ProfileTokenService tokens;
 
-    public AuthController(ProfileService profileService, CookieCsrfTokenRepository csrfRepo) {
+    public AuthController(ProfileService profileService, CookieCsrfTokenRepository csrfRepo, ProfileTokenService tokens) {
         this.profileService = profileService;
         this.csrfRepo = csrfRepo;
+        this.tokens = tokens;
     }
 
     @PostMapping("/login")
@@ -50,16 +55,23 @@ public class AuthController {
 
         log.debug("Login attempt for name='{}' (password provided={})", name, password != null && !password.isEmpty());
 
-        Profile p = profileService.authenticateAndGetProfile(name, password);
+        Profile p;
+        try {
+            p = profileService.authenticateAndGetProfile(name, password);
+        } catch (LoginThrottledException e) {
+            log.debug("Login for name='{}' throttled: {}", name, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("message", "Too many logins, try again shortly"));
+        }
         if (p == null) {
             log.debug("Authentication failed for name='{}'", name);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "Invalid credentials"));
         }
 
-        HttpSession session = request.getSession(true);
-        session.setAttribute("profile", p);
-        log.debug("Authenticated name='{}' id={} type={} sessionId={}", p.getName(), p.getId(), p.getType(), session.getId());
+        String token = tokens.signIn(p, request, response);
+        log.debug("Authenticated name='{}' id={} type={} token={}", p.getName(), p.getId(), p.getType(), token != null);
 
         // Generate and save a fresh CSRF token into the response cookie for the new session.
         CsrfToken newToken = csrfRepo.generateToken(request);
@@ -75,17 +87,14 @@ public class AuthController {
         resp.put("name", p.getName());
         resp.put("type", p.getType().name());
         if (xsrf != null) resp.put("xsrfToken", xsrf);
+        if (token != null) resp.put("token", token);
 
         return ResponseEntity.ok(resp);
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
-        if (session != null) {
-            log.debug("Invalidating session id={}", session.getId());
-            session.invalidate();
-        }
+    public ResponseEntity<?> logout(HttpServletRequest request, HttpServletResponse response) {
+        tokens.signOut(request, response);
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
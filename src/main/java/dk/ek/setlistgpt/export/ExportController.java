@@ -0,0 +1,106 @@
+package dk.ek.setlistgpt.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dk.ek.setlistgpt.profile.CurrentProfile;
+import dk.ek.setlistgpt.profile.Profile;
+import dk.ek.setlistgpt.profile.ProfileType;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Data export for the logged-in profile: GET /api/export/{repertoires|songs|setlists}?format=ndjson|csv.
+ * Admins may export another profile with ?profileId=. Rows are written as they are read, gzip
+ * compressed when the client accepts it, as a file download.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ExportService exportService;
+    private final ObjectMapper objectMapper;
+
+    public ExportController(ExportService exportService, ObjectMapper objectMapper) {
+        this.exportService = exportService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping("/{kind}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String kind,
+                                                        @RequestParam(required = false) String format,
+                                                        @RequestParam(required = false) Long profileId,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                        HttpServletRequest request) {
+        Profile current = CurrentProfile.get(request);
+        if (current == null || current.getId() == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        ExportKind what = ExportKind.parse(kind);
+        ExportFormat fmt = ExportFormat.parse(format);
+        if (what == null || fmt == null) return ResponseEntity.badRequest().build();
+        Long ownerId = profileId != null ? profileId : current.getId();
+        if (!ownerId.equals(current.getId()) && current.getType() != ProfileType.ADMIN) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream zip = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            OutputStream sink = new BufferedOutputStream(zip != null ? zip : out, BUFFER_SIZE);
+            ExportFormat.RowWriter writer = fmt.open(sink, objectMapper, what.header);
+            try {
+                exportService.export(what, ownerId, writer::write);
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // client went away
+            }
+            writer.flush();
+            sink.flush();
+            if (zip != null) zip.finish();
+        };
+
+        String filename = "setlistgpt-" + what.name().toLowerCase(Locale.ROOT) + "." + fmt.extension;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(fmt.contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
+
+    // RFC 9110 Accept-Encoding: gzip unless its q-value (or that of "*" when gzip is not listed) is 0.
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        Double gzipQ = null, anyQ = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("x-gzip") && !coding.equals("*")) continue;
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0; // unreadable weight: do not rely on it
+                    }
+                }
+            }
+            if (coding.equals("*")) anyQ = q;
+            else gzipQ = gzipQ == null ? q : Math.max(gzipQ, q);
+        }
+        Double q = gzipQ != null ? gzipQ : anyQ;
+        return q != null && q > 0;
+    }
+}
@@ -0,0 +1,99 @@
+package dk.ek.setlistgpt.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/** Export file formats. Writers are unbuffered by design; pass a buffered stream. */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv;charset=UTF-8", "csv");
+
+    final String contentType;
+    final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public static ExportFormat parse(String raw) {
+        if (raw == null || raw.isBlank()) return NDJSON;
+        try {
+            return valueOf(raw.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Row sink for one export; IO failures surface as UncheckedIOException so it fits a Consumer. */
+    public interface RowWriter {
+        void write(ExportRow row);
+
+        void flush() throws IOException;
+    }
+
+    RowWriter open(OutputStream out, ObjectMapper objectMapper, String[] header) throws IOException {
+        return switch (this) {
+            case NDJSON -> new RowWriter() {
+                @Override
+                public void write(ExportRow row) {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(row));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+            };
+            case CSV -> {
+                Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                writeCsvLine(w, header);
+                yield new RowWriter() {
+                    @Override
+                    public void write(ExportRow row) {
+                        try {
+                            writeCsvLine(w, row.values());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        w.flush();
+                    }
+                };
+            }
+        };
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break; double embedded quotes.
+    static void writeCsvLine(Writer w, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) w.write(',');
+            Object v = values[i];
+            if (v == null) continue;
+            String s = v instanceof Enum<?> e ? e.name() : v.toString();
+            if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+                w.write('"');
+                w.write(s.replace("\"", "\"\""));
+                w.write('"');
+            } else {
+                w.write(s);
+            }
+        }
+        w.write("\r\n");
+    }
+}
@@ -0,0 +1,49 @@
+package dk.ek.setlistgpt.export;
+
+import java.util.Locale;
+
+/** What can be exported for a profile, with the projection query that streams it. */
+public enum ExportKind {
+    REPERTOIRES(RepertoireExportRow.class, RepertoireExportRow.HEADER, """
+            select new dk.ek.setlistgpt.export.RepertoireExportRow(
+                r.id, r.name, r.visibility, (select count(s) from Song s where s.repertoire = r))
+            from Repertoire r
+            where r.owner.id = :ownerId
+            order by r.id
+            """),
+    SONGS(SongExportRow.class, SongExportRow.HEADER, """
+            select new dk.ek.setlistgpt.export.SongExportRow(
+                r.id, r.name, s.id, s.title, s.artist, s.genre, s.bpm, s.mood, s.durationMinutes, s.durationSeconds)
+            from Song s join s.repertoire r
+            where r.owner.id = :ownerId
+            order by r.id, s.id
+            """),
+    SETLISTS(SetlistExportRow.class, SetlistExportRow.HEADER, """
+            select new dk.ek.setlistgpt.export.SetlistExportRow(
+                sl.id, sl.title, sl.createdAt, i.positionIndex, i.reused,
+                so.id, so.title, so.artist, so.durationMinutes * 60 + so.durationSeconds)
+            from Setlist sl left join sl.items i left join i.song so
+            where sl.owner.id = :ownerId
+            order by sl.createdAt desc, sl.id desc, i.positionIndex
+            """);
+
+    final Class<? extends ExportRow> rowType;
+    final String[] header;
+    final String query;
+
+    ExportKind(Class<? extends ExportRow> rowType, String[] header, String query) {
+        this.rowType = rowType;
+        this.header = header;
+        this.query = query;
+    }
+
+    /** Path segment ("songs") to kind, or null. */
+    public static ExportKind parse(String raw) {
+        if (raw == null) return null;
+        try {
+            return valueOf(raw.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package dk.ek.setlistgpt.export;
+
+/**
+ * One exported row. Each kind is a flat JPQL constructor projection, so rows come off the cursor
+ * without loading entities; values() follows the column order of the kind's CSV header.
+ */
+public interface ExportRow {
+
+    Object[] values();
+}
@@ -0,0 +1,37 @@
+package dk.ek.setlistgpt.export;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Streams a profile's data for export from a forward-only cursor (fetch size rows at a time,
+ * see useCursorFetch on the datasource URL), so memory stays flat however large the account is.
+ * The connection is held until the consumer has seen the last row.
+ */
+@Service
+public class ExportService {
+
+    private static final int FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    public ExportService(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Transactional(readOnly = true)
+    public void export(ExportKind kind, Long ownerId, Consumer<ExportRow> consumer) {
+        try (Stream<? extends ExportRow> rows = entityManager.createQuery(kind.query, kind.rowType)
+                .setParameter("ownerId", ownerId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            rows.forEach(consumer);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package dk.ek.setlistgpt.export;
+
+import dk.ek.setlistgpt.repertoire.RepertoireVisibility;
+
+public record RepertoireExportRow(Long id, String name, RepertoireVisibility visibility, long songCount)
+        implements ExportRow {
+
+    static final String[] HEADER = {"id", "name", "visibility", "songCount"};
+
+    @Override
+    public Object[] values() {
+        return new Object[] {id, name, visibility, songCount};
+    }
+}
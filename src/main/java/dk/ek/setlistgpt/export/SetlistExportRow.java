@@ -0,0 +1,18 @@
+package dk.ek.setlistgpt.export;
+
+import java.time.LocalDateTime;
+
+// One row per setlist item, in play order; song columns are null if the song was deleted since,
+// and an empty setlist is one row with every item column null.
+public record SetlistExportRow(Long setlistId, String setlist, LocalDateTime createdAt, Integer position, Boolean reused,
+                               Long songId, String title, String artist, Integer durationSeconds)
+        implements ExportRow {
+
+    static final String[] HEADER = {"setlistId", "setlist", "createdAt", "position", "reused",
+            "songId", "title", "artist", "durationSeconds"};
+
+    @Override
+    public Object[] values() {
+        return new Object[] {setlistId, setlist, createdAt, position, reused, songId, title, artist, durationSeconds};
+    }
+}
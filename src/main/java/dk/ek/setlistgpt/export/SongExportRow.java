@@ -0,0 +1,18 @@
+package dk.ek.setlistgpt.export;
+
+import dk.ek.setlistgpt.song.SongGenre;
+import dk.ek.setlistgpt.song.SongMood;
+
+// Song columns match the bulk import CSV, so an export can be imported elsewhere as is.
+public record SongExportRow(Long repertoireId, String repertoire, Long id, String title, String artist,
+                            SongGenre genre, Integer bpm, SongMood mood, int durationMinutes, int durationSeconds)
+        implements ExportRow {
+
+    static final String[] HEADER = {"repertoireId", "repertoire", "id", "title", "artist", "genre",
+            "bpm", "mood", "durationMinutes", "durationSeconds"};
+
+    @Override
+    public Object[] values() {
+        return new Object[] {repertoireId, repertoire, id, title, artist, genre, bpm, mood, durationMinutes, durationSeconds};
+    }
+}
@@ -0,0 +1,179 @@
+package dk.ek.setlistgpt.getsongbpm;
+
+import dk.ek.setlistgpt.song.Song;
+import dk.ek.setlistgpt.song.SongChangedEvent;
+import dk.ek.setlistgpt.song.SongRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background job filling in missing song BPMs from the GetSongBPM API.
+ * Each pass walks the songs with bpm = null in id order, one page at a time: unique tracks are
+ * resolved from the bpm_lookups table first, only the rest go to the API (see BpmFetcher), and
+ * the page's results are written back in one transaction with one UPDATE per distinct BPM.
+ * Enabled with app.getsongbpm.enrichment.enabled=true (needs app.getsongbpm.url).
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.getsongbpm.enrichment", name = "enabled", havingValue = "true")
+public class BpmEnrichmentService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BpmEnrichmentService.class);
+
+    /** Outcome of one pass. */
+    public record Result(int songsScanned, int apiLookups, int songsUpdated) {
+    }
+
+    private final SongRepository songRepository;
+    private final BpmLookupRepository lookupRepository;
+    private final BpmFetcher fetcher;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+    private final Duration interval;
+    private final Duration initialDelay;
+
+    private final AtomicBoolean passRunning = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    public BpmEnrichmentService(SongRepository songRepository,
+                                BpmLookupRepository lookupRepository,
+                                GetSongBpmClient client,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher events,
+                                @Value("${app.getsongbpm.enrichment.batch-size:100}") int batchSize,
+                                @Value("${app.getsongbpm.enrichment.max-concurrency:4}") int maxConcurrency,
+                                @Value("${app.getsongbpm.enrichment.requests-per-second:2}") double requestsPerSecond,
+                                @Value("${app.getsongbpm.enrichment.interval:10m}") Duration interval,
+                                @Value("${app.getsongbpm.enrichment.initial-delay:1m}") Duration initialDelay) {
+        this.songRepository = songRepository;
+        this.lookupRepository = lookupRepository;
+        this.fetcher = new BpmFetcher(client, maxConcurrency, requestsPerSecond);
+        this.tx = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.batchSize = Math.max(1, batchSize);
+        this.interval = interval;
+        this.initialDelay = initialDelay;
+    }
+
+    /** Runs one full pass now; returns null if a pass is already running. */
+    public Result runOnce() {
+        if (!passRunning.compareAndSet(false, true)) return null;
+        try {
+            int scanned = 0;
+            int looked = 0;
+            int updated = 0;
+            long afterId = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Song> page = songRepository.findMissingBpm(afterId, Limit.of(batchSize));
+                if (page.isEmpty()) break;
+                afterId = page.get(page.size() - 1).getId();
+                scanned += page.size();
+                int[] counts = enrichPage(page);
+                looked += counts[0];
+                updated += counts[1];
+            }
+            return new Result(scanned, looked, updated);
+        } finally {
+            passRunning.set(false);
+        }
+    }
+
+    // Returns {api lookups, songs updated} for one page.
+    private int[] enrichPage(List<Song> page) {
+        Map<String, List<Song>> byKey = new LinkedHashMap<>();
+        for (Song s : page) {
+            String key = BpmLookup.key(s.getArtist(), s.getTitle());
+            if (key != null) byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(s);
+        }
+        if (byKey.isEmpty()) return new int[]{0, 0};
+
+        // bpm per key; a key mapped to null was looked up before and had no match.
+        Map<String, Integer> known = new HashMap<>();
+        for (BpmLookup l : lookupRepository.findByLookupKeyIn(byKey.keySet())) {
+            known.put(l.getLookupKey(), l.getBpm());
+        }
+        List<BpmFetcher.Track> missing = new ArrayList<>();
+        for (Map.Entry<String, List<Song>> e : byKey.entrySet()) {
+            if (known.containsKey(e.getKey())) continue;
+            Song first = e.getValue().get(0);
+            missing.add(new BpmFetcher.Track(e.getKey(), first.getArtist().trim(), first.getTitle().trim()));
+        }
+        List<BpmLookup> fetched = fetcher.fetch(missing);
+        for (BpmLookup l : fetched) known.put(l.getLookupKey(), l.getBpm());
+
+        Map<Integer, List<Song>> byBpm = new HashMap<>();
+        for (Map.Entry<String, List<Song>> e : byKey.entrySet()) {
+            Integer bpm = known.get(e.getKey());
+            if (bpm != null) byBpm.computeIfAbsent(bpm, k -> new ArrayList<>()).addAll(e.getValue());
+        }
+
+        Integer updated = tx.execute(status -> {
+            lookupRepository.saveAll(fetched);
+            List<Song> changed = new ArrayList<>();
+            int rows = 0;
+            for (Map.Entry<Integer, List<Song>> e : byBpm.entrySet()) {
+                List<Long> ids = e.getValue().stream().map(Song::getId).toList();
+                int n = songRepository.fillMissingBpm(e.getKey(), ids);
+                if (n == 0) continue; // all deleted or given a BPM since the page was read
+                rows += n;
+                // Current rows, not the page snapshot. A song a user set to this same BPM meanwhile
+                // is included too, which is harmless: the catalog gets the value it already has.
+                changed.addAll(songRepository.findByIdInAndBpm(ids, e.getKey()));
+            }
+            // Bulk updates bypass the entity lifecycle, so tell SongCatalog explicitly.
+            if (!changed.isEmpty()) events.publishEvent(SongChangedEvent.saved(changed));
+            return rows;
+        });
+        return new int[]{missing.size(), updated == null ? 0 : updated};
+    }
+
+    private void runScheduled() {
+        try {
+            Result r = runOnce();
+            if (r != null && r.songsScanned() > 0) {
+                log.info("BPM enrichment: scanned={}, apiLookups={}, updated={}",
+                        r.songsScanned(), r.apiLookups(), r.songsUpdated());
+            }
+        } catch (RuntimeException e) {
+            log.warn("BPM enrichment pass failed: {}", e.getMessage());
+        }
+    }
+
+    // -------------------- Lifecycle --------------------
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bpm-enrichment");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runScheduled,
+                initialDelay.toMillis(), Math.max(1, interval.toMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -0,0 +1,94 @@
+package dk.ek.setlistgpt.getsongbpm;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up BPMs for unique tracks through GetSongBpmClient with at most maxConcurrency calls
+ * in flight and calls started no faster than requestsPerSecond. Failed calls (the client
+ * returns an empty map on errors and timeouts) are left out so they are retried on a later run;
+ * tracks the API does not know come back with a null bpm so they are not asked for again.
+ */
+public class BpmFetcher {
+
+    // Tempos outside this range are treated as bad data.
+    private static final int MIN_BPM = 30;
+    private static final int MAX_BPM = 300;
+
+    /** One unique track to look up; key is {@link BpmLookup#key}. */
+    public record Track(String key, String artist, String title) {
+    }
+
+    private final GetSongBpmClient client;
+    private final int maxConcurrency;
+    private final Duration spacing;
+
+    public BpmFetcher(GetSongBpmClient client, int maxConcurrency, double requestsPerSecond) {
+        this.client = client;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.spacing = requestsPerSecond > 0
+                ? Duration.ofNanos((long) (1_000_000_000L / requestsPerSecond))
+                : Duration.ZERO;
+    }
+
+    /** Blocks until every track has been looked up; returns one unsaved lookup per answered track. */
+    public List<BpmLookup> fetch(List<Track> tracks) {
+        if (tracks.isEmpty()) return List.of();
+        Flux<Track> paced = spacing.isZero() ? Flux.fromIterable(tracks) : Flux.fromIterable(tracks).delayElements(spacing);
+        // fromCallable completes empty when lookup returns null (failed call)
+        return paced
+                .flatMap(t -> Mono.fromCallable(() -> lookup(t)).subscribeOn(Schedulers.boundedElastic()), maxConcurrency)
+                .collectList()
+                .block();
+    }
+
+    private BpmLookup lookup(Track t) {
+        Map<String, Object> response = client.searchTracks(Map.of(
+                "type", "both",
+                "lookup", "song:" + t.title() + " artist:" + t.artist()));
+        if (response == null || response.isEmpty()) return null;
+        return new BpmLookup(null, t.key(), parseBpm(response), LocalDateTime.now());
+    }
+
+    /**
+     * Tempo of the best match: the first "search" result with a usable "tempo", or a top-level
+     * "tempo"/"bpm" field. Null when there is no match.
+     */
+    static Integer parseBpm(Map<String, Object> response) {
+        Object search = response.get("search");
+        if (search instanceof List<?> results) {
+            for (Object r : results) {
+                if (r instanceof Map<?, ?> m) {
+                    Integer bpm = toBpm(m.get("tempo"));
+                    if (bpm != null) return bpm;
+                }
+            }
+            return null;
+        }
+        Integer bpm = toBpm(response.get("tempo"));
+        return bpm != null ? bpm : toBpm(response.get("bpm"));
+    }
+
+    private static Integer toBpm(Object raw) {
+        double v;
+        if (raw instanceof Number n) {
+            v = n.doubleValue();
+        } else if (raw instanceof String s && !s.isBlank()) {
+            try {
+                v = Double.parseDouble(s.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        int bpm = (int) Math.round(v);
+        return bpm >= MIN_BPM && bpm <= MAX_BPM ? bpm : null;
+    }
+}
@@ -0,0 +1,60 @@
+package dk.ek.setlistgpt.getsongbpm;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Persistent result of one BPM API lookup, keyed by normalized artist + title, so each
+ * unique track is fetched once across runs and restarts. bpm is null when the API had no match.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "bpm_lookups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_bpm_lookups_key", columnNames = "lookup_key"))
+public class BpmLookup {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "lookup_key", nullable = false, length = MAX_KEY_LENGTH)
+    private String lookupKey;
+
+    private Integer bpm;
+
+    private LocalDateTime fetchedAt;
+
+    /**
+     * "artist|title" lowercased, accents stripped and punctuation collapsed to single spaces,
+     * so "Beyoncé - Halo!" and "beyonce halo" share a key. Null if either part is blank.
+     */
+    public static String key(String artist, String title) {
+        String a = normalize(artist);
+        String t = normalize(title);
+        if (a == null || t == null) return null;
+        String key = a + "|" + t;
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private static String normalize(String s) {
+        if (s == null) return null;
+        String n = Normalizer.normalize(s, Normalizer.Form.NFKD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+        return n.isEmpty() ? null : n;
+    }
+}
@@ -0,0 +1,11 @@
+package dk.ek.setlistgpt.getsongbpm;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/** Spring Data JPA repository for BpmLookup */
+public interface BpmLookupRepository extends JpaRepository<BpmLookup, Long> {
+    List<BpmLookup> findByLookupKeyIn(Collection<String> lookupKeys);
+}
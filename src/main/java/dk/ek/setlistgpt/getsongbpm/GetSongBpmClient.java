@@ -1,53 +1,65 @@
 package dk.ek.setlistgpt.getsongbpm;
 
+import dk.ek.setlistgpt.upstream.UpstreamGuard;
+import dk.ek.setlistgpt.upstream.UpstreamMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 @Service
+@ConditionalOnProperty(prefix = "app.getsongbpm", name = "url")
 public class GetSongBpmClient {
 
-    private final WebClient webClient;
-    private static final Duration BLOCK_TIMEOUT = Duration.ofSeconds(10);
+    private static final Logger log = LoggerFactory.getLogger(GetSongBpmClient.class);
     private static final ParameterizedTypeReference<Map<String, Object>> MAP_TYPE =
             new ParameterizedTypeReference<>() {};
 
-    public GetSongBpmClient(WebClient getSongBpmWebClient) {
+    private final WebClient webClient;
+    private final UpstreamGuard guard;
+    private final MeterRegistry meterRegistry;
+
+    public GetSongBpmClient(WebClient getSongBpmWebClient, UpstreamGuard getSongBpmGuard, MeterRegistry meterRegistry) {
         this.webClient = getSongBpmWebClient;
+        this.guard = getSongBpmGuard;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
-     * Calls a search/track endpoint with optional query parameters.
-     * Returns an empty map on error or timeout. Replace return type with DTO after inspecting API schema.
+     * Calls a search/track endpoint with optional query parameters, through the upstream's
+     * timeouts, bulkhead, circuit breaker and hedged retries (see UpstreamGuard).
      */
-    public Map<String, Object> searchTracks(Map<String, String> queryParams) {
+    public Mono<Map<String, Object>> search(Map<String, String> queryParams) {
         final Map<String, String> params = queryParams == null ? new HashMap<>() : queryParams;
+        return UpstreamMetrics.timed(guard.call(() -> webClient.get()
+                .uri(uriBuilder -> {
+                    uriBuilder.path("/tracks");
+                    params.forEach((key, value) -> uriBuilder.queryParam(key, value));
+                    return uriBuilder.build();
+                })
+                .retrieve()
+                .bodyToMono(MAP_TYPE)), meterRegistry, "getsongbpm", "search");
+    }
 
+    /**
+     * Blocking variant of {@link #search}. Returns an empty map on error, timeout or rejection.
+     * Replace return type with DTO after inspecting API schema.
+     */
+    public Map<String, Object> searchTracks(Map<String, String> queryParams) {
         try {
-            return webClient.get()
-                    .uri(uriBuilder -> {
-                        uriBuilder.path("/tracks");
-                        params.forEach((key, value) -> uriBuilder.queryParam(key, value));
-                        return uriBuilder.build();
-                    })
-                    .exchangeToMono(response -> {
-                        if (response.statusCode().is2xxSuccessful()) {
-                            return response.bodyToMono(MAP_TYPE);
-                        } else {
-                            return response.createException()
-                                    .flatMap(Mono::error);
-                        }
-                    })
-                    .block(BLOCK_TIMEOUT);
-        } catch (Exception e) {
-
+            Map<String, Object> result = search(queryParams).block();
+            return result == null ? Collections.emptyMap() : result;
+        } catch (RuntimeException e) {
+            log.warn("GetSongBPM search failed: {}", e.getMessage());
             return Collections.emptyMap();
         }
     }
-}
\ No newline at end of file
+}
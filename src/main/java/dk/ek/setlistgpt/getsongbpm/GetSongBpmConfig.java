@@ -1,9 +1,13 @@
 package dk.ek.setlistgpt.getsongbpm;
 
+import dk.ek.setlistgpt.upstream.UpstreamGuard;
+import dk.ek.setlistgpt.upstream.UpstreamHttp;
+import dk.ek.setlistgpt.upstream.UpstreamSettings;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -16,10 +20,12 @@ public class GetSongBpmConfig {
     public WebClient getSongBpmWebClient(
             @Value("${app.getsongbpm.url}") String url,
             @Value("${app.getsongbpm.api-key:}") String apiKey,
-            @Value("${app.getsongbpm.api-header:Authorization}") String apiHeader) {
+            @Value("${app.getsongbpm.api-header:Authorization}") String apiHeader,
+            Environment env) {
 
         WebClient.Builder b = WebClient.builder()
                 .baseUrl(url)
+                .clientConnector(UpstreamHttp.connector(UpstreamSettings.from(env, "getsongbpm")))
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
 
         if (apiKey != null && !apiKey.isBlank()) {
@@ -28,4 +34,9 @@ public class GetSongBpmConfig {
         }
         return b.build();
     }
+
+    @Bean
+    public UpstreamGuard getSongBpmGuard(Environment env) {
+        return new UpstreamGuard(UpstreamSettings.from(env, "getsongbpm"));
+    }
 }
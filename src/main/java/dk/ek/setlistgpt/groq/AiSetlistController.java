@@ -0,0 +1,56 @@
+package dk.ek.setlistgpt.groq;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * AI setlist suggestions. Both endpoints return reactive types, so no servlet thread waits
+ * on the model; the stream endpoint relays tokens to the browser as they are generated.
+ */
+@RestController
+@RequestMapping("/api/ai")
+public class AiSetlistController {
+
+    private final GroqClient groqClient;
+
+    public AiSetlistController(GroqClient groqClient) {
+        this.groqClient = groqClient;
+    }
+
+    @GetMapping("/setlist")
+    public Mono<Map<String, Object>> suggestSetlist(@RequestParam(required = false) String mood,
+                                                    @RequestParam(required = false) String genre,
+                                                    @RequestParam(defaultValue = "45") int minutes) {
+        return groqClient.chatCompletion(prompt(mood, genre, minutes));
+    }
+
+    /**
+     * Server-sent events for EventSource: "token" events carrying text deltas, then one "done"
+     * event, or an "error" event if the upstream call fails.
+     */
+    @GetMapping(value = "/setlist/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamSetlist(@RequestParam(required = false) String mood,
+                                                       @RequestParam(required = false) String genre,
+                                                       @RequestParam(defaultValue = "45") int minutes) {
+        return groqClient.streamChatCompletion(prompt(mood, genre, minutes))
+                .map(token -> ServerSentEvent.builder(token).event("token").build())
+                .concatWith(Mono.just(ServerSentEvent.builder("").event("done").build()))
+                .onErrorResume(e -> Mono.just(ServerSentEvent.builder("AI service unavailable").event("error").build()));
+    }
+
+    // Same wording for the same criteria, so repeated requests share ChatCompletionCache entries.
+    static String prompt(String mood, String genre, int minutes) {
+        int m = Math.max(1, Math.min(240, minutes));
+        StringBuilder sb = new StringBuilder("Suggest a setlist of real songs lasting about ")
+                .append(m).append(" minutes");
+        if (genre != null && !genre.isBlank()) sb.append(" in the genre ").append(genre.trim());
+        if (mood != null && !mood.isBlank()) sb.append(" with a ").append(mood.trim()).append(" mood");
+        return sb.append(". Answer as a numbered list, one \"Artist - Title (m:ss)\" per line, nothing else.")
+                .toString();
+    }
+}
@@ -0,0 +1,233 @@
+package dk.ek.setlistgpt.groq;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU + TTL cache of chat completion responses, keyed on a SHA-256 fingerprint of the
+ * normalized prompt (trimmed, whitespace collapsed, lowercased) plus model, temperature and
+ * max_tokens. Concurrent misses for the same key share one upstream call (single flight);
+ * failures are not cached. When app.groq.cache.file is set the entries are loaded at startup
+ * and written back on shutdown, so hits survive restarts.
+ */
+@Component
+public class ChatCompletionCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatCompletionCache.class);
+    private static final TypeReference<List<StoredEntry>> FILE_TYPE = new TypeReference<>() {};
+
+    /** On-disk form of one entry; storedAt is epoch millis. */
+    public record StoredEntry(String key, long storedAt, Map<String, Object> value) {
+    }
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    // Access-ordered, so iteration starts at the least recently used entry. Guarded by lock.
+    private final LinkedHashMap<String, StoredEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentHashMap<String, CompletableFuture<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ChatCompletionCache(@Value("${app.groq.cache.enabled:true}") boolean enabled,
+                               @Value("${app.groq.cache.max-entries:1000}") int maxEntries,
+                               @Value("${app.groq.cache.ttl:6h}") Duration ttl,
+                               @Value("${app.groq.cache.file:}") String file,
+                               ObjectMapper objectMapper) {
+        this(enabled, maxEntries, ttl, file, objectMapper, Clock.systemUTC());
+    }
+
+    ChatCompletionCache(boolean enabled, int maxEntries, Duration ttl, String file,
+                        ObjectMapper objectMapper, Clock clock) {
+        this.enabled = enabled && maxEntries > 0;
+        this.maxEntries = Math.max(0, maxEntries);
+        this.ttlMillis = ttl.toMillis();
+        this.file = (file == null || file.isBlank()) ? null : Path.of(file.trim());
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    /** Fingerprint of a request; prompts differing only in case or whitespace share a key. */
+    public static String key(String prompt, String model, double temperature, int maxTokens) {
+        String normalized = prompt == null ? "" : prompt.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        String material = normalized + '\u0000' + model + '\u0000' + temperature + '\u0000' + maxTokens;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(material.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Emits the cached response for the key, or subscribes to the loader once for all concurrent
+     * callers with that key and caches a non-null result. Nothing blocks; every caller, the one
+     * that started the load included, waits on the same future, and cancelling one of them
+     * leaves the load running for the rest.
+     */
+    public Mono<Map<String, Object>> get(String key, Supplier<Mono<Map<String, Object>>> loader) {
+        if (!enabled) return Mono.defer(loader);
+        return Mono.defer(() -> {
+            Map<String, Object> cached = lookup(key);
+            if (cached != null) return Mono.just(cached);
+
+            CompletableFuture<Map<String, Object>> mine = new CompletableFuture<>();
+            CompletableFuture<Map<String, Object>> leader = inFlight.putIfAbsent(key, mine);
+            if (leader != null) {
+                hits.incrementAndGet(); // served without its own upstream call
+                return Mono.fromFuture(leader, true);
+            }
+            // The previous leader may have stored the value between our lookup and putIfAbsent.
+            cached = lookup(key);
+            if (cached != null) {
+                mine.complete(cached);
+                inFlight.remove(key, mine);
+                return Mono.just(cached);
+            }
+            misses.incrementAndGet();
+            // The load is subscribed on its own rather than through the leader, so a leader that
+            // disconnects or times out does not cancel it for the callers still waiting. Leave
+            // inFlight before completing: callers (and a retry) may run as soon as the signal is
+            // delivered and must not join a finished load.
+            Mono.defer(loader)
+                    .doOnSuccess(value -> {
+                        if (value != null) put(key, value);
+                        inFlight.remove(key, mine);
+                        mine.complete(value);
+                    })
+                    .subscribe(null, e -> {
+                        inFlight.remove(key, mine);
+                        mine.completeExceptionally(e);
+                    });
+            return Mono.fromFuture(mine, true);
+        });
+    }
+
+    /** Cached response without loading; counts as a hit when present. */
+    public Map<String, Object> peek(String key) {
+        return enabled ? lookup(key) : null;
+    }
+
+    public void put(String key, Map<String, Object> value) {
+        if (enabled && value != null) store(new StoredEntry(key, clock.millis(), value));
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // -------------------- Persistence --------------------
+    @PostConstruct
+    public void load() {
+        if (!enabled || file == null || !Files.isRegularFile(file)) return;
+        try {
+            List<StoredEntry> stored = objectMapper.readValue(file.toFile(), FILE_TYPE);
+            // File is written least recently used first, so replaying keeps the LRU order.
+            stored.forEach(this::store);
+            log.info("Loaded {} cached chat completions from {}", size(), file);
+        } catch (IOException e) {
+            log.warn("Could not read chat completion cache {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void save() {
+        if (!enabled || file == null) return;
+        List<StoredEntry> snapshot;
+        lock.lock();
+        try {
+            snapshot = new ArrayList<>(entries.values());
+        } finally {
+            lock.unlock();
+        }
+        long now = clock.millis();
+        snapshot.removeIf(e -> expired(e, now));
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "groq-cache", ".tmp");
+            objectMapper.writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write chat completion cache {}: {}", file, e.getMessage());
+        }
+    }
+
+    // -------------------- Internals --------------------
+    private Map<String, Object> lookup(String key) {
+        lock.lock();
+        try {
+            StoredEntry e = entries.get(key);
+            if (e == null) return null;
+            if (expired(e, clock.millis())) {
+                entries.remove(key);
+                return null;
+            }
+            hits.incrementAndGet();
+            return e.value();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(StoredEntry entry) {
+        if (expired(entry, clock.millis())) return;
+        lock.lock();
+        try {
+            entries.put(entry.key(), entry);
+            Iterator<StoredEntry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean expired(StoredEntry e, long now) {
+        return now - e.storedAt() >= ttlMillis;
+    }
+}
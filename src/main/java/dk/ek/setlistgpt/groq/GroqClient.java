@@ -1,40 +1,128 @@
 package dk.ek.setlistgpt.groq;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dk.ek.setlistgpt.upstream.UpstreamGuard;
+import dk.ek.setlistgpt.upstream.UpstreamMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class GroqClient {
+    private static final ParameterizedTypeReference<Map<String, Object>> MAP_TYPE =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() {};
+    // OpenAI-compatible streams end with this data line instead of a JSON chunk.
+    private static final String STREAM_DONE = "[DONE]";
+
     private final WebClient webClient;
+    private final UpstreamGuard guard;
+    private final ChatCompletionCache cache;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
     private final String model;
     private final int maxTokens;
     private final double temperature;
 
-    public GroqClient(WebClient webClient,
+    public GroqClient(WebClient grokWebClient,
+                      UpstreamGuard groqGuard,
+                      ChatCompletionCache cache,
+                      ObjectMapper objectMapper,
+                      MeterRegistry meterRegistry,
                       @Value("${app.model}") String model,
                       @Value("${app.max_tokens:300}") int maxTokens,
                       @Value("${app.temperature:0.8}") double temperature) {
-        this.webClient = webClient;
+        this.webClient = grokWebClient;
+        this.guard = groqGuard;
+        this.cache = cache;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
         this.model = model;
         this.maxTokens = maxTokens;
         this.temperature = temperature;
     }
 
+    /** Blocking variant kept for callers on servlet threads; prefer {@link #chatCompletion}. */
     public Map<String, Object> generateChatCompletion(String userPrompt) {
-        Map<String, Object> body = Map.of(
+        return chatCompletion(userPrompt).block();
+    }
+
+    // Identical prompts (same mood/genre/duration) are answered from ChatCompletionCache.
+    public Mono<Map<String, Object>> chatCompletion(String userPrompt) {
+        String key = ChatCompletionCache.key(userPrompt, model, temperature, maxTokens);
+        return cache.get(key, () -> UpstreamMetrics.timed(guard.call(() -> webClient.post()
+                .bodyValue(requestBody(userPrompt, false))
+                .retrieve()
+                .bodyToMono(MAP_TYPE)), meterRegistry, "groq", "chat"));
+    }
+
+    /**
+     * Completion text as it is generated ({@code stream: true}), one element per content delta.
+     * A cached answer is replayed as a single element; a completed stream is cached in the
+     * same shape as a non-streamed response.
+     */
+    public Flux<String> streamChatCompletion(String userPrompt) {
+        String key = ChatCompletionCache.key(userPrompt, model, temperature, maxTokens);
+        return Flux.defer(() -> {
+            Map<String, Object> cached = cache.peek(key);
+            if (cached != null) {
+                String content = contentOf(cached);
+                return content == null ? Flux.empty() : Flux.just(content);
+            }
+            StringBuilder full = new StringBuilder();
+            return UpstreamMetrics.timed(guard.stream(() -> webClient.post()
+                            .accept(MediaType.TEXT_EVENT_STREAM)
+                            .bodyValue(requestBody(userPrompt, true))
+                            .retrieve()
+                            .bodyToFlux(SSE_TYPE)
+                            .mapNotNull(ServerSentEvent::data)
+                            .takeWhile(data -> !STREAM_DONE.equals(data.trim()))), meterRegistry, "groq", "chat.stream")
+                    .mapNotNull(this::deltaContent)
+                    .doOnNext(full::append)
+                    .doOnComplete(() -> cache.put(key, Map.of(
+                            "model", model,
+                            "choices", List.of(Map.of(
+                                    "index", 0,
+                                    "message", Map.of("role", "assistant", "content", full.toString()),
+                                    "finish_reason", "stop")))));
+        });
+    }
+
+    private Map<String, Object> requestBody(String userPrompt, boolean stream) {
+        return Map.of(
                 "model", model,
                 "messages", new Object[] { Map.of("role", "user", "content", userPrompt) },
                 "max_tokens", maxTokens,
-                "temperature", temperature
+                "temperature", temperature,
+                "stream", stream
         );
+    }
 
-        return webClient.post()
-                .bodyValue(body)
-                .retrieve()
-                .bodyToMono(Map.class)
-                .block();
+    // choices[0].delta.content of one stream chunk; null for role-only or empty deltas.
+    private String deltaContent(String chunk) {
+        try {
+            JsonNode content = objectMapper.readTree(chunk).path("choices").path(0).path("delta").path("content");
+            return content.isTextual() && !content.asText().isEmpty() ? content.asText() : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed completion chunk", e);
+        }
+    }
+
+    // choices[0].message.content of a full response.
+    private String contentOf(Map<String, Object> response) {
+        JsonNode content = objectMapper.valueToTree(response).path("choices").path(0).path("message").path("content");
+        return content.isTextual() ? content.asText() : null;
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,12 @@
 package dk.ek.setlistgpt.groq;
 
+import dk.ek.setlistgpt.upstream.UpstreamGuard;
+import dk.ek.setlistgpt.upstream.UpstreamHttp;
+import dk.ek.setlistgpt.upstream.UpstreamSettings;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -13,11 +17,18 @@ public class GroqConfig {
     @Bean
     public WebClient grokWebClient(
             @Value("${app.url}") String url,
-            @Value("${app.api-key}") String apiKey) {
+            @Value("${app.api-key}") String apiKey,
+            Environment env) {
         return WebClient.builder()
                 .baseUrl(url)
+                .clientConnector(UpstreamHttp.connector(UpstreamSettings.from(env, "groq")))
                 .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .build();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public UpstreamGuard groqGuard(Environment env) {
+        return new UpstreamGuard(UpstreamSettings.from(env, "groq"));
+    }
+}
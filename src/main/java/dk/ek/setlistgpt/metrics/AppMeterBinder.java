@@ -0,0 +1,110 @@
+package dk.ek.setlistgpt.metrics;
+
+import dk.ek.setlistgpt.groq.ChatCompletionCache;
+import dk.ek.setlistgpt.repertoire.PublicRepertoireCache;
+import dk.ek.setlistgpt.security.PasswordVerifier;
+import dk.ek.setlistgpt.setlist.SetlistWriteBehind;
+import dk.ek.setlistgpt.stats.SiteStats;
+import dk.ek.setlistgpt.stats.StatsService;
+import dk.ek.setlistgpt.upstream.UpstreamGuard;
+import dk.ek.setlistgpt.upstream.UpstreamMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes counters the application already keeps (cache hits, write-behind queue, upstream
+ * guards, maintained site totals) as meters. Nothing is counted twice: every meter reads the
+ * existing counter when scraped.
+ */
+@Component
+public class AppMeterBinder implements MeterBinder {
+
+    // Site totals come from one row; a scrape reads all six gauges, so share one read.
+    private static final long SITE_STATS_MAX_AGE_MS = 10_000;
+
+    private final ChatCompletionCache chatCache;
+    private final PublicRepertoireCache publicRepertoires;
+    private final SetlistWriteBehind writeBehind;
+    private final StatsService statsService;
+    private final ObjectProvider<UpstreamGuard> guards;
+    private final PasswordVerifier passwordVerifier;
+
+    private volatile SiteStats siteStats;
+    private volatile long siteStatsReadAt;
+
+    public AppMeterBinder(ChatCompletionCache chatCache,
+                          PublicRepertoireCache publicRepertoires,
+                          SetlistWriteBehind writeBehind,
+                          StatsService statsService,
+                          ObjectProvider<UpstreamGuard> guards,
+                          PasswordVerifier passwordVerifier) {
+        this.chatCache = chatCache;
+        this.publicRepertoires = publicRepertoires;
+        this.writeBehind = writeBehind;
+        this.statsService = statsService;
+        this.guards = guards;
+        this.passwordVerifier = passwordVerifier;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache(registry, "groq.chat", chatCache, ChatCompletionCache::hits, ChatCompletionCache::misses);
+        Gauge.builder("cache.size", chatCache, ChatCompletionCache::size)
+                .tag("cache", "groq.chat")
+                .register(registry);
+        cache(registry, "repertoire.public", publicRepertoires, PublicRepertoireCache::hits, PublicRepertoireCache::misses);
+
+        Gauge.builder("setlist.write.behind.queue", writeBehind, w -> w.stats().queueDepth())
+                .register(registry);
+        FunctionCounter.builder("setlist.write.behind.flushed", writeBehind, w -> w.stats().flushed())
+                .register(registry);
+        FunctionCounter.builder("setlist.write.behind.failed", writeBehind, w -> w.stats().failed())
+                .register(registry);
+
+        guards.orderedStream().forEach(g -> UpstreamMetrics.bind(g, registry));
+
+        Gauge.builder("auth.verify.queue", passwordVerifier, PasswordVerifier::queueDepth)
+                .description("Password checks waiting for the verification pool")
+                .register(registry);
+        FunctionCounter.builder("auth.verify.checks", passwordVerifier, PasswordVerifier::verified)
+                .tag("result", "done").register(registry);
+        FunctionCounter.builder("auth.verify.checks", passwordVerifier, PasswordVerifier::rejected)
+                .tag("result", "rejected").register(registry);
+        FunctionCounter.builder("auth.verify.rehashed", passwordVerifier, PasswordVerifier::rehashed)
+                .register(registry);
+
+        site(registry, "profiles", SiteStats::getProfiles);
+        site(registry, "repertoires", SiteStats::getRepertoires);
+        site(registry, "songs", SiteStats::getSongs);
+        site(registry, "setlists", SiteStats::getSetlists);
+    }
+
+    private static <T> void cache(MeterRegistry registry, String name, T cache,
+                                  ToDoubleFunction<T> hits, ToDoubleFunction<T> misses) {
+        FunctionCounter.builder("cache.gets", cache, hits).tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", cache, misses).tag("cache", name).tag("result", "miss").register(registry);
+    }
+
+    private void site(MeterRegistry registry, String what, ToDoubleFunction<SiteStats> value) {
+        Gauge.builder("site.totals", this, b -> value.applyAsDouble(b.siteStats()))
+                .tag("kind", what)
+                .register(registry);
+    }
+
+    private SiteStats siteStats() {
+        SiteStats s = siteStats;
+        long now = System.currentTimeMillis();
+        if (s == null || now - siteStatsReadAt > SITE_STATS_MAX_AGE_MS) {
+            s = statsService.totals();
+            siteStats = s;
+            siteStatsReadAt = now;
+        }
+        return s;
+    }
+}
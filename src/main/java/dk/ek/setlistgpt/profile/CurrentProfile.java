@@ -0,0 +1,29 @@
+package dk.ek.setlistgpt.profile;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * The logged-in profile of a request. With signed tokens (app.auth.mode=token) the security
+ * filter puts it on the request; with server sessions it is the "profile" session attribute.
+ * A token profile carries only id, name and type.
+ */
+public final class CurrentProfile {
+
+    /** Session attribute holding the Profile in session mode. */
+    public static final String SESSION_ATTRIBUTE = "profile";
+    /** Request attribute holding the Profile verified from a token. */
+    public static final String REQUEST_ATTRIBUTE = CurrentProfile.class.getName();
+
+    private CurrentProfile() {
+    }
+
+    public static Profile get(HttpServletRequest request) {
+        if (request == null) return null;
+        if (request.getAttribute(REQUEST_ATTRIBUTE) instanceof Profile p) return p;
+        HttpSession session = request.getSession(false);
+        if (session == null) return null;
+        Object obj = session.getAttribute(SESSION_ATTRIBUTE);
+        return (obj instanceof Profile) ? (Profile) obj : null;
+    }
+}
@@ -11,7 +11,9 @@ import lombok.*;
 @Builder
 @Entity
 @Table(name = "profiles", indexes = {
-        @Index(name = "ux_profiles_name", columnList = "name", unique = true)
+        @Index(name = "ux_profiles_name", columnList = "name", unique = true),
+        // admin dashboard pages each profile type by name
+        @Index(name = "idx_profiles_type_name", columnList = "type, name")
 })
 public class Profile {
     @Id
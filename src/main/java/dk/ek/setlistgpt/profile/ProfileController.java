@@ -1,9 +1,13 @@
 package dk.ek.setlistgpt.profile;
 
+import dk.ek.setlistgpt.security.LoginThrottledException;
+import dk.ek.setlistgpt.security.ProfileTokenService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,21 +22,23 @@ public class ProfileController {
 
     private final Logger log = LoggerFactory.getLogger(ProfileController.class);
     private final ProfileService profileService;
+    private final ProfileTokenService tokens;
 
-    public ProfileController(ProfileService profileService) { this.profileService = profileService; }
+    public ProfileController(ProfileService profileService, ProfileTokenService tokens) {
+        this.profileService = profileService;
+        this.tokens = tokens;
+    }
 
     // MUSICIAN login (guests use public endpoints; no login needed there)
     @PostMapping(value = "/login", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> login(@RequestBody Profile body, HttpServletRequest request) {
+    public ResponseEntity<?> login(@RequestBody Profile body, HttpServletRequest request, HttpServletResponse response) {
         String path = "/api/profile/login";
 
+        Profile current = CurrentProfile.get(request);
+        if (current != null) return ResponseEntity.ok(current);
         // If a session exists but has no profile, invalidate it to avoid returning 200 with null
         HttpSession existing = request.getSession(false);
-        if (existing != null) {
-            Profile inSession = (Profile) existing.getAttribute("profile");
-            if (inSession != null) return ResponseEntity.ok(inSession);
-            existing.invalidate();
-        }
+        if (existing != null) existing.invalidate();
 
         if (body == null) {
             return ResponseEntity.badRequest().body(Map.of("path", path, "status", 400, "error", "request body required"));
@@ -43,14 +49,21 @@ public class ProfileController {
             return ResponseEntity.badRequest().body(Map.of("path", path, "status", 400, "error", "name and password are required"));
         }
 
-        Profile authed = profileService.authenticateAndGetProfile(name, password);
+        Profile authed;
+        try {
+            authed = profileService.authenticateAndGetProfile(name, password);
+        } catch (LoginThrottledException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("path", path, "status", 429, "error", "too many logins, try again shortly"));
+        }
         if (authed == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("path", path, "status", 401, "error", "invalid credentials"));
         }
 
-        HttpSession session = request.getSession();
-        session.setMaxInactiveInterval(1200);
-        session.setAttribute("profile", authed);
+        tokens.signIn(authed, request, response);
+        HttpSession session = request.getSession(false);
+        if (session != null) session.setMaxInactiveInterval(1200);
         return ResponseEntity.ok(authed);
     }
 
@@ -100,12 +113,10 @@ public class ProfileController {
         }
     }
 
-    // Return the current session profile (401 if not logged in)
+    // Return the current signed-in profile (401 if not logged in)
     @GetMapping("/me")
     public ResponseEntity<Profile> me(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
-        if (session == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        Profile p = (Profile) session.getAttribute("profile");
+        Profile p = CurrentProfile.get(request);
         if (p == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         return ResponseEntity.ok(p);
     }
@@ -156,11 +167,10 @@ public class ProfileController {
 
     // Admin delete rules documented in method body below
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProfile(@PathVariable Long id, HttpServletRequest request) {
+    public ResponseEntity<Void> deleteProfile(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) {
         if (ProfileType.ADMIN.verifyAccessLevel(request)) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
 
-        HttpSession session = request.getSession(false);
-        Profile actor = (Profile) (session != null ? session.getAttribute("profile") : null);
+        Profile actor = CurrentProfile.get(request);
 
         Profile target = profileService.getProfileById(id);
         if (target == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -181,17 +191,16 @@ public class ProfileController {
 
         profileService.deleteProfile(target);
 
-        if (actor != null && actor.getId().equals(target.getId()) && session != null) {
-            session.invalidate();
+        if (actor != null && actor.getId().equals(target.getId())) {
+            tokens.signOut(request, response);
         }
         return ResponseEntity.noContent().build();
     }
 
-    // Logout clears the session
+    // Logout clears the session (or revokes the token)
     @PutMapping("/logout")
-    public ResponseEntity<Void> logout(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
-        if (session != null) session.invalidate();
+    public ResponseEntity<Void> logout(HttpServletRequest request, HttpServletResponse response) {
+        tokens.signOut(request, response);
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
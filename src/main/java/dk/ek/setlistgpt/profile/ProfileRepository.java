@@ -1,8 +1,11 @@
 package dk.ek.setlistgpt.profile;
 
 import dk.ek.setlistgpt.admin.AdminProfileSummaryDto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,16 +15,24 @@ public interface ProfileRepository extends JpaRepository<Profile, Long> {
     Optional<Profile> findByName(String name);
     boolean existsByName(String name);
 
+    // Only replaces the hash that was verified, so a concurrent password change wins.
+    @Transactional
+    @Modifying
+    @Query("update Profile p set p.password = :hash where p.id = :id and p.password = :previous")
+    int replacePasswordHash(Long id, String previous, String hash);
+
     @Query("""
            select new dk.ek.setlistgpt.admin.AdminProfileSummaryDto(
                p.id,
                p.name,
                p.type,
-               (select count(r) from Repertoire r where r.owner = p),
-               (select count(s) from Song s join s.repertoire rep where rep.owner = p),
-               (select count(sl) from Setlist sl where sl.owner = p)
+               coalesce(st.repertoires, 0),
+               coalesce(st.songs, 0),
+               coalesce(st.setlists, 0)
            )
-           from Profile p
+           from Profile p left join ProfileStats st on st.profileId = p.id
+           where p.type = :type
+           order by p.name, p.id
            """)
-    List<AdminProfileSummaryDto> fetchAdminProfileSummaries();
+    List<AdminProfileSummaryDto> fetchAdminProfileSummaries(ProfileType type, Pageable pageable);
 }
\ No newline at end of file
@@ -1,7 +1,6 @@
 package dk.ek.setlistgpt.profile;
 
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,32 +10,26 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/profile")
 public class ProfileSelfController {
 
-    private final ProfileRepository profiles;
+    private final ProfileService profileService;
 
-    public ProfileSelfController(ProfileRepository profiles) {
-        this.profiles = profiles;
+    public ProfileSelfController(ProfileService profileService) {
+        this.profileService = profileService;
     }
 
     @DeleteMapping("/me")
     public ResponseEntity<Void> deleteOwnProfile(HttpServletRequest request) {
-        Profile current = sessionProfile(request);
+        Profile current = CurrentProfile.get(request);
         if (current == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         if (current.getType() != ProfileType.MUSICIAN) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        if (!profiles.existsById(current.getId())) {
+        Profile target = profileService.getProfileById(current.getId());
+        if (target == null) {
             return ResponseEntity.notFound().build();
         }
-        profiles.deleteById(current.getId());
+        profileService.deleteProfile(target);
         return ResponseEntity.noContent().build();
     }
-
-    private static Profile sessionProfile(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
-        if (session == null) return null;
-        Object obj = session.getAttribute("profile");
-        return (obj instanceof Profile) ? (Profile) obj : null;
-    }
 }
\ No newline at end of file
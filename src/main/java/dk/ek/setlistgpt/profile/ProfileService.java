@@ -1,5 +1,8 @@
 package dk.ek.setlistgpt.profile;
 
+import dk.ek.setlistgpt.security.PasswordVerifier;
+import dk.ek.setlistgpt.security.TokenRevocationList;
+import dk.ek.setlistgpt.stats.StatsService;
 import jakarta.annotation.PostConstruct;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -10,10 +13,17 @@ public class ProfileService {
 
     private final ProfileRepository repo;
     private final PasswordEncoder passwordEncoder;
+    private final StatsService stats;
+    private final TokenRevocationList revocations;
+    private final PasswordVerifier passwordVerifier;
 
-    public ProfileService(ProfileRepository repo, PasswordEncoder passwordEncoder) {
+    public ProfileService(ProfileRepository repo, PasswordEncoder passwordEncoder, StatsService stats,
+                          TokenRevocationList revocations, PasswordVerifier passwordVerifier) {
         this.repo = repo;
         this.passwordEncoder = passwordEncoder;
+        this.stats = stats;
+        this.revocations = revocations;
+        this.passwordVerifier = passwordVerifier;
     }
 
     @PostConstruct
@@ -26,18 +36,26 @@ public class ProfileService {
                     .password(passwordEncoder.encode("admin"))
                     .type(ProfileType.ADMIN)
                     .build();
-            repo.save(admin);
+            stats.profileCreated(repo.save(admin));
         }
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * The profile when the password matches, else null. Not transactional: the BCrypt check runs
+     * on PasswordVerifier's pool and no connection is held while it waits. A hash weaker than the
+     * current strength is replaced on a successful login.
+     *
+     * @throws dk.ek.setlistgpt.security.LoginThrottledException when too many logins are pending
+     */
     public Profile authenticateAndGetProfile(String name, String password) {
-        return repo.findByName(name)
-                .filter(p -> {
-                    String stored = p.getPassword();
-                    return stored != null && password != null && passwordEncoder.matches(password, stored);
-                })
-                .orElse(null);
+        Profile p = repo.findByName(name).orElse(null);
+        if (p == null || p.getPassword() == null || password == null) return null;
+        PasswordVerifier.Result result = passwordVerifier.verify(password, p.getPassword());
+        if (!result.matches()) return null;
+        if (result.rehash() != null && repo.replacePasswordHash(p.getId(), p.getPassword(), result.rehash()) == 1) {
+            p.setPassword(result.rehash());
+        }
+        return p;
     }
 
     @Transactional(readOnly = true)
@@ -57,7 +75,9 @@ public class ProfileService {
 
         // encode password before saving
         profile.setPassword(passwordEncoder.encode(profile.getPassword()));
-        return repo.save(profile);
+        Profile saved = repo.save(profile);
+        stats.profileCreated(saved);
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -73,20 +93,30 @@ public class ProfileService {
         Profile existing = existingOpt.get();
 
         // Update fields safely: name, type, password (encode if provided)
+        boolean changed = false;
         if (profile.getName() != null && !profile.getName().isBlank()) {
+            changed |= !profile.getName().equals(existing.getName());
             existing.setName(profile.getName());
         }
         if (profile.getType() != null) {
+            stats.profileTypeChanged(existing.getType(), profile.getType());
+            changed |= profile.getType() != existing.getType();
             existing.setType(profile.getType());
         }
         if (profile.getPassword() != null && !profile.getPassword().isBlank()) {
             existing.setPassword(passwordEncoder.encode(profile.getPassword()));
+            changed = true;
         }
-        return repo.save(existing);
+        Profile saved = repo.save(existing);
+        // Issued tokens carry the old name/type; make the holder sign in again.
+        if (changed) revocations.revokeProfile(saved.getId());
+        return saved;
     }
 
     @Transactional
     public void deleteProfile(Profile profile) {
+        stats.profileDeleted(profile);
         repo.delete(profile);
+        revocations.revokeProfile(profile.getId());
     }
 }
\ No newline at end of file
@@ -14,13 +14,8 @@ public enum ProfileType {
 
     // Returns true if access should be denied (lower level than required)
     public boolean verifyAccessLevel(HttpServletRequest request) {
-        if (request == null) return true;
-        var session = request.getSession(false);
-        if (session == null) return true;
-        Object obj = session.getAttribute("profile");
-        if (!(obj instanceof Profile)) return true;
-        Profile p = (Profile) obj;
-        if (p.getType() == null) return true;
+        Profile p = CurrentProfile.get(request);
+        if (p == null || p.getType() == null) return true;
         return p.getType().level < this.level;
     }
 
@@ -0,0 +1,111 @@
+package dk.ek.setlistgpt.repertoire;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The anonymous repertoire listing (summaries of PUBLIC repertoires), sorted and serialized
+ * once and served as bytes with an ETag until something in it changes. Dropped after commit on
+ * a {@link RepertoireChangedEvent} that touches a public repertoire. The ttl is only a backstop
+ * for changes made outside that path (e.g. an owner renaming their profile).
+ */
+@Component
+public class PublicRepertoireCache {
+
+    /** Serialized listing and its strong ETag (quoted, ready for the header). */
+    public record Listing(byte[] json, String etag, long builtAt) {
+    }
+
+    // Owner name, then repertoire name, then song count (desc).
+    static final Comparator<RepertoireSummaryDto> PUBLIC_ORDER = Comparator
+            .comparing((RepertoireSummaryDto r) -> (r.getOwnerName() != null ? r.getOwnerName().toLowerCase() : ""))
+            .thenComparing(r -> (r.getName() != null ? r.getName().toLowerCase() : ""))
+            .thenComparing(Comparator.comparingInt(RepertoireSummaryDto::getSongCount).reversed());
+
+    private final RepertoireRepository repo;
+    private final ObjectMapper objectMapper;
+    private final long ttlMillis;
+
+    private final ReentrantLock buildLock = new ReentrantLock();
+    // Bumped on every invalidation; a build that started before the bump is served but not kept.
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Listing current;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PublicRepertoireCache(RepertoireRepository repo,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.repertoire.public-cache.ttl:10m}") Duration ttl) {
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    public Listing get() {
+        Listing l = current;
+        if (fresh(l)) {
+            hits.incrementAndGet();
+            return l;
+        }
+        buildLock.lock();
+        try {
+            l = current;
+            if (fresh(l)) {
+                hits.incrementAndGet(); // built by the request we waited for
+                return l;
+            }
+            misses.incrementAndGet();
+            long gen = generation.get();
+            l = build();
+            if (generation.get() == gen) current = l;
+            return l;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        current = null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRepertoireChanged(RepertoireChangedEvent event) {
+        if (event.affectsPublicListing()) invalidate();
+    }
+
+    private boolean fresh(Listing l) {
+        return l != null && System.currentTimeMillis() - l.builtAt() < ttlMillis;
+    }
+
+    private Listing build() {
+        List<RepertoireSummaryDto> reps = new ArrayList<>(repo.findSummariesByVisibility(RepertoireVisibility.PUBLIC));
+        reps.sort(PUBLIC_ORDER);
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(reps);
+            String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+            return new Listing(json, etag, System.currentTimeMillis());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize public repertoires", e);
+        }
+    }
+}
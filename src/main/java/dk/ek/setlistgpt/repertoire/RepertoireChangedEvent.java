@@ -0,0 +1,26 @@
+package dk.ek.setlistgpt.repertoire;
+
+/**
+ * Published when a repertoire is created, changes visibility or gains/loses songs, so
+ * {@link PublicRepertoireCache} can drop its listing only when a public repertoire is involved.
+ */
+public record RepertoireChangedEvent(Long repertoireId, boolean wasPublic, boolean isPublic) {
+
+    /** Content change (new repertoire, songs added or removed) at the repertoire's current visibility. */
+    public static RepertoireChangedEvent of(Repertoire r) {
+        boolean pub = r.getVisibility() == RepertoireVisibility.PUBLIC;
+        return new RepertoireChangedEvent(r.getId(), pub, pub);
+    }
+
+    public static RepertoireChangedEvent visibilityChanged(Long repertoireId,
+                                                           RepertoireVisibility before,
+                                                           RepertoireVisibility after) {
+        return new RepertoireChangedEvent(repertoireId,
+                before == RepertoireVisibility.PUBLIC,
+                after == RepertoireVisibility.PUBLIC);
+    }
+
+    public boolean affectsPublicListing() {
+        return wasPublic || isPublic;
+    }
+}
@@ -1,10 +1,15 @@
 package dk.ek.setlistgpt.repertoire;
 
+import dk.ek.setlistgpt.profile.CurrentProfile;
 import dk.ek.setlistgpt.profile.Profile;
 import dk.ek.setlistgpt.song.Song;
+import dk.ek.setlistgpt.song.SongChangedEvent;
+import dk.ek.setlistgpt.stats.StatsDelta;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpSession;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,7 +20,8 @@ import java.util.stream.Collectors;
 /**
  * RepertoireController: list endpoint now returns:
  * - if HTTP session contains a 'profile' -> repertoires owned by that profile (My Repertoires)
- * - otherwise -> only PUBLIC repertoires (public browser)
+ * - otherwise -> only PUBLIC repertoires (public browser), served from PublicRepertoireCache
+ *   with an ETag so unchanged listings are answered with 304 Not Modified
  *
  * Mutating endpoints remain protected by security.
  */
@@ -23,57 +29,56 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/repertoires")
 public class RepertoireController {
 
+    private static final int DEFAULT_SONG_PAGE_SIZE = 100;
+    private static final int MAX_SONG_PAGE_SIZE = 500;
+
     private final RepertoireRepository repo;
     private final RepertoireService repertoireService;
+    private final ApplicationEventPublisher events;
+    private final PublicRepertoireCache publicCache;
 
-    public RepertoireController(RepertoireRepository repo, RepertoireService repertoireService) {
+    public RepertoireController(RepertoireRepository repo,
+                                RepertoireService repertoireService,
+                                ApplicationEventPublisher events,
+                                PublicRepertoireCache publicCache) {
         this.repo = repo;
         this.repertoireService = repertoireService;
+        this.events = events;
+        this.publicCache = publicCache;
     }
 
-    // Helper: sort by owner name, then repertoire name, then song count (desc)
-    private List<Repertoire> sortPublicList(List<Repertoire> list) {
-        return list.stream()
-                .sorted(Comparator
-                        .comparing((Repertoire r) -> {
-                            String on = (r.getOwner() != null && r.getOwner().getName() != null) ? r.getOwner().getName().toLowerCase() : "";
-                            return on;
-                        })
-                        .thenComparing(r -> (r.getName() != null ? r.getName().toLowerCase() : ""))
-                        .thenComparing(Comparator.comparingInt((Repertoire r) -> (r.getSongs() != null ? r.getSongs().size() : 0)).reversed())
-                ).collect(Collectors.toList());
+    // Helper: cached PUBLIC listing; a matching If-None-Match is turned into 304 by Spring MVC.
+    private ResponseEntity<byte[]> publicListing() {
+        PublicRepertoireCache.Listing listing = publicCache.get();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(listing.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(listing.json());
     }
 
-    // Public endpoint: list PUBLIC repertoires (sorted, fetch owner & songs via repository)
+    // Public endpoint: list PUBLIC repertoires (sorted by owner name, name, song count desc)
     @GetMapping("/public")
-    public List<Repertoire> listPublic() {
-        List<Repertoire> reps = repo.findByVisibility(RepertoireVisibility.PUBLIC);
-        return sortPublicList(reps);
+    public ResponseEntity<byte[]> listPublic() {
+        return publicListing();
     }
 
     // List repertoires: if session has profile -> return owner's repertoires; otherwise return PUBLIC repertoires.
     @GetMapping
-    public List<Repertoire> listAll(HttpServletRequest request) {
-        HttpSession session = request.getSession(false);
-        if (session != null) {
-            Object obj = session.getAttribute("profile");
-            if (obj instanceof Profile) {
-                Profile p = (Profile) obj;
-                if (p.getId() != null) {
-                    // return only the owner's repertoires (keeps PRIVATE data private)
-                    List<Repertoire> owned = repo.findByOwnerId(p.getId());
-                    // sort owner's list by name then song-count desc
-                    return owned.stream()
-                            .sorted(Comparator
-                                    .comparing((Repertoire r) -> (r.getName() != null ? r.getName().toLowerCase() : ""))
-                                    .thenComparing(Comparator.comparingInt((Repertoire r) -> (r.getSongs() != null ? r.getSongs().size() : 0)).reversed())
-                            ).collect(Collectors.toList());
-                }
-            }
+    public ResponseEntity<?> listAll(HttpServletRequest request) {
+        Profile p = CurrentProfile.get(request);
+        if (p != null && p.getId() != null) {
+            // return only the owner's repertoires (keeps PRIVATE data private)
+            List<RepertoireSummaryDto> owned = repo.findSummariesByOwnerId(p.getId());
+            // sort owner's list by name then song-count desc
+            return ResponseEntity.ok(owned.stream()
+                    .sorted(Comparator
+                            .comparing((RepertoireSummaryDto r) -> (r.getName() != null ? r.getName().toLowerCase() : ""))
+                            .thenComparing(Comparator.comparingInt(RepertoireSummaryDto::getSongCount).reversed())
+                    ).collect(Collectors.toList()));
         }
         // fallback: public listing
-        List<Repertoire> reps = repo.findByVisibility(RepertoireVisibility.PUBLIC);
-        return sortPublicList(reps);
+        return publicListing();
     }
 
     // Create a new repertoire: attach owner (if session) and attach incoming songs to the new repertoire.
@@ -90,15 +95,11 @@ public class RepertoireController {
                 : RepertoireVisibility.PRIVATE);
 
         // attach owner from session if present
-        HttpSession session = request.getSession(false);
-        if (session != null) {
-            Object obj = session.getAttribute("profile");
-            if (obj instanceof Profile) {
-                Profile prof = (Profile) obj;
-                r.setOwner(prof);
-                // ensure denormalized ownerName is populated from Profile.name (username)
-                r.setOwnerName(prof.getName());
-            }
+        Profile prof = CurrentProfile.get(request);
+        if (prof != null) {
+            r.setOwner(prof);
+            // ensure denormalized ownerName is populated from Profile.name (username)
+            r.setOwnerName(prof.getName());
         }
 
         // Attach incoming songs properly so each Song.repertoire is set
@@ -118,6 +119,10 @@ public class RepertoireController {
         }
 
         Repertoire saved = repo.save(r);
+        if (!saved.getSongs().isEmpty()) events.publishEvent(SongChangedEvent.saved(saved.getSongs()));
+        events.publishEvent(RepertoireChangedEvent.of(saved));
+        events.publishEvent(StatsDelta.repertoireCreated(
+                saved.getOwner() != null ? saved.getOwner().getId() : null, saved.getSongs().size()));
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
@@ -129,11 +134,15 @@ public class RepertoireController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // Songs of a repertoire in id order, one page at a time: ?limit=100&after=<nextAfter of previous page>
     @GetMapping("/{id}/songs")
-    public ResponseEntity<List<Song>> getSongs(@PathVariable Long id) {
-        return repo.findById(id)
-                .map(r -> ResponseEntity.ok(r.getSongs()))
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<RepertoireSongPageDto> getSongs(@PathVariable Long id,
+                                                          @RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) Long after) {
+        int size = limit == null ? DEFAULT_SONG_PAGE_SIZE : Math.max(1, Math.min(MAX_SONG_PAGE_SIZE, limit));
+        RepertoireSongPageDto page = repertoireService.listSongs(id, after, size);
+        if (page == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(page);
     }
 
     @PutMapping("/{id}/visibility")
@@ -142,8 +151,13 @@ public class RepertoireController {
             @RequestParam RepertoireVisibility visibility) {
         return repo.findById(id)
                 .map(r -> {
+                    RepertoireVisibility before = r.getVisibility();
                     r.setVisibility(visibility);
-                    return ResponseEntity.ok(repo.save(r));
+                    Repertoire saved = repo.save(r);
+                    if (before != visibility) {
+                        events.publishEvent(RepertoireChangedEvent.visibilityChanged(id, before, visibility));
+                    }
+                    return ResponseEntity.ok(saved);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
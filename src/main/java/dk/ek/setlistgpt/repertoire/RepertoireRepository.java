@@ -1,19 +1,23 @@
 package dk.ek.setlistgpt.repertoire;
 
-import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 /** Spring Data JPA repository for Repertoire */
 public interface RepertoireRepository extends JpaRepository<Repertoire, Long> {
 
-    @EntityGraph(attributePaths = {"owner", "songs"})
-    List<Repertoire> findByVisibility(RepertoireVisibility visibility);
+    long countByOwnerId(Long ownerId);
 
-    // Admin helpers - fetch owner and songs so controller can sort without lazy issues
-    @EntityGraph(attributePaths = {"owner", "songs"})
-    List<Repertoire> findByOwnerId(Long ownerId);
+    // List views: one row per repertoire, song count from a subquery, no Song rows loaded.
+    @Query("select new dk.ek.setlistgpt.repertoire.RepertoireSummaryDto(r.id, r.name, o.id, coalesce(o.name, r.ownerName), "
+            + "r.visibility, (select count(s) from Song s where s.repertoire = r)) "
+            + "from Repertoire r left join r.owner o where r.visibility = :visibility")
+    List<RepertoireSummaryDto> findSummariesByVisibility(RepertoireVisibility visibility);
 
-    long countByOwnerId(Long ownerId);
+    @Query("select new dk.ek.setlistgpt.repertoire.RepertoireSummaryDto(r.id, r.name, o.id, coalesce(o.name, r.ownerName), "
+            + "r.visibility, (select count(s) from Song s where s.repertoire = r)) "
+            + "from Repertoire r join r.owner o where o.id = :ownerId")
+    List<RepertoireSummaryDto> findSummariesByOwnerId(Long ownerId);
 }
\ No newline at end of file
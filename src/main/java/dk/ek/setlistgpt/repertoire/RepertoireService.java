@@ -1,10 +1,16 @@
 package dk.ek.setlistgpt.repertoire;
 
 import dk.ek.setlistgpt.song.Song;
+import dk.ek.setlistgpt.song.SongChangedEvent;
+import dk.ek.setlistgpt.song.SongDto;
 import dk.ek.setlistgpt.song.SongRepository;
+import dk.ek.setlistgpt.stats.StatsDelta;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 /** Service for managing Repertoires and their Songs */
@@ -13,10 +19,26 @@ public class RepertoireService {
 
     private final RepertoireRepository repertoireRepository;
     private final SongRepository songRepository;
+    private final ApplicationEventPublisher events;
 
-    public RepertoireService(RepertoireRepository repertoireRepository, SongRepository songRepository) {
+    public RepertoireService(RepertoireRepository repertoireRepository,
+                             SongRepository songRepository,
+                             ApplicationEventPublisher events) {
         this.repertoireRepository = repertoireRepository;
         this.songRepository = songRepository;
+        this.events = events;
+    }
+
+    // One page of a repertoire's songs after the given song id, or null if the repertoire does not exist.
+    // Fetches one extra row to know whether another page follows.
+    @Transactional(readOnly = true)
+    public RepertoireSongPageDto listSongs(Long repertoireId, Long afterId, int limit) {
+        if (!repertoireRepository.existsById(repertoireId)) return null;
+        List<SongDto> rows = songRepository.findPageByRepertoireId(
+                repertoireId, afterId == null ? 0L : afterId, Limit.of(limit + 1));
+        if (rows.size() <= limit) return new RepertoireSongPageDto(rows, null);
+        List<SongDto> page = rows.subList(0, limit);
+        return new RepertoireSongPageDto(List.copyOf(page), page.get(limit - 1).getId());
     }
 
     // Add an existing Song to a Repertoire using entity helpers (keeps both sides in sync).
@@ -36,9 +58,13 @@ public class RepertoireService {
         }
 
         if (!repertoire.getSongs().contains(song)) {
+            boolean wasLoose = song.getRepertoire() == null;
             // uses helper from Repertoire(model).
             repertoire.addSong(song);
             repertoireRepository.save(repertoire);
+            events.publishEvent(SongChangedEvent.saved(song));
+            events.publishEvent(RepertoireChangedEvent.of(repertoire));
+            if (wasLoose) events.publishEvent(StatsDelta.songAttached(ownerId(repertoire)));
         }
         return song;
     }
@@ -61,6 +87,14 @@ public class RepertoireService {
         // uses helper from Repertoire(model).
         repertoire.removeSong(song);
         repertoireRepository.save(repertoire);
+        // orphanRemoval deletes the song row along with the association
+        events.publishEvent(SongChangedEvent.removed(song.getId()));
+        events.publishEvent(RepertoireChangedEvent.of(repertoire));
+        events.publishEvent(StatsDelta.songDeleted(ownerId(repertoire)));
         return true;
     }
+
+    private static Long ownerId(Repertoire r) {
+        return r.getOwner() != null ? r.getOwner().getId() : null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package dk.ek.setlistgpt.repertoire;
+
+import dk.ek.setlistgpt.song.SongDto;
+
+import java.util.List;
+
+/** One keyset page of a repertoire's songs; pass nextAfter as ?after= for the next page, null on the last. */
+public record RepertoireSongPageDto(List<SongDto> items, Long nextAfter) {
+}
@@ -0,0 +1,35 @@
+package dk.ek.setlistgpt.repertoire;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Lightweight summary projection for listing repertoires; songs are fetched separately.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepertoireSummaryDto {
+    private Long id;
+    private String name;
+    private Long ownerId;
+    private String ownerName;
+    private RepertoireVisibility visibility;
+    private int songCount;
+
+    // JPQL constructor expression: count(...) arrives as a long.
+    public RepertoireSummaryDto(Long id, String name, Long ownerId, String ownerName,
+                                RepertoireVisibility visibility, long songCount) {
+        this(id, name, ownerId, ownerName, visibility, (int) songCount);
+    }
+
+    // Same `title` JSON property as Repertoire, expected by the frontend.
+    @JsonProperty("title")
+    public String getTitle() {
+        return this.name;
+    }
+}
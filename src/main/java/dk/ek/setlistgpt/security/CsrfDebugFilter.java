@@ -1,5 +1,6 @@
 package dk.ek.setlistgpt.security;
 
+import dk.ek.setlistgpt.web.RequestTraceFilter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -17,7 +18,8 @@ import java.util.Optional;
 
 /**
  * Debug filter: logs incoming CSRF cookie/header/session id and token loaded by the shared repository.
- * Deploy temporarily to inspect why CSRF validation fails.
+ * Only does any work for requests that opted in to debug logging (see RequestTraceFilter), so it can
+ * stay in the chain to inspect why CSRF validation fails for a given client.
  */
 public class CsrfDebugFilter extends OncePerRequestFilter {
 
@@ -32,6 +34,10 @@ public class CsrfDebugFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain chain) throws ServletException, IOException {
+        if (!RequestTraceFilter.isDebug(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
         try {
             String sessionId = Optional.ofNullable(request.getSession(false)).map(s -> s.getId()).orElse("<no-session>");
             String cookieVal = "<none>";
@@ -45,7 +51,7 @@ public class CsrfDebugFilter extends OncePerRequestFilter {
             String headerVal = Optional.ofNullable(request.getHeader("X-XSRF-TOKEN")).orElse("<none>");
             CsrfToken repoToken = csrfRepo.loadToken(request);
             String repoTokenVal = repoToken != null ? repoToken.getToken() : "<repo-none>";
-            log.info("CSRF DEBUG: method={} path={} session={} cookie={} header={} repoToken={}",
+            log.debug("CSRF DEBUG: method={} path={} session={} cookie={} header={} repoToken={}",
                     request.getMethod(), request.getRequestURI(), sessionId, cookieVal, headerVal, repoTokenVal);
         } catch (Exception ex) {
             log.warn("CSRF DEBUG: failed to inspect token", ex);
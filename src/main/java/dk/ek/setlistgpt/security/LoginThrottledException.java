@@ -0,0 +1,16 @@
+package dk.ek.setlistgpt.security;
+
+/** Password check refused locally because the verification pool is saturated; maps to 429. */
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String reason, long retryAfterSeconds) {
+        super("login throttled: " + reason);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
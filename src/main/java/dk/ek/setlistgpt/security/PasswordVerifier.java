@@ -0,0 +1,139 @@
+package dk.ek.setlistgpt.security;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs BCrypt password checks on a small dedicated pool instead of the request thread. Request
+ * threads are virtual and share one carrier per core, so a burst of logins hashing inline would
+ * occupy every carrier and stall the rest of the API; here hashing is capped at the pool's
+ * threads and the waiting request only parks.
+ *
+ * The pool queues up to queue-capacity checks. A full queue, or a check that only reaches a
+ * thread after waiting longer than timeout, is refused with {@link LoginThrottledException}
+ * (429) rather than piling up. A check that has started always runs to completion: BCrypt
+ * cannot be interrupted, so giving up on it would free nothing. When
+ * the stored hash is weaker than the encoder's current strength, a match also returns a new
+ * hash, computed on the same pool, for the caller to store.
+ */
+@Component
+public class PasswordVerifier {
+
+    /** Outcome of a check; rehash is non-null when a match should replace its stored hash. */
+    public record Result(boolean matches, String rehash) {
+        static final Result NO_MATCH = new Result(false, null);
+    }
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor pool;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final long timeoutNanos;
+
+    private final AtomicLong verified = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong rehashed = new AtomicLong();
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            @Value("${app.auth.verify.threads:0}") int threads,
+                            @Value("${app.auth.verify.queue-capacity:64}") int queueCapacity,
+                            @Value("${app.auth.verify.timeout:3s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        int n = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.timeoutMillis = Math.max(1, timeout.toMillis());
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(n, n, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-verify-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Checks the raw password against the stored hash on the verification pool.
+     *
+     * @throws LoginThrottledException when the queue is full or the check waited in it too long
+     */
+    public Result verify(String raw, String stored) {
+        if (raw == null || stored == null) return Result.NO_MATCH;
+        long deadline = System.nanoTime() + timeoutNanos;
+        Future<Result> f;
+        try {
+            // null means the check started too late and was skipped
+            f = pool.submit(() -> System.nanoTime() - deadline > 0 ? null : check(raw, stored));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new LoginThrottledException("verification queue full", retryAfterSeconds());
+        }
+        Result r;
+        try {
+            r = f.get();
+        } catch (InterruptedException e) {
+            f.cancel(false); // drops it if still queued
+            Thread.currentThread().interrupt();
+            throw new LoginThrottledException("interrupted", retryAfterSeconds());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+        if (r == null) {
+            rejected.incrementAndGet();
+            throw new LoginThrottledException("verification queued too long", retryAfterSeconds());
+        }
+        verified.incrementAndGet();
+        if (r.rehash() != null) rehashed.incrementAndGet();
+        return r;
+    }
+
+    public int queueDepth() {
+        return pool.getQueue().size();
+    }
+
+    public int queueCapacity() {
+        return queueCapacity;
+    }
+
+    public long verified() {
+        return verified.get();
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+
+    public long rehashed() {
+        return rehashed.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Result check(String raw, String stored) {
+        if (!passwordEncoder.matches(raw, stored)) return Result.NO_MATCH;
+        return new Result(true, passwordEncoder.upgradeEncoding(stored) ? passwordEncoder.encode(raw) : null);
+    }
+
+    // A queued check waits at most timeout, so that is about when there is room again.
+    private long retryAfterSeconds() {
+        return Math.max(1, timeoutMillis / 1000);
+    }
+}
@@ -0,0 +1,234 @@
+package dk.ek.setlistgpt.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dk.ek.setlistgpt.profile.CurrentProfile;
+import dk.ek.setlistgpt.profile.Profile;
+import dk.ek.setlistgpt.profile.ProfileType;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sign-in state for a request: the "profile" session attribute (app.auth.mode=session, default)
+ * or a signed token (app.auth.mode=token) that any node can verify without a session or a
+ * database read. Tokens are compact HS256 JWTs with id (sub), name and type claims, sent as an
+ * HttpOnly cookie or an Authorization: Bearer header.
+ *
+ * Keys rotate through app.auth.token.keys ("kid:base64,kid:base64"): new tokens are signed with
+ * app.auth.token.active-key (default the first), and any listed key still verifies the tokens
+ * it signed. Drop a retired key once its last token has expired (app.auth.token.ttl).
+ */
+@Service
+public class ProfileTokenService {
+
+    /** Request attribute holding the verified Claims of the request's token. */
+    public static final String CLAIMS_ATTRIBUTE = ProfileTokenService.class.getName() + ".claims";
+
+    private static final String HMAC = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+    private static final long CLOCK_SKEW_SECONDS = 30;
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODE = Base64.getUrlDecoder();
+
+    /** Verified token content; times are epoch seconds. */
+    public record Claims(String jti, long profileId, String name, ProfileType type, long issuedAt, long expiresAt) {
+
+        /** Detached profile carrying only what the token states (no password). */
+        public Profile profile() {
+            Profile p = new Profile();
+            p.setId(profileId);
+            p.setName(name);
+            p.setType(type);
+            return p;
+        }
+    }
+
+    record Header(String alg, String typ, String kid) {
+    }
+
+    // iatMs is iat in epoch millis, so revocation checks can tell apart tokens issued in one second.
+    record Payload(String jti, String sub, String name, ProfileType type, long iat, long exp, long iatMs) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final TokenRevocationList revocations;
+    private final boolean tokenMode;
+    private final Map<String, byte[]> keys = new LinkedHashMap<>();
+    private final String activeKey;
+    private final Duration ttl;
+    private final String cookieName;
+    private final boolean cookieSecure;
+
+    public ProfileTokenService(ObjectMapper objectMapper,
+                               TokenRevocationList revocations,
+                               @Value("${app.auth.mode:session}") String mode,
+                               @Value("${app.auth.token.keys:}") String keys,
+                               @Value("${app.auth.token.active-key:}") String activeKey,
+                               @Value("${app.auth.token.ttl:12h}") Duration ttl,
+                               @Value("${app.auth.token.cookie:SETLIST_AUTH}") String cookieName,
+                               @Value("${app.auth.token.cookie-secure:false}") boolean cookieSecure) {
+        this.objectMapper = objectMapper;
+        this.revocations = revocations;
+        this.tokenMode = "token".equalsIgnoreCase(mode.trim());
+        parseKeys(keys);
+        if (tokenMode && this.keys.isEmpty()) {
+            throw new IllegalStateException("app.auth.mode=token needs at least one key in app.auth.token.keys");
+        }
+        String active = activeKey == null || activeKey.isBlank()
+                ? this.keys.keySet().stream().findFirst().orElse(null)
+                : activeKey.trim();
+        if (tokenMode && !this.keys.containsKey(active)) {
+            throw new IllegalStateException("app.auth.token.active-key '" + active + "' is not in app.auth.token.keys");
+        }
+        this.activeKey = active;
+        this.ttl = ttl;
+        this.cookieName = cookieName;
+        this.cookieSecure = cookieSecure;
+    }
+
+    public boolean tokenMode() {
+        return tokenMode;
+    }
+
+    // -------------------- Sign in / out --------------------
+
+    /**
+     * Makes the profile the request's signed-in profile: a session attribute, or a token cookie.
+     * Returns the token in token mode (for clients that send it as a Bearer header), else null.
+     */
+    public String signIn(Profile p, HttpServletRequest request, HttpServletResponse response) {
+        if (!tokenMode) {
+            HttpSession session = request.getSession(true);
+            session.setAttribute(CurrentProfile.SESSION_ATTRIBUTE, p);
+            return null;
+        }
+        String token = issue(p);
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(token, ttl).toString());
+        request.setAttribute(CurrentProfile.REQUEST_ATTRIBUTE, p);
+        return token;
+    }
+
+    /** Ends the session, or revokes the request's token and clears its cookie. */
+    public void signOut(HttpServletRequest request, HttpServletResponse response) {
+        HttpSession session = request.getSession(false);
+        if (session != null) session.invalidate();
+        if (!tokenMode) return;
+        Claims claims = request.getAttribute(CLAIMS_ATTRIBUTE) instanceof Claims c ? c : fromRequest(request);
+        if (claims != null) revocations.revokeToken(claims.jti(), claims.expiresAt());
+        request.removeAttribute(CurrentProfile.REQUEST_ATTRIBUTE);
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie("", Duration.ZERO).toString());
+    }
+
+    // -------------------- Tokens --------------------
+
+    public String issue(Profile p) {
+        long nowMillis = System.currentTimeMillis();
+        long now = nowMillis / 1000;
+        try {
+            String header = B64.encodeToString(objectMapper.writeValueAsBytes(new Header("HS256", "JWT", activeKey)));
+            String payload = B64.encodeToString(objectMapper.writeValueAsBytes(new Payload(
+                    UUID.randomUUID().toString(), String.valueOf(p.getId()), p.getName(), p.getType(),
+                    now, now + ttl.toSeconds(), nowMillis)));
+            String signingInput = header + "." + payload;
+            return signingInput + "." + B64.encodeToString(sign(keys.get(activeKey), signingInput));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode token", e);
+        }
+    }
+
+    /** Claims of a valid, unexpired and unrevoked token, or null. */
+    public Claims verify(String token) {
+        if (token == null) return null;
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first < 0 || second < 0 || token.indexOf('.', second + 1) >= 0) return null;
+        try {
+            Header header = objectMapper.readValue(B64_DECODE.decode(token.substring(0, first)), Header.class);
+            byte[] key = header.kid() == null ? null : keys.get(header.kid());
+            if (key == null || !"HS256".equals(header.alg())) return null;
+
+            byte[] expected = sign(key, token.substring(0, second));
+            if (!MessageDigest.isEqual(expected, B64_DECODE.decode(token.substring(second + 1)))) return null;
+
+            Payload p = objectMapper.readValue(B64_DECODE.decode(token.substring(first + 1, second)), Payload.class);
+            long now = System.currentTimeMillis() / 1000;
+            if (p.exp() <= now || p.iat() > now + CLOCK_SKEW_SECONDS || p.type() == null || p.jti() == null) return null;
+            long id = Long.parseLong(p.sub());
+            if (revocations.isRevoked(p.jti(), id, p.iatMs())) return null;
+            return new Claims(p.jti(), id, p.name(), p.type(), p.iat(), p.exp());
+        } catch (IOException | IllegalArgumentException e) {
+            return null; // malformed base64, JSON or subject
+        }
+    }
+
+    /** Verifies the Bearer header, else the token cookie. */
+    public Claims fromRequest(HttpServletRequest request) {
+        String auth = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (auth != null && auth.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return verify(auth.substring(7).trim());
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return null;
+        for (Cookie c : cookies) {
+            if (cookieName.equals(c.getName())) return verify(c.getValue());
+        }
+        return null;
+    }
+
+    // -------------------- Internals --------------------
+
+    private ResponseCookie cookie(String value, Duration maxAge) {
+        return ResponseCookie.from(cookieName, value)
+                .httpOnly(true)
+                .secure(cookieSecure)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(maxAge)
+                .build();
+    }
+
+    // A Mac per call: cheap next to the JSON work, and no ThreadLocal on virtual threads.
+    private static byte[] sign(byte[] key, String input) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(key, HMAC));
+            return mac.doFinal(input.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private void parseKeys(String raw) {
+        if (raw == null || raw.isBlank()) return;
+        for (String entry : raw.split(",")) {
+            String e = entry.trim();
+            if (e.isEmpty()) continue;
+            int colon = e.indexOf(':');
+            if (colon <= 0) throw new IllegalStateException("app.auth.token.keys entries must be kid:base64");
+            String kid = e.substring(0, colon).trim();
+            byte[] secret = Base64.getMimeDecoder().decode(e.substring(colon + 1).trim()
+                    .replace('-', '+').replace('_', '/'));
+            if (secret.length < MIN_KEY_BYTES) {
+                throw new IllegalStateException("Token key '" + kid + "' must be at least " + MIN_KEY_BYTES + " bytes");
+            }
+            keys.put(kid, secret);
+        }
+    }
+}
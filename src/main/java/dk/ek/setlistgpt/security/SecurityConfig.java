@@ -1,20 +1,32 @@
 package dk.ek.setlistgpt.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManagers;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.csrf.CsrfFilter;
 import org.springframework.security.web.context.SecurityContextPersistenceFilter;
 
 import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -27,7 +39,10 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, CookieCsrfTokenRepository csrfRepo) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   CookieCsrfTokenRepository csrfRepo,
+                                                   ProfileTokenService tokens,
+                                                   @Value("${app.management.scrape-networks:127.0.0.1/32,::1/128}") String scrapeNetworks) throws Exception {
         RequestMatcher loginPostMatcher = (HttpServletRequest req) ->
                 "/api/login".equals(req.getServletPath()) && "POST".equalsIgnoreCase(req.getMethod());
 
@@ -41,6 +56,9 @@ public class SecurityConfig {
                 )
                 .formLogin(form -> form.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Streaming responses (e.g. GET /api/setlists) finish on an async dispatch
+                        // of a request that was already authorized.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/", "/index", "/index.html",
                                 "/profile", "/profile/**",
@@ -57,16 +75,28 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/repertoires", "/api/repertoires/**").permitAll()
                         // Protect all other API operations
                         .requestMatchers("/api/**").authenticated()
+                        // Metrics carry site totals and upstream traffic: admins or the scrape network only.
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").access(AuthorizationManagers.anyOf(
+                                AuthorityAuthorizationManager.hasRole("ADMIN"),
+                                fromNetworks(scrapeNetworks)))
                         .anyRequest().permitAll()
                 )
                 .logout(logout -> logout
                         .logoutUrl("/logout")
                         .logoutSuccessUrl("/")
+                        .addLogoutHandler((request, response, authentication) -> tokens.signOut(request, response))
                         .permitAll()
                 );
 
-        // Ensure the session->SecurityContext filter runs AFTER persistence filter
-        http.addFilterAfter(new SessionProfileAuthFilter(), SecurityContextPersistenceFilter.class);
+        if (tokens.tokenMode()) {
+            // Signed tokens: no HttpSession is created or read, so any node can serve any request.
+            http.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+            http.addFilterAfter(new TokenAuthFilter(tokens), SecurityContextPersistenceFilter.class);
+        } else {
+            // Ensure the session->SecurityContext filter runs AFTER persistence filter
+            http.addFilterAfter(new SessionProfileAuthFilter(), SecurityContextPersistenceFilter.class);
+        }
 
         // Debug/inspection filter kept before CSRF filter
         http.addFilterBefore(new CsrfDebugFilter(csrfRepo), CsrfFilter.class);
@@ -76,4 +106,15 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    // Grants requests whose remote address is in one of the comma separated CIDR ranges.
+    static AuthorizationManager<RequestAuthorizationContext> fromNetworks(String cidrs) {
+        List<IpAddressMatcher> networks = Arrays.stream(cidrs.split(","))
+                .map(String::trim)
+                .filter(c -> !c.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+        return (authentication, context) -> new AuthorizationDecision(
+                networks.stream().anyMatch(m -> m.matches(context.getRequest())));
+    }
 }
\ No newline at end of file
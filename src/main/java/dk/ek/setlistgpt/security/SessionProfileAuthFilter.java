@@ -1,5 +1,6 @@
 package dk.ek.setlistgpt.security;
 
+import dk.ek.setlistgpt.profile.CurrentProfile;
 import dk.ek.setlistgpt.profile.Profile;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -70,7 +71,7 @@ public class SessionProfileAuthFilter extends OncePerRequestFilter {
     private Profile sessionProfile(HttpServletRequest request) {
         var session = request.getSession(false);
         if (session == null) return null;
-        Object obj = session.getAttribute("profile");
+        Object obj = session.getAttribute(CurrentProfile.SESSION_ATTRIBUTE);
         return (obj instanceof Profile) ? (Profile) obj : null;
     }
 
@@ -0,0 +1,44 @@
+package dk.ek.setlistgpt.security;
+
+import dk.ek.setlistgpt.profile.CurrentProfile;
+import dk.ek.setlistgpt.profile.Profile;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Token-mode counterpart of SessionProfileAuthFilter: verifies the request's signed token and
+ * exposes its profile to Spring Security and to {@link CurrentProfile}. No session is read or
+ * created. An invalid or revoked token leaves the request anonymous.
+ */
+public class TokenAuthFilter extends OncePerRequestFilter {
+
+    private final ProfileTokenService tokens;
+
+    public TokenAuthFilter(ProfileTokenService tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        ProfileTokenService.Claims claims = tokens.fromRequest(request);
+        if (claims != null) {
+            Profile p = claims.profile();
+            request.setAttribute(ProfileTokenService.CLAIMS_ATTRIBUTE, claims);
+            request.setAttribute(CurrentProfile.REQUEST_ATTRIBUTE, p);
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    p, null, List.of(new SimpleGrantedAuthority("ROLE_" + p.getType().name()))));
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,37 @@
+package dk.ek.setlistgpt.security;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One revoked signed token (jti set) or every token of a profile issued before
+ * revokedBeforeMillis (profileId set). Kept until expiresAt, after which the tokens it covers are
+ * expired anyway. expiresAt is epoch seconds, like the token claims; the profile cutoff is epoch
+ * millis so a token issued in the same second as, but after, the revocation stays valid.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocations_expires", columnList = "expires_at")
+})
+public class TokenRevocation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64)
+    private String jti;
+
+    private Long profileId;
+
+    private Long revokedBeforeMillis;
+
+    @Column(nullable = false)
+    private long expiresAt;
+}
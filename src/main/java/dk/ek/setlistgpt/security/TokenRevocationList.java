@@ -0,0 +1,150 @@
+package dk.ek.setlistgpt.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Revoked signed tokens, checked in memory on every request. Revocations are written to the
+ * token_revocations table and applied locally at once; every node reloads the table on an
+ * interval, so a revocation made on one node reaches the others within app.auth.token.revocation-refresh.
+ * The list stays small: rows are dropped once the tokens they cover have expired.
+ * Only active with app.auth.mode=token.
+ */
+@Component
+public class TokenRevocationList implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private record Snapshot(Set<String> jtis, Map<Long, Long> revokedBefore) {
+        static final Snapshot EMPTY = new Snapshot(Set.of(), Map.of());
+    }
+
+    private final TokenRevocationRepository repo;
+    private final boolean enabled;
+    private final long ttlSeconds;
+    private final Duration refresh;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private ScheduledExecutorService scheduler;
+
+    public TokenRevocationList(TokenRevocationRepository repo,
+                               @Value("${app.auth.mode:session}") String mode,
+                               @Value("${app.auth.token.ttl:12h}") Duration ttl,
+                               @Value("${app.auth.token.revocation-refresh:30s}") Duration refresh) {
+        this.repo = repo;
+        this.enabled = "token".equalsIgnoreCase(mode.trim());
+        this.ttlSeconds = ttl.toSeconds();
+        this.refresh = refresh;
+    }
+
+    /** True when the token was revoked, or issued (epoch millis) before its profile was revoked. */
+    public boolean isRevoked(String jti, long profileId, long issuedAtMillis) {
+        Snapshot s = snapshot;
+        if (s.jtis().contains(jti)) return true;
+        Long before = s.revokedBefore().get(profileId);
+        return before != null && issuedAtMillis < before;
+    }
+
+    /** Revokes one token (logout). */
+    public void revokeToken(String jti, long expiresAt) {
+        if (!enabled) return;
+        writeLock.lock();
+        try {
+            repo.save(new TokenRevocation(null, jti, null, null, expiresAt));
+            update(s -> s.jtis().add(jti));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Revokes every token of the profile issued before now (deleted, renamed, new type or password). */
+    public void revokeProfile(Long profileId) {
+        if (!enabled || profileId == null) return;
+        long now = System.currentTimeMillis();
+        writeLock.lock();
+        try {
+            repo.save(new TokenRevocation(null, null, profileId, now, now / 1000 + ttlSeconds));
+            update(s -> s.revokedBefore().merge(profileId, now, Math::max));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Reloads the table (dropping expired rows) and replaces the in-memory list. */
+    public void refresh() {
+        long now = System.currentTimeMillis() / 1000;
+        // Held across the read so a local revocation saved meanwhile is not lost by the swap.
+        writeLock.lock();
+        try {
+            repo.deleteExpired(now);
+            List<TokenRevocation> rows = repo.findByExpiresAtGreaterThan(now);
+            Set<String> jtis = new HashSet<>();
+            Map<Long, Long> before = new HashMap<>();
+            for (TokenRevocation r : rows) {
+                if (r.getJti() != null) jtis.add(r.getJti());
+                if (r.getProfileId() != null && r.getRevokedBeforeMillis() != null) {
+                    before.merge(r.getProfileId(), r.getRevokedBeforeMillis(), Math::max);
+                }
+            }
+            snapshot = new Snapshot(jtis, before);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Copy-on-write so readers never lock; revocations are rare. Caller holds writeLock.
+    private void update(Consumer<Snapshot> change) {
+        Snapshot copy = new Snapshot(new HashSet<>(snapshot.jtis()), new HashMap<>(snapshot.revokedBefore()));
+        change.accept(copy);
+        snapshot = copy;
+    }
+
+    private void runScheduled() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Token revocation refresh failed, keeping the previous list: {}", e.getMessage());
+        }
+    }
+
+    // -------------------- Lifecycle --------------------
+    @Override
+    public void start() {
+        if (!enabled) return;
+        runScheduled();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "token-revocations");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1, refresh.toMillis());
+        scheduler.scheduleWithFixedDelay(this::runScheduled, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
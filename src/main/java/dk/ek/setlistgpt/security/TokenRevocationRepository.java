@@ -0,0 +1,19 @@
+package dk.ek.setlistgpt.security;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/** Spring Data JPA repository for TokenRevocation. */
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    List<TokenRevocation> findByExpiresAtGreaterThan(long now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TokenRevocation t where t.expiresAt <= :now")
+    int deleteExpired(long now);
+}
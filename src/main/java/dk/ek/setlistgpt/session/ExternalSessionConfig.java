@@ -0,0 +1,42 @@
+package dk.ek.setlistgpt.session;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Moves HTTP sessions out of the servlet container when app.session.store is "memory" (an
+ * in-process stand-in) or "jdbc" (the application database). The default, "container", leaves
+ * sessions in Tomcat. Another key-value store plugs in as a further SessionStore case here.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("!'${app.session.store:container}'.equalsIgnoreCase('container')")
+@EnableSpringHttpSession
+public class ExternalSessionConfig {
+
+    @Bean
+    public SessionStore sessionStore(@Value("${app.session.store}") String type,
+                                     StoredSessionRepository storedSessions) {
+        return switch (type.trim().toLowerCase()) {
+            case "memory" -> new InMemorySessionStore();
+            case "jdbc" -> new JdbcSessionStore(storedSessions);
+            default -> throw new IllegalStateException("Unknown app.session.store '" + type + "' (container, memory or jdbc)");
+        };
+    }
+
+    @Bean
+    public ExternalSessionRepository sessionRepository(SessionStore store,
+                                                       @Value("${server.servlet.session.timeout:30m}") Duration timeout,
+                                                       @Value("${app.session.near-cache.ttl:5s}") Duration nearCacheTtl,
+                                                       @Value("${app.session.near-cache.max-entries:10000}") int nearCacheMaxEntries,
+                                                       @Value("${app.session.touch-interval:60s}") Duration touchInterval,
+                                                       @Value("${app.session.purge-interval:5m}") Duration purgeInterval) {
+        return new ExternalSessionRepository(store, timeout, nearCacheTtl, nearCacheMaxEntries,
+                touchInterval, purgeInterval, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,253 @@
+package dk.ek.setlistgpt.session;
+
+import dk.ek.setlistgpt.profile.CurrentProfile;
+import dk.ek.setlistgpt.profile.Profile;
+import dk.ek.setlistgpt.profile.ProfileType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Spring Session repository that keeps HTTP sessions in a shared {@link SessionStore}, so a
+ * deploy or a request landing on another node keeps the user signed in. Only the signed-in
+ * profile's id, name and type and the CSRF token are stored; any other session attribute lives
+ * for the request only. The profile comes back as a detached Profile without a password.
+ *
+ * Each node keeps a small near cache of records read or written within near-cache-ttl, so most
+ * requests do not reach the store; a logout on one node can therefore take up to that ttl to
+ * be seen on another. A request that changes nothing but the last access time is only written
+ * once touch-interval has passed since the stored one, which lets an idle session expire up to
+ * touch-interval early.
+ */
+public class ExternalSessionRepository implements SessionRepository<MapSession>, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ExternalSessionRepository.class);
+
+    // Attribute HttpSessionCsrfTokenRepository uses; stored so a session-based CSRF setup also works.
+    static final String CSRF_ATTRIBUTE = HttpSessionCsrfTokenRepository.class.getName() + ".CSRF_TOKEN";
+
+    private record Cached(SessionRecord record, long cachedAt) {
+    }
+
+    private final SessionStore store;
+    private final Duration defaultMaxInactive;
+    private final long nearCacheTtlMillis;
+    private final int nearCacheMaxEntries;
+    private final long touchIntervalMillis;
+    private final Duration purgeInterval;
+    private final Clock clock;
+
+    // Access-ordered LRU. Guarded by lock.
+    private final LinkedHashMap<String, Cached> nearCache = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    public ExternalSessionRepository(SessionStore store,
+                                     Duration defaultMaxInactive,
+                                     Duration nearCacheTtl,
+                                     int nearCacheMaxEntries,
+                                     Duration touchInterval,
+                                     Duration purgeInterval,
+                                     Clock clock) {
+        this.store = store;
+        this.defaultMaxInactive = defaultMaxInactive;
+        this.nearCacheTtlMillis = nearCacheTtl.toMillis();
+        this.nearCacheMaxEntries = Math.max(0, nearCacheMaxEntries);
+        this.touchIntervalMillis = touchInterval.toMillis();
+        this.purgeInterval = purgeInterval;
+        this.clock = clock;
+    }
+
+    @Override
+    public MapSession createSession() {
+        MapSession session = new MapSession();
+        Instant now = clock.instant();
+        session.setCreationTime(now);
+        session.setLastAccessedTime(now);
+        session.setMaxInactiveInterval(defaultMaxInactive);
+        return session;
+    }
+
+    @Override
+    public void save(MapSession session) {
+        if (!session.getId().equals(session.getOriginalId())) {
+            // changeSessionId(): the old id must stop working everywhere
+            deleteById(session.getOriginalId());
+        }
+        SessionRecord record = toRecord(session);
+        if (record.profileId() == null && record.csrfToken() == null) {
+            // Nothing worth sharing; don't fill the store with anonymous sessions.
+            evict(record.id());
+            store.delete(record.id());
+            return;
+        }
+        long now = clock.millis();
+        Cached known = cached(record.id(), now);
+        if (known != null && record.sameContent(known.record())
+                && record.lastAccessedAt() - known.record().lastAccessedAt() < touchIntervalMillis) {
+            return; // only a touch, and the stored one is recent enough
+        }
+        store.put(record);
+        remember(record, now);
+    }
+
+    @Override
+    public MapSession findById(String id) {
+        long now = clock.millis();
+        Cached c = cached(id, now);
+        SessionRecord record;
+        if (c != null) {
+            hits.incrementAndGet();
+            record = c.record();
+        } else {
+            misses.incrementAndGet();
+            record = store.get(id, now);
+            if (record == null) return null;
+            remember(record, now);
+        }
+        if (record.isExpired(now)) {
+            deleteById(id);
+            return null;
+        }
+        return toSession(record);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        evict(id);
+        store.delete(id);
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    // -------------------- Mapping --------------------
+    static SessionRecord toRecord(MapSession session) {
+        Long profileId = null;
+        String profileName = null;
+        ProfileType profileType = null;
+        if (session.getAttribute(CurrentProfile.SESSION_ATTRIBUTE) instanceof Profile p) {
+            profileId = p.getId();
+            profileName = p.getName();
+            profileType = p.getType();
+        }
+        String csrf = session.getAttribute(CSRF_ATTRIBUTE) instanceof CsrfToken t ? t.getToken() : null;
+        return new SessionRecord(session.getId(), profileId, profileName, profileType, csrf,
+                session.getCreationTime().toEpochMilli(),
+                session.getLastAccessedTime().toEpochMilli(),
+                (int) session.getMaxInactiveInterval().toSeconds());
+    }
+
+    static MapSession toSession(SessionRecord record) {
+        MapSession session = new MapSession(record.id());
+        session.setCreationTime(Instant.ofEpochMilli(record.createdAt()));
+        session.setLastAccessedTime(Instant.ofEpochMilli(record.lastAccessedAt()));
+        session.setMaxInactiveInterval(Duration.ofSeconds(record.maxInactiveSeconds()));
+        if (record.profileId() != null) {
+            Profile p = new Profile();
+            p.setId(record.profileId());
+            p.setName(record.profileName());
+            p.setType(record.profileType());
+            session.setAttribute(CurrentProfile.SESSION_ATTRIBUTE, p);
+        }
+        if (record.csrfToken() != null) {
+            session.setAttribute(CSRF_ATTRIBUTE, new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", record.csrfToken()));
+        }
+        return session;
+    }
+
+    // -------------------- Near cache --------------------
+    private Cached cached(String id, long now) {
+        if (nearCacheMaxEntries == 0) return null;
+        lock.lock();
+        try {
+            Cached c = nearCache.get(id);
+            if (c == null) return null;
+            if (now - c.cachedAt() >= nearCacheTtlMillis) {
+                nearCache.remove(id);
+                return null;
+            }
+            return c;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remember(SessionRecord record, long now) {
+        if (nearCacheMaxEntries == 0) return;
+        lock.lock();
+        try {
+            nearCache.put(record.id(), new Cached(record, now));
+            var it = nearCache.values().iterator();
+            while (nearCache.size() > nearCacheMaxEntries && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict(String id) {
+        lock.lock();
+        try {
+            nearCache.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void purge() {
+        try {
+            int n = store.purgeExpired(clock.millis());
+            if (n > 0) log.debug("Purged {} expired sessions", n);
+        } catch (RuntimeException e) {
+            log.warn("Session purge failed: {}", e.getMessage());
+        }
+    }
+
+    // -------------------- Lifecycle --------------------
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1, purgeInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::purge, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -0,0 +1,45 @@
+package dk.ek.setlistgpt.session;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for a shared store (app.session.store=memory): sessions survive nothing
+ * beyond the JVM, but the whole external-session path (minimal records, near cache, touch
+ * throttling) runs as it would against a real store. Also what the tests use.
+ */
+public class InMemorySessionStore implements SessionStore {
+
+    private final ConcurrentHashMap<String, SessionRecord> records = new ConcurrentHashMap<>();
+
+    @Override
+    public SessionRecord get(String id, long now) {
+        SessionRecord r = records.get(id);
+        if (r == null) return null;
+        if (r.isExpired(now)) {
+            records.remove(id, r);
+            return null;
+        }
+        return r;
+    }
+
+    @Override
+    public void put(SessionRecord record) {
+        records.put(record.id(), record);
+    }
+
+    @Override
+    public void delete(String id) {
+        records.remove(id);
+    }
+
+    @Override
+    public int purgeExpired(long now) {
+        int before = records.size();
+        records.values().removeIf(r -> r.isExpired(now));
+        return before - records.size();
+    }
+
+    public int size() {
+        return records.size();
+    }
+}
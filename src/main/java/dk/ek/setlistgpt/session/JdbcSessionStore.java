@@ -0,0 +1,37 @@
+package dk.ek.setlistgpt.session;
+
+/**
+ * Session store on the application database (app.session.store=jdbc), so nodes share sessions
+ * without any extra infrastructure. One narrow row per session in http_sessions.
+ */
+public class JdbcSessionStore implements SessionStore {
+
+    private final StoredSessionRepository repo;
+
+    public JdbcSessionStore(StoredSessionRepository repo) {
+        this.repo = repo;
+    }
+
+    @Override
+    public SessionRecord get(String id, long now) {
+        return repo.findById(id)
+                .map(StoredSession::toRecord)
+                .filter(r -> !r.isExpired(now))
+                .orElse(null);
+    }
+
+    @Override
+    public void put(SessionRecord record) {
+        repo.save(StoredSession.of(record));
+    }
+
+    @Override
+    public void delete(String id) {
+        repo.deleteById(id);
+    }
+
+    @Override
+    public int purgeExpired(long now) {
+        return repo.deleteExpired(now);
+    }
+}
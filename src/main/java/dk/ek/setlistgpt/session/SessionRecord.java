@@ -0,0 +1,40 @@
+package dk.ek.setlistgpt.session;
+
+import dk.ek.setlistgpt.profile.ProfileType;
+
+import java.util.Objects;
+
+/**
+ * What an external session store keeps for one HTTP session: who is signed in and the CSRF
+ * token, not the serialized Profile entity. Profile fields are null for a session nobody has
+ * signed in to. Times are epoch millis.
+ */
+public record SessionRecord(String id,
+                            Long profileId,
+                            String profileName,
+                            ProfileType profileType,
+                            String csrfToken,
+                            long createdAt,
+                            long lastAccessedAt,
+                            int maxInactiveSeconds) {
+
+    /** When the session times out; Long.MAX_VALUE for one that never does (negative max inactive). */
+    public long expiresAt() {
+        return maxInactiveSeconds < 0 ? Long.MAX_VALUE : lastAccessedAt + maxInactiveSeconds * 1000L;
+    }
+
+    public boolean isExpired(long now) {
+        return expiresAt() <= now;
+    }
+
+    /** Same content apart from the last access time, i.e. only a touch would change. */
+    boolean sameContent(SessionRecord other) {
+        return other != null
+                && id.equals(other.id)
+                && Objects.equals(profileId, other.profileId)
+                && Objects.equals(profileName, other.profileName)
+                && profileType == other.profileType
+                && Objects.equals(csrfToken, other.csrfToken)
+                && maxInactiveSeconds == other.maxInactiveSeconds;
+    }
+}
@@ -0,0 +1,22 @@
+package dk.ek.setlistgpt.session;
+
+/**
+ * Key-value store behind {@link ExternalSessionRepository}, shared by every node. A record is
+ * stored under its session id and may be dropped once {@link SessionRecord#expiresAt()} has
+ * passed. Implementations must be safe for concurrent use.
+ */
+public interface SessionStore {
+
+    /** The record stored under id, or null when absent or expired. */
+    SessionRecord get(String id, long now);
+
+    /** Inserts or replaces the record stored under record.id(). */
+    void put(SessionRecord record);
+
+    void delete(String id);
+
+    /** Drops expired records; a no-op for stores that expire entries themselves. Returns the count. */
+    default int purgeExpired(long now) {
+        return 0;
+    }
+}
@@ -0,0 +1,53 @@
+package dk.ek.setlistgpt.session;
+
+import dk.ek.setlistgpt.profile.ProfileType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** Table form of a {@link SessionRecord} for {@link JdbcSessionStore}. Times are epoch millis. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "http_sessions", indexes = {
+        @Index(name = "idx_http_sessions_expires", columnList = "expires_at")
+})
+public class StoredSession {
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    private Long profileId;
+
+    private String profileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private ProfileType profileType;
+
+    @Column(length = 128)
+    private String csrfToken;
+
+    private long createdAt;
+
+    private long lastAccessedAt;
+
+    private int maxInactiveSeconds;
+
+    @Column(nullable = false)
+    private long expiresAt;
+
+    static StoredSession of(SessionRecord r) {
+        return new StoredSession(r.id(), r.profileId(), r.profileName(), r.profileType(), r.csrfToken(),
+                r.createdAt(), r.lastAccessedAt(), r.maxInactiveSeconds(), r.expiresAt());
+    }
+
+    SessionRecord toRecord() {
+        return new SessionRecord(id, profileId, profileName, profileType, csrfToken,
+                createdAt, lastAccessedAt, maxInactiveSeconds);
+    }
+}
@@ -0,0 +1,15 @@
+package dk.ek.setlistgpt.session;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Spring Data JPA repository for StoredSession. */
+public interface StoredSessionRepository extends JpaRepository<StoredSession, String> {
+
+    @Transactional
+    @Modifying
+    @Query("delete from StoredSession s where s.expiresAt <= :now")
+    int deleteExpired(long now);
+}
@@ -0,0 +1,83 @@
+package dk.ek.setlistgpt.setlist;
+
+import dk.ek.setlistgpt.song.Song;
+import dk.ek.setlistgpt.song.SongMood;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Original "fast" builder: rank by a simple heuristic and add every song that still fits.
+ * Linear after the sort, but may leave part of the target unfilled.
+ */
+@Component
+public class GreedySetlistPacker implements SetlistPacker {
+
+    @Override
+    public PackingMode mode() {
+        return PackingMode.FAST;
+    }
+
+    @Override
+    public PackResult pack(List<Song> candidates, int targetSeconds, SongMood desiredMood, Integer desiredBpm) {
+        if (candidates == null || candidates.isEmpty() || targetSeconds <= 0) return PackResult.empty(targetSeconds);
+
+        // Score songs (simple heuristic).
+        double[] scores = new double[candidates.size()];
+        for (int i = 0; i < scores.length; i++) {
+            Song s = candidates.get(i);
+            double score = 1.0;
+            if (desiredMood != null && s.getMood() != null && s.getMood().compatibleWith(desiredMood)) {
+                score += 1.0;
+            }
+            if (desiredBpm != null && s.getBpm() != null) {
+                int diff = Math.abs(desiredBpm - s.getBpm());
+                score += Math.max(0.0, 1.0 - (diff / 60.0));
+            }
+            scores[i] = score;
+        }
+        return packInOrder(candidates, rankByScore(scores), targetSeconds);
+    }
+
+    // Walks candidates in the given order, keeping every song that still fits.
+    static PackResult packInOrder(List<Song> candidates, int[] order, int targetSeconds) {
+        List<Song> result = new ArrayList<>();
+        int total = 0;
+        for (int i : order) {
+            Song s = candidates.get(i);
+            int dur = s.getDurationInSeconds();
+            if (dur <= 0) continue;
+            if (total + dur > targetSeconds) continue;
+            result.add(s);
+            total += dur;
+            if (total >= targetSeconds) break;
+        }
+        return new PackResult(result, total, targetSeconds - total, false);
+    }
+
+    /**
+     * Candidate indexes ordered by descending score. Stable (equal scores keep input order),
+     * and sorts primitives directly instead of looking scores up through boxed keys.
+     */
+    static int[] rankByScore(double[] scores) {
+        int n = scores.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        int[] buf = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(lo + 2 * width, n);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    buf[k++] = scores[order[j]] > scores[order[i]] ? order[j++] : order[i++];
+                }
+                while (i < mid) buf[k++] = order[i++];
+                while (j < hi) buf[k++] = order[j++];
+                System.arraycopy(buf, lo, order, lo, hi - lo);
+            }
+        }
+        return order;
+    }
+}
@@ -0,0 +1,127 @@
+package dk.ek.setlistgpt.setlist;
+
+import dk.ek.setlistgpt.song.Song;
+import dk.ek.setlistgpt.song.SongMood;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * "Optimal" builder: 0/1 knapsack over seconds that fills as much of the target as possible and,
+ * among equally full sets, maximizes the summed MoodCalculator score. A second of fill is worth
+ * more than any score total, so it never leaves more dead air than the greedy packer; with flat
+ * scores (no mood or BPM requested) it is a plain fill maximizer rather than a song counter.
+ * Durations are capped at 59:59, so the table is one long per second plus one decision bit per
+ * (song, second).
+ *
+ * Large inputs are trimmed to the best scored max-candidates songs first, and if the table still
+ * cannot be filled within the time budget the greedy fill over the same scores is returned instead.
+ * {@link #packReproducibly} skips that fallback; max-candidates still bounds its work.
+ */
+@Component
+public class KnapsackSetlistPacker implements SetlistPacker {
+
+    // Scores in [0,1] are scaled to ints; they only decide between sets of equal length.
+    private static final int SCORE_SCALE = 1000;
+
+    private final MoodCalculator moodCalculator;
+    private final int maxCandidates;
+    private final long timeBudgetNanos;
+
+    public KnapsackSetlistPacker(MoodCalculator moodCalculator,
+                                 @Value("${app.setlist.packing.max-candidates:5000}") int maxCandidates,
+                                 @Value("${app.setlist.packing.time-budget-ms:50}") long timeBudgetMs) {
+        this.moodCalculator = moodCalculator;
+        this.maxCandidates = maxCandidates;
+        this.timeBudgetNanos = timeBudgetMs * 1_000_000L;
+    }
+
+    @Override
+    public PackingMode mode() {
+        return PackingMode.OPTIMAL;
+    }
+
+    @Override
+    public PackResult pack(List<Song> candidates, int targetSeconds, SongMood desiredMood, Integer desiredBpm) {
+        return pack(candidates, targetSeconds, desiredMood, desiredBpm, System.nanoTime() + timeBudgetNanos);
+    }
+
+    @Override
+    public PackResult packReproducibly(List<Song> candidates, int targetSeconds, SongMood desiredMood, Integer desiredBpm) {
+        return pack(candidates, targetSeconds, desiredMood, desiredBpm, Long.MAX_VALUE);
+    }
+
+    private PackResult pack(List<Song> candidates, int targetSeconds, SongMood desiredMood, Integer desiredBpm, long deadline) {
+        if (candidates == null || candidates.isEmpty() || targetSeconds <= 0) return PackResult.empty(targetSeconds);
+
+        double[] scores = new double[candidates.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = moodCalculator.score(candidates.get(i), desiredMood, desiredBpm);
+        }
+        int[] ranked = GreedySetlistPacker.rankByScore(scores);
+
+        // Keep only songs that can fit at all, best first, up to maxCandidates.
+        int[] items = new int[Math.min(ranked.length, maxCandidates)];
+        int n = 0;
+        boolean trimmed = false;
+        for (int idx : ranked) {
+            int dur = candidates.get(idx).getDurationInSeconds();
+            if (dur <= 0 || dur > targetSeconds) continue;
+            if (n == items.length) {
+                trimmed = true;
+                break;
+            }
+            items[n++] = idx;
+        }
+        if (n == 0) return PackResult.empty(targetSeconds);
+
+        int width = targetSeconds + 1;
+        // Exceeds any score sum of n songs, so value orders sets by length first, then by score.
+        long fillWeight = (long) n * SCORE_SCALE + 1;
+        // best[c] = best value of a set lasting exactly c seconds, -1 if no set does.
+        long[] best = new long[width];
+        Arrays.fill(best, -1);
+        best[0] = 0;
+        long[] took = new long[(int) (((long) n * width + 63) >>> 6)];
+
+        for (int i = 0; i < n; i++) {
+            if ((i & 63) == 0 && System.nanoTime() > deadline) {
+                return GreedySetlistPacker.packInOrder(candidates, ranked, targetSeconds);
+            }
+            int dur = candidates.get(items[i]).getDurationInSeconds();
+            long value = dur * fillWeight + Math.round(scores[items[i]] * SCORE_SCALE);
+            long rowBase = (long) i * width;
+            for (int c = targetSeconds; c >= dur; c--) {
+                long prev = best[c - dur];
+                if (prev >= 0 && prev + value > best[c]) {
+                    best[c] = prev + value;
+                    long bit = rowBase + c;
+                    took[(int) (bit >>> 6)] |= 1L << bit;
+                }
+            }
+        }
+
+        int end = 0;
+        for (int c = 1; c < width; c++) {
+            if (best[c] >= best[end]) end = c;
+        }
+
+        int total = end;
+        boolean[] chosen = new boolean[n];
+        for (int i = n - 1, c = end; i >= 0 && c > 0; i--) {
+            long bit = (long) i * width + c;
+            if ((took[(int) (bit >>> 6)] & (1L << bit)) != 0) {
+                chosen[i] = true;
+                c -= candidates.get(items[i]).getDurationInSeconds();
+            }
+        }
+        List<Song> result = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (chosen[i]) result.add(candidates.get(items[i]));
+        }
+        return new PackResult(result, total, targetSeconds - total, !trimmed);
+    }
+}
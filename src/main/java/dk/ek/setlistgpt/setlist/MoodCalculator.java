@@ -4,44 +4,29 @@ import dk.ek.setlistgpt.song.Song;
 import dk.ek.setlistgpt.song.SongMood;
 import org.springframework.stereotype.Service;
 
-import java.util.*;
-
 /**
  * Small helper that computes how well a Song matches a requested mood and optional BPM.
- * Returns score in [0,1]. Exact mood match => 1.0, related => 0.8, otherwise low.
+ * Returns score in [0,1]. Exact mood match => 1.0, related => 0.8, otherwise low
+ * (looked up in a precomputed table, so scoring does no hashing or boxing).
  * BPM closeness is scored 0..1 (1.0 = exact BPM). Final score is a weighted combination.
  */
 @Service
 public class MoodCalculator {
 
-    private static final Map<SongMood, Set<SongMood>> RELATED = new EnumMap<>(SongMood.class);
+    private static final int UNKNOWN_MOOD = SongMood.values().length;
 
-    static {
-        putGroup(SongMood.ENERGETIC, SongMood.DRIVING, SongMood.PARTY, SongMood.GROOVY);
-        putGroup(SongMood.MELLOW, SongMood.CALM, SongMood.DREAMY, SongMood.NOSTALGIC);
-        putGroup(SongMood.HAPPY, SongMood.UPLIFTING, SongMood.PARTY, SongMood.DRIVING);
-        putGroup(SongMood.SAD, SongMood.MELANCHOLIC, SongMood.DARK);
-        putGroup(SongMood.INTENSE, SongMood.ANGRY, SongMood.DRIVING);
-        putGroup(SongMood.ROMANTIC, SongMood.MELLOW, SongMood.DREAMY, SongMood.NOSTALGIC, SongMood.UPLIFTING);
-        putGroup(SongMood.CHILL, SongMood.CALM, SongMood.MELLOW, SongMood.DREAMY);
-        putGroup(SongMood.UPLIFTING, SongMood.HAPPY, SongMood.PARTY, SongMood.GROOVY);
-        putGroup(SongMood.DARK, SongMood.SAD, SongMood.INTENSE, SongMood.MELANCHOLIC);
-        putGroup(SongMood.PARTY, SongMood.ENERGETIC, SongMood.UPLIFTING, SongMood.GROOVY);
-        putGroup(SongMood.DRIVING, SongMood.ENERGETIC, SongMood.INTENSE, SongMood.GROOVY);
-        putGroup(SongMood.GROOVY, SongMood.PARTY, SongMood.ENERGETIC, SongMood.DRIVING);
-        putGroup(SongMood.MELANCHOLIC, SongMood.SAD, SongMood.DARK, SongMood.NOSTALGIC);
-        putGroup(SongMood.DREAMY, SongMood.MELLOW, SongMood.ROMANTIC, SongMood.CHILL);
-        putGroup(SongMood.NOSTALGIC, SongMood.MELLOW, SongMood.DREAMY, SongMood.MELANCHOLIC);
-        // Added explicit groups:
-        putGroup(SongMood.CALM, SongMood.CHILL, SongMood.MELLOW, SongMood.DREAMY);
-        putGroup(SongMood.ANGRY, SongMood.INTENSE, SongMood.DRIVING, SongMood.DARK);
-    }
+    // MOOD_SCORE[desired][song mood] precomputed from SongMood's relation masks;
+    // the extra last column is for songs without a mood.
+    private static final float[][] MOOD_SCORE = new float[SongMood.values().length][SongMood.values().length + 1];
 
-    private static void putGroup(SongMood key, SongMood... others) {
-        RELATED.computeIfAbsent(key, k -> new HashSet<>()).addAll(Arrays.asList(others));
-        // make relations symmetric: add key to each other's set
-        for (SongMood o : others) {
-            RELATED.computeIfAbsent(o, k -> new HashSet<>()).add(key);
+    static {
+        for (SongMood desired : SongMood.values()) {
+            float[] row = MOOD_SCORE[desired.ordinal()];
+            for (SongMood m : SongMood.values()) {
+                if (m == desired) row[m.ordinal()] = 1.0f;
+                else row[m.ordinal()] = desired.relatedTo(m) ? 0.8f : 0.1f;
+            }
+            row[UNKNOWN_MOOD] = 0.2f;
         }
     }
 
@@ -82,14 +67,7 @@ public class MoodCalculator {
             moodScore = 0.5; // neutral when no desired mood
         } else {
             SongMood sMood = song.getMood();
-            if (sMood == null) {
-                moodScore = 0.2;
-            } else if (sMood == desired) {
-                moodScore = 1.0;
-            } else {
-                Set<SongMood> rel = RELATED.getOrDefault(desired, Collections.emptySet());
-                moodScore = rel.contains(sMood) ? 0.8 : 0.1;
-            }
+            moodScore = MOOD_SCORE[desired.ordinal()][sMood != null ? sMood.ordinal() : UNKNOWN_MOOD];
         }
 
         // Combine with weights: mood 70%, bpm 30%. If only one aspect is present, it still influences.
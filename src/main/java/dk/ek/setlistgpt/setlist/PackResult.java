@@ -0,0 +1,20 @@
+package dk.ek.setlistgpt.setlist;
+
+import dk.ek.setlistgpt.song.Song;
+
+import java.util.List;
+
+/**
+ * Songs chosen by a SetlistPacker, best scored first.
+ *
+ * @param songs        chosen songs
+ * @param totalSeconds summed duration of the chosen songs
+ * @param gapSeconds   seconds left unfilled below the target
+ * @param optimal      true if the result is provably the best score for the target
+ */
+public record PackResult(List<Song> songs, int totalSeconds, int gapSeconds, boolean optimal) {
+
+    public static PackResult empty(int targetSeconds) {
+        return new PackResult(List.of(), 0, Math.max(0, targetSeconds), false);
+    }
+}
@@ -0,0 +1,22 @@
+package dk.ek.setlistgpt.setlist;
+
+import java.util.Locale;
+
+/**
+ * How SetlistService chooses songs for the target duration.
+ * FAST keeps the original greedy fill; OPTIMAL maximizes the total MoodCalculator score.
+ */
+public enum PackingMode {
+    FAST,
+    OPTIMAL;
+
+    // Returns null for blank or unknown values so callers can fall back to the configured default.
+    public static PackingMode parse(String raw) {
+        if (raw == null || raw.isBlank()) return null;
+        String norm = raw.trim().toUpperCase(Locale.ROOT);
+        for (PackingMode m : values()) {
+            if (m.name().equals(norm)) return m;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,14 @@
+package dk.ek.setlistgpt.setlist;
+
+import dk.ek.setlistgpt.profile.Profile;
+import dk.ek.setlistgpt.song.Song;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A built setlist waiting to be persisted. createdAt is taken when the set was built,
+ * so write-behind flushes keep the history order of the requests.
+ */
+public record PendingSetlist(Profile owner, String title, List<Song> songs, LocalDateTime createdAt) {
+}
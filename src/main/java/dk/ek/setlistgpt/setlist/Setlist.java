@@ -4,6 +4,7 @@ package dk.ek.setlistgpt.setlist;
 import dk.ek.setlistgpt.profile.Profile;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -22,7 +23,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "setlists")
+@Table(name = "setlists",
+        indexes = @Index(name = "idx_setlists_created_id", columnList = "created_at, id"))
 public class Setlist {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -45,6 +47,11 @@ public class Setlist {
     @JsonManagedReference
     private List<SetlistItem> items = new ArrayList<>();
 
+    // Number of items, written with them; null on rows saved before it existed.
+    @Column(name = "item_count")
+    @JsonIgnore
+    private Integer itemCount;
+
     @PrePersist
     public void onCreate() {
         if (createdAt == null) {
@@ -52,6 +59,13 @@ public class Setlist {
         }
     }
 
+    // Number of songs without initializing the items collection when the stored count is present.
+    @JsonIgnore
+    public int getItemCount() {
+        if (itemCount != null) return itemCount;
+        return items == null ? 0 : items.size();
+    }
+
     public void addItem(SetlistItem item) {
         if (item == null) return;
         items.add(item);
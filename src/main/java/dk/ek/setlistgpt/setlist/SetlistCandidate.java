@@ -0,0 +1,16 @@
+package dk.ek.setlistgpt.setlist;
+
+import dk.ek.setlistgpt.song.Song;
+
+import java.util.List;
+
+/**
+ * One alternative set from a multi-candidate build, in play order.
+ *
+ * @param songs        chosen songs, sequenced
+ * @param totalSeconds summed duration of the songs
+ * @param gapSeconds   seconds left unfilled below the target
+ * @param score        quality used for ranking: fill ratio plus mean MoodCalculator score (0..2)
+ */
+public record SetlistCandidate(List<Song> songs, int totalSeconds, int gapSeconds, double score) {
+}
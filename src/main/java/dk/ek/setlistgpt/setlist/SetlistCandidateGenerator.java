@@ -0,0 +1,242 @@
+package dk.ek.setlistgpt.setlist;
+
+import dk.ek.setlistgpt.song.Song;
+import dk.ek.setlistgpt.song.SongMood;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.UnaryOperator;
+
+/**
+ * Builds several alternative sets from one filtered candidate list. Songs are scored once; each
+ * attempt then ranks them by score plus seeded random noise and fills greedily, so attempts are
+ * independent and run in parallel on a dedicated ForkJoinPool. Attempt 0 is the normal packer
+ * result. The returned sets are picked from all attempts best first, each one penalized by its
+ * song overlap (Jaccard) with the sets already picked, so alternatives actually differ.
+ *
+ * Every attempt gets its own RNG split from the request seed before any work is forked, and the
+ * picked sets are ordered with {@link SetlistSequencer#sequenceReproducibly}, so the same seed,
+ * catalog and baseline give the same candidates however the pool schedules them or the machine
+ * is loaded.
+ */
+@Component
+public class SetlistCandidateGenerator {
+
+    // Attempts below this many are not worth splitting further.
+    private static final int SEQUENTIAL_THRESHOLD = 2;
+
+    private final MoodCalculator moodCalculator;
+    private final SetlistSequencer sequencer;
+    private final ForkJoinPool pool;
+    private final int attemptsPerCandidate;
+    private final double noise;
+    private final double diversityWeight;
+
+    public SetlistCandidateGenerator(MoodCalculator moodCalculator,
+                                     SetlistSequencer sequencer,
+                                     @Value("${app.setlist.candidates.parallelism:0}") int parallelism,
+                                     @Value("${app.setlist.candidates.attempts-per-candidate:4}") int attemptsPerCandidate,
+                                     @Value("${app.setlist.candidates.noise:0.35}") double noise,
+                                     @Value("${app.setlist.candidates.diversity-weight:0.5}") double diversityWeight) {
+        this.moodCalculator = moodCalculator;
+        this.sequencer = sequencer;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.attemptsPerCandidate = Math.max(1, attemptsPerCandidate);
+        this.noise = Math.max(0.0, noise);
+        this.diversityWeight = Math.max(0.0, diversityWeight);
+    }
+
+    /**
+     * @param candidates  filtered songs to choose from
+     * @param baseline    the regular packer result for the same request (used as attempt 0)
+     * @param count       number of sets wanted
+     * @param fill        applied to every chosen set before scoring (reuse fill), or identity
+     * @return up to count sets, best first, sequenced for play
+     */
+    public List<SetlistCandidate> generate(List<Song> candidates,
+                                           PackResult baseline,
+                                           int targetSeconds,
+                                           SongMood desiredMood,
+                                           Integer desiredBpm,
+                                           int count,
+                                           long seed,
+                                           UnaryOperator<List<Song>> fill) {
+        if (candidates == null || candidates.isEmpty() || targetSeconds <= 0 || count <= 0) return List.of();
+
+        double[] scores = new double[candidates.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = moodCalculator.score(candidates.get(i), desiredMood, desiredBpm);
+        }
+
+        int attempts = count * attemptsPerCandidate;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] rngs = new SplittableRandom[attempts];
+        for (int a = 1; a < attempts; a++) rngs[a] = root.split();
+
+        List<Song>[] sets = newSetArray(attempts);
+        sets[0] = fill.apply(baseline.songs());
+        pool.invoke(new Attempts(candidates, scores, targetSeconds, rngs, sets, fill, 1, attempts));
+
+        List<SetlistCandidate> picked = pickDiverse(candidates, scores, sets, targetSeconds, count);
+        return pool.invoke(new Sequence(picked));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // -------------------- Attempts --------------------
+    private final class Attempts extends RecursiveAction {
+        private final List<Song> candidates;
+        private final double[] scores;
+        private final int targetSeconds;
+        private final SplittableRandom[] rngs;
+        private final List<Song>[] sets;
+        private final UnaryOperator<List<Song>> fill;
+        private final int from;
+        private final int to;
+
+        Attempts(List<Song> candidates, double[] scores, int targetSeconds, SplittableRandom[] rngs,
+                 List<Song>[] sets, UnaryOperator<List<Song>> fill, int from, int to) {
+            this.candidates = candidates;
+            this.scores = scores;
+            this.targetSeconds = targetSeconds;
+            this.rngs = rngs;
+            this.sets = sets;
+            this.fill = fill;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int a = from; a < to; a++) sets[a] = fill.apply(attempt(rngs[a]));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Attempts(candidates, scores, targetSeconds, rngs, sets, fill, from, mid),
+                    new Attempts(candidates, scores, targetSeconds, rngs, sets, fill, mid, to));
+        }
+
+        private List<Song> attempt(SplittableRandom rnd) {
+            double[] noisy = new double[scores.length];
+            for (int i = 0; i < noisy.length; i++) {
+                noisy[i] = scores[i] + noise * rnd.nextDouble();
+            }
+            int[] order = GreedySetlistPacker.rankByScore(noisy);
+            return GreedySetlistPacker.packInOrder(candidates, order, targetSeconds).songs();
+        }
+    }
+
+    // -------------------- Selection --------------------
+    // Greedy max-marginal-relevance: best quality first, then quality minus overlap with the picks.
+    private List<SetlistCandidate> pickDiverse(List<Song> candidates, double[] scores, List<Song>[] sets,
+                                               int targetSeconds, int count) {
+        Map<Song, Double> scoreOf = new IdentityHashMap<>();
+        for (int i = 0; i < scores.length; i++) scoreOf.put(candidates.get(i), scores[i]);
+
+        int n = sets.length;
+        double[] quality = new double[n];
+        List<Set<Object>> keys = new ArrayList<>(n);
+        for (int a = 0; a < n; a++) {
+            quality[a] = quality(sets[a], scoreOf, targetSeconds);
+            keys.add(songKeys(sets[a]));
+        }
+
+        List<Integer> picked = new ArrayList<>(count);
+        double[] maxOverlap = new double[n];
+        boolean[] taken = new boolean[n];
+        while (picked.size() < count) {
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int a = 0; a < n; a++) {
+                // Identical sets are only offered once.
+                if (taken[a] || sets[a].isEmpty() || maxOverlap[a] >= 1.0) continue;
+                double value = quality[a] - diversityWeight * maxOverlap[a];
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = a;
+                }
+            }
+            if (best < 0) break;
+            taken[best] = true;
+            picked.add(best);
+            for (int a = 0; a < n; a++) {
+                if (!taken[a]) maxOverlap[a] = Math.max(maxOverlap[a], jaccard(keys.get(a), keys.get(best)));
+            }
+        }
+
+        List<SetlistCandidate> out = new ArrayList<>(picked.size());
+        for (int a : picked) {
+            int total = sets[a].stream().mapToInt(Song::getDurationInSeconds).sum();
+            out.add(new SetlistCandidate(sets[a], total, Math.max(0, targetSeconds - total), quality[a]));
+        }
+        return out;
+    }
+
+    private static double quality(List<Song> set, Map<Song, Double> scoreOf, int targetSeconds) {
+        if (set.isEmpty()) return 0;
+        int total = 0;
+        double sum = 0;
+        for (Song s : set) {
+            total += s.getDurationInSeconds();
+            sum += scoreOf.getOrDefault(s, 0.0);
+        }
+        return Math.min(1.0, (double) total / targetSeconds) + sum / set.size();
+    }
+
+    private static Set<Object> songKeys(List<Song> set) {
+        Set<Object> keys = new HashSet<>();
+        for (Song s : set) keys.add(s.getId() != null ? s.getId() : s);
+        return keys;
+    }
+
+    private static double jaccard(Set<Object> a, Set<Object> b) {
+        if (a.isEmpty() && b.isEmpty()) return 1.0;
+        int common = 0;
+        for (Object k : a) if (b.contains(k)) common++;
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    // -------------------- Sequencing --------------------
+    private final class Sequence extends RecursiveTask<List<SetlistCandidate>> {
+        private final List<SetlistCandidate> picked;
+
+        Sequence(List<SetlistCandidate> picked) {
+            this.picked = picked;
+        }
+
+        @Override
+        protected List<SetlistCandidate> compute() {
+            List<ForkJoinTask<List<Song>>> tasks = new ArrayList<>(picked.size());
+            for (SetlistCandidate c : picked) {
+                tasks.add(ForkJoinTask.adapt(() -> sequencer.sequenceReproducibly(c.songs())).fork());
+            }
+            List<SetlistCandidate> out = new ArrayList<>(picked.size());
+            for (int i = 0; i < picked.size(); i++) {
+                SetlistCandidate c = picked.get(i);
+                out.add(new SetlistCandidate(tasks.get(i).join(), c.totalSeconds(), c.gapSeconds(), c.score()));
+            }
+            return out;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Song>[] newSetArray(int n) {
+        return (List<Song>[]) new List[n];
+    }
+}
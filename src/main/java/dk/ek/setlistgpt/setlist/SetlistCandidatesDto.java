@@ -0,0 +1,11 @@
+package dk.ek.setlistgpt.setlist;
+
+import java.util.List;
+
+/**
+ * Response of POST /api/setlist/candidates. Sending the seed back with the same request reproduces
+ * the same candidates as long as the catalog has not changed: the candidate path uses no time
+ * budgets (see SetlistCandidateGenerator).
+ */
+public record SetlistCandidatesDto(long seed, List<SetlistCandidate> candidates) {
+}
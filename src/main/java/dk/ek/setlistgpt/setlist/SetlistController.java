@@ -1,24 +1,48 @@
 package dk.ek.setlistgpt.setlist;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dk.ek.setlistgpt.profile.CurrentProfile;
 import dk.ek.setlistgpt.profile.Profile;
 import dk.ek.setlistgpt.song.Song;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Validated
 @RestController
 @RequestMapping("/api")
 public class SetlistController {
 
-    private final SetlistService service;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int DEFAULT_CANDIDATES = 3;
 
-    public SetlistController(SetlistService service) {
+    private final SetlistService service;
+    private final SetlistWriteBehind writeBehind;
+    private final ObjectMapper objectMapper;
+    private final SetlistMetrics metrics;
+    private final int maxCandidates;
+
+    public SetlistController(SetlistService service, SetlistWriteBehind writeBehind, ObjectMapper objectMapper,
+                             SetlistMetrics metrics,
+                             @Value("${app.setlist.candidates.max:10}") int maxCandidates) {
         this.service = service;
+        this.writeBehind = writeBehind;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.maxCandidates = Math.max(1, maxCandidates);
     }
 
     @GetMapping("/songs")
@@ -32,44 +56,122 @@ public class SetlistController {
         return ResponseEntity.status(201).body(saved);
     }
 
+    /**
+     * Every summary, newest first, as one JSON array. Rows are written as they come off a
+     * database cursor, so memory stays flat however long the history is.
+     */
+    @GetMapping(value = "/setlists", params = {"!limit", "!cursor"})
+    public ResponseEntity<StreamingResponseBody> listSetlists() {
+        StreamingResponseBody body = this::writeSummaryArray;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /** One keyset page of summaries plus the cursor of the next one (null on the last page). */
     @GetMapping("/setlists")
-    public List<SetlistSummaryDto> listSetlists() {
-        return service.listSetlists();
+    public ResponseEntity<SetlistPageDto> listSetlistPage(@RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) String cursor) {
+        SetlistCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = SetlistCursor.decode(cursor.trim());
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(MAX_PAGE_SIZE, limit));
+        return ResponseEntity.ok(service.listSetlistPage(after, size));
+    }
+
+    private void writeSummaryArray(OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.writeStartArray();
+            try {
+                service.forEachSetlistSummary(dto -> {
+                    try {
+                        gen.writeObject(dto);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // client went away
+            }
+            gen.writeEndArray();
+        }
     }
 
     @PostMapping("/setlist")
     public ResponseEntity<List<Song>> buildSetlist(@Valid @RequestBody SetlistRequest request,
                                                    HttpServletRequest http) {
+        return metrics.build.record(() -> build(request, http));
+    }
+
+    private ResponseEntity<List<Song>> build(SetlistRequest request, HttpServletRequest http) {
         if (!service.validateInput(request.getTitle(), request.getArtist())) {
             return ResponseEntity.badRequest().build();
         }
 
-        int m = Math.max(0, Math.min(59, request.getDurationMinutes()));
-        int s = Math.max(0, Math.min(59, request.getDurationSeconds()));
-        int duration = m * 60 + s;
-        if (duration < 1 || duration > 59 * 60 + 59) {
+        int duration = targetSeconds(request);
+        if (duration < 0) {
             return ResponseEntity.badRequest().build();
         }
 
         List<Song> filtered = service.filterSongsByCriteria(
                 request.getTitle(), request.getArtist(), request.getGenre(), null, request.getMood());
 
-        List<Song> setlist = service.buildSetList(filtered, duration, request.getMood(), null);
+        PackResult packed = service.packSetList(filtered, duration, request.getMood(), null,
+                PackingMode.parse(request.getPacking()));
+        List<Song> setlist = packed.songs();
 
         if (request.isAllowReuse()) {
             setlist = service.fillSetWithReusedSongs(setlist, duration, true, request.getMood(), null);
         }
+        setlist = service.sequenceSetList(setlist);
 
         // Attach owner if logged in (admins and musicians can both create)
-        Profile owner = null;
-        var session = http.getSession(false);
-        if (session != null) {
-            Object p = session.getAttribute("profile");
-            if (p instanceof Profile) owner = (Profile) p;
+        Profile owner = CurrentProfile.get(http);
+        writeBehind.save(owner, request.getTitle(), setlist); // inline unless write-behind is enabled
+
+        // Unfilled seconds of the final set (after any reuse fill), for clients that want to show it.
+        int total = setlist.stream().mapToInt(Song::getDurationInSeconds).sum();
+        metrics.recordGap(Math.max(0, duration - total));
+        return ResponseEntity.ok()
+                .header("X-Setlist-Gap-Seconds", String.valueOf(Math.max(0, duration - total)))
+                .body(setlist);
+    }
+
+    /**
+     * Several alternative sets for one request in a single call, instead of rebuilding until one
+     * fits. The catalog is filtered once; the sets are generated in parallel and returned best
+     * first. Candidates are not saved; the response seed reproduces them for an unchanged catalog.
+     */
+    @PostMapping("/setlist/candidates")
+    public ResponseEntity<SetlistCandidatesDto> buildCandidates(@Valid @RequestBody SetlistRequest request) {
+        if (!service.validateInput(request.getTitle(), request.getArtist())) {
+            return ResponseEntity.badRequest().build();
         }
-        service.saveBuiltSetlist(owner, request.getTitle(), setlist);
+        int duration = targetSeconds(request);
+        if (duration < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        int count = request.getCandidates() == null
+                ? DEFAULT_CANDIDATES
+                : Math.max(1, Math.min(maxCandidates, request.getCandidates()));
+        long seed = request.getSeed() != null ? request.getSeed() : ThreadLocalRandom.current().nextLong();
 
-        return ResponseEntity.ok(setlist);
+        List<Song> filtered = service.filterSongsByCriteria(
+                request.getTitle(), request.getArtist(), request.getGenre(), null, request.getMood());
+        List<SetlistCandidate> candidates = service.buildCandidates(filtered, duration, request.getMood(), null,
+                PackingMode.parse(request.getPacking()), request.isAllowReuse(), count, seed);
+        return ResponseEntity.ok(new SetlistCandidatesDto(seed, candidates));
+    }
+
+    // Requested length in seconds, or -1 when outside 0:01..59:59.
+    private static int targetSeconds(SetlistRequest request) {
+        int m = Math.max(0, Math.min(59, request.getDurationMinutes()));
+        int s = Math.max(0, Math.min(59, request.getDurationSeconds()));
+        int duration = m * 60 + s;
+        return duration < 1 || duration > 59 * 60 + 59 ? -1 : duration;
     }
 
     @GetMapping
@@ -0,0 +1,35 @@
+package dk.ek.setlistgpt.setlist;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for the setlist listing: the (createdAt, id) of the last row
+ * of a page, encoded as URL-safe base64 so clients pass it back unchanged.
+ */
+public record SetlistCursor(LocalDateTime createdAt, long id) {
+
+    public static SetlistCursor after(SetlistSummaryDto last) {
+        return new SetlistCursor(last.getCreatedAt(), last.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** @throws IllegalArgumentException if the token was not produced by {@link #encode()} */
+    public static SetlistCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int bar = raw.indexOf('|');
+            if (bar < 0) throw new IllegalArgumentException("Invalid cursor");
+            return new SetlistCursor(LocalDateTime.parse(raw.substring(0, bar)), Long.parseLong(raw.substring(bar + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException ex) {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package dk.ek.setlistgpt.setlist;
+
+import dk.ek.setlistgpt.song.Song;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes setlist_items rows as JDBC batches instead of one Hibernate insert per item.
+ * SetlistItem ids are IDENTITY columns, which Hibernate cannot batch; going through
+ * JdbcTemplate lets the database assign them while the whole set travels in
+ * ceil(items / batch size) round trips (a single multi-row INSERT ... VALUES per batch
+ * with MySQL's rewriteBatchedStatements=true). Joins the caller's transaction.
+ */
+@Repository
+public class SetlistItemBatchWriter {
+
+    private static final String INSERT_SQL =
+            "insert into setlist_items (setlist_id, position_index, song_id, reused) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final int batchSize;
+
+    public SetlistItemBatchWriter(JdbcTemplate jdbc,
+                                  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.jdbc = jdbc;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /** Inserts one item per non-null song, positions 0..n-1 in list order; returns the row count. */
+    public int insertItems(long setlistId, List<Song> songs) {
+        List<Song> rows = new ArrayList<>(songs.size());
+        for (Song s : songs) {
+            if (s != null) rows.add(s);
+        }
+        if (rows.isEmpty()) return 0;
+
+        int[] position = {0};
+        jdbc.batchUpdate(INSERT_SQL, rows, batchSize, (ps, song) -> {
+            ps.setLong(1, setlistId);
+            ps.setInt(2, position[0]++);
+            if (song.getId() != null) ps.setLong(3, song.getId());
+            else ps.setNull(3, Types.BIGINT);
+            ps.setBoolean(4, false); // original build phase
+        });
+        return rows.size();
+    }
+}
@@ -0,0 +1,67 @@
+package dk.ek.setlistgpt.setlist;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Meters for the setlist build path. Histogram buckets and SLO boundaries are not set here but
+ * per meter name in application.properties (management.metrics.distribution.*), so they can be
+ * tuned without a code change.
+ */
+@Component
+public class SetlistMetrics {
+
+    final Timer build;
+    final Timer filter;
+    final Timer reuseFill;
+    final Timer save;
+    private final Map<PackingMode, Timer> pack = new EnumMap<>(PackingMode.class);
+    private final DistributionSummary candidates;
+    private final DistributionSummary gap;
+
+    public SetlistMetrics(MeterRegistry registry) {
+        this.build = Timer.builder("setlist.build")
+                .description("POST /api/setlist end to end: filter, pack, fill, sequence, save")
+                .register(registry);
+        this.filter = Timer.builder("setlist.filter")
+                .description("Catalog filtering by title/artist/genre/mood")
+                .register(registry);
+        for (PackingMode m : PackingMode.values()) {
+            pack.put(m, Timer.builder("setlist.pack")
+                    .description("Choosing songs for the target duration")
+                    .tag("mode", m.name().toLowerCase())
+                    .register(registry));
+        }
+        this.reuseFill = Timer.builder("setlist.reuse.fill")
+                .description("Topping up a set with reused songs")
+                .register(registry);
+        this.save = Timer.builder("setlist.save")
+                .description("Inserting a built setlist and its items")
+                .register(registry);
+        this.candidates = DistributionSummary.builder("setlist.candidates")
+                .description("Songs left after filtering, i.e. the packer's input size")
+                .baseUnit("songs")
+                .register(registry);
+        this.gap = DistributionSummary.builder("setlist.gap")
+                .description("Seconds left unfilled below the requested duration")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    Timer pack(PackingMode mode) {
+        return pack.get(mode);
+    }
+
+    void recordCandidates(int count) {
+        candidates.record(count);
+    }
+
+    void recordGap(int seconds) {
+        gap.record(seconds);
+    }
+}
@@ -0,0 +1,28 @@
+package dk.ek.setlistgpt.setlist;
+
+import dk.ek.setlistgpt.song.Song;
+import dk.ek.setlistgpt.song.SongMood;
+
+import java.util.List;
+
+/** Chooses which candidate songs fit into a set of at most targetSeconds. */
+public interface SetlistPacker {
+
+    PackingMode mode();
+
+    /**
+     * @param candidates    songs to choose from (songs without a positive duration are skipped)
+     * @param targetSeconds upper bound for the summed duration
+     * @param desiredMood   requested mood (nullable)
+     * @param desiredBpm    requested bpm (nullable)
+     */
+    PackResult pack(List<Song> candidates, int targetSeconds, SongMood desiredMood, Integer desiredBpm);
+
+    /**
+     * Like {@link #pack}, but never cut short by a time budget, so equal input gives an equal
+     * result under any load. Packers without a time budget need not override it.
+     */
+    default PackResult packReproducibly(List<Song> candidates, int targetSeconds, SongMood desiredMood, Integer desiredBpm) {
+        return pack(candidates, targetSeconds, desiredMood, desiredBpm);
+    }
+}
@@ -0,0 +1,7 @@
+package dk.ek.setlistgpt.setlist;
+
+import java.util.List;
+
+/** One keyset page of setlist summaries; nextCursor is null on the last page. */
+public record SetlistPageDto(List<SetlistSummaryDto> items, String nextCursor) {
+}
@@ -1,12 +1,51 @@
 package dk.ek.setlistgpt.setlist;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /** Spring Data JPA repository for Setlist */
 public interface SetlistRepository extends JpaRepository<Setlist, Long> {
-    List<Setlist> findAllByOrderByCreatedAtDesc();
+    // Summary listing, newest first. Keyset pages seek on (createdAt, id) via idx_setlists_created_id.
+    @Query("""
+           select new dk.ek.setlistgpt.setlist.SetlistSummaryDto(
+               s.id, s.title, s.createdAt, s.totalDurationSeconds,
+               (select count(i) from SetlistItem i where i.setlist = s)
+           )
+           from Setlist s
+           order by s.createdAt desc, s.id desc
+           """)
+    List<SetlistSummaryDto> findSummaries(Limit limit);
+
+    @Query("""
+           select new dk.ek.setlistgpt.setlist.SetlistSummaryDto(
+               s.id, s.title, s.createdAt, s.totalDurationSeconds,
+               (select count(i) from SetlistItem i where i.setlist = s)
+           )
+           from Setlist s
+           where s.createdAt < :createdAt or (s.createdAt = :createdAt and s.id < :id)
+           order by s.createdAt desc, s.id desc
+           """)
+    List<SetlistSummaryDto> findSummariesBefore(LocalDateTime createdAt, Long id, Limit limit);
+
+    // Forward-only cursor over all summaries; must be consumed inside a transaction and closed.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+           select new dk.ek.setlistgpt.setlist.SetlistSummaryDto(
+               s.id, s.title, s.createdAt, s.totalDurationSeconds,
+               (select count(i) from SetlistItem i where i.setlist = s)
+           )
+           from Setlist s
+           order by s.createdAt desc, s.id desc
+           """)
+    Stream<SetlistSummaryDto> streamSummaries();
 
     // Admin helpers
     List<Setlist> findByOwnerIdOrderByCreatedAtDesc(Long ownerId);
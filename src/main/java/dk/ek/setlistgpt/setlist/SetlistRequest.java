@@ -19,4 +19,7 @@ public class SetlistRequest {
     private int durationMinutes;
     private int durationSeconds;
     private boolean allowReuse;
+    private String packing; // "fast" or "optimal"; blank uses app.setlist.packing
+    private Integer candidates; // POST /api/setlist/candidates: how many alternatives (default 3)
+    private Long seed;          // POST /api/setlist/candidates: repeat a previous response
 }
\ No newline at end of file
@@ -1,21 +1,27 @@
 package dk.ek.setlistgpt.setlist;
 
+import dk.ek.setlistgpt.profile.CurrentProfile;
 import dk.ek.setlistgpt.profile.Profile;
 import dk.ek.setlistgpt.song.Song;
+import dk.ek.setlistgpt.song.SongCatalog;
+import dk.ek.setlistgpt.song.SongChangedEvent;
 import dk.ek.setlistgpt.song.SongGenre;
 import dk.ek.setlistgpt.song.SongGenreGroup;
 import dk.ek.setlistgpt.song.SongMood;
 import dk.ek.setlistgpt.song.SongRepository;
+import dk.ek.setlistgpt.stats.StatsDelta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpSession;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service handling song retrieval, filtering, setlist building and persistence.
@@ -26,13 +32,38 @@ public class SetlistService {
     private final SongRepository songRepository;
     private final MoodCalculator moodCalculator;
     private final SetlistRepository setlistRepository;
+    private final SongCatalog songCatalog;
+    private final ApplicationEventPublisher events;
+    private final Map<PackingMode, SetlistPacker> packers = new EnumMap<>(PackingMode.class);
+    private final PackingMode defaultPacking;
+    private final SetlistSequencer sequencer;
+    private final SetlistItemBatchWriter itemWriter;
+    private final SetlistCandidateGenerator candidateGenerator;
+    private final SetlistMetrics metrics;
 
     public SetlistService(SongRepository songRepository,
                           MoodCalculator moodCalculator,
-                          SetlistRepository setlistRepository) {
+                          SetlistRepository setlistRepository,
+                          SongCatalog songCatalog,
+                          ApplicationEventPublisher events,
+                          List<SetlistPacker> packers,
+                          @Value("${app.setlist.packing:optimal}") String defaultPacking,
+                          SetlistSequencer sequencer,
+                          SetlistItemBatchWriter itemWriter,
+                          SetlistCandidateGenerator candidateGenerator,
+                          SetlistMetrics metrics) {
         this.songRepository = songRepository;
         this.moodCalculator = moodCalculator;
         this.setlistRepository = setlistRepository;
+        this.songCatalog = songCatalog;
+        this.events = events;
+        for (SetlistPacker p : packers) this.packers.put(p.mode(), p);
+        PackingMode configured = PackingMode.parse(defaultPacking);
+        this.defaultPacking = configured != null ? configured : PackingMode.OPTIMAL;
+        this.sequencer = sequencer;
+        this.itemWriter = itemWriter;
+        this.candidateGenerator = candidateGenerator;
+        this.metrics = metrics;
     }
 
     // -------------------- Songs --------------------
@@ -55,7 +86,10 @@ public class SetlistService {
             throw new IllegalArgumentException("enter at least title or artist");
         }
         if (!song.isDurationValid()) throw new IllegalArgumentException("invalid duration");
-        return songRepository.save(song);
+        Song saved = songRepository.save(song);
+        events.publishEvent(SongChangedEvent.saved(saved));
+        events.publishEvent(StatsDelta.songsCreated(null, 1));
+        return saved;
     }
 
     // -------------------- Validation --------------------
@@ -66,27 +100,19 @@ public class SetlistService {
     }
 
     // -------------------- Filtering --------------------
-    @Transactional(readOnly = true)
+    // Served from the in-memory SongCatalog; songs without a mood are kept when filtering by mood.
     public List<Song> filterSongsByCriteria(String title,
                                             String artist,
                                             String rawGenre,
                                             Integer bpmIgnored,
                                             String rawMood) {
-        List<Song> all = songRepository.findAll();
-        String titleQ = normOrNull(title);
-        String artistQ = normOrNull(artist);
-        Set<SongGenre> allowedGenres = parseGenreOrGroup(rawGenre);
-        SongMood mood = moodCalculator.parseMood(rawMood);
-
-        return all.stream()
-                .filter(s -> {
-                    if (titleQ != null && (s.getTitle() == null || !containsIgnoreCase(s.getTitle(), titleQ))) return false;
-                    if (artistQ != null && (s.getArtist() == null || !containsIgnoreCase(s.getArtist(), artistQ))) return false;
-                    if (allowedGenres != null && (s.getGenre() == null || !allowedGenres.contains(s.getGenre()))) return false;
-                    if (mood != null && s.getMood() != null && !s.getMood().compatibleWith(mood)) return false;
-                    return true;
-                })
-                .collect(Collectors.toList());
+        return metrics.filter.record(() -> {
+            Set<SongGenre> allowedGenres = parseGenreOrGroup(rawGenre);
+            SongMood mood = moodCalculator.parseMood(rawMood);
+            List<Song> found = songCatalog.find(title, artist, allowedGenres, mood, true);
+            metrics.recordCandidates(found.size());
+            return found;
+        });
     }
 
     // -------------------- Builder --------------------
@@ -94,56 +120,92 @@ public class SetlistService {
                                    int targetDurationSeconds,
                                    String rawMood,
                                    Integer desiredBpm) {
-        if (candidates == null || candidates.isEmpty() || targetDurationSeconds <= 0) return List.of();
-        SongMood desiredMood = moodCalculator.parseMood(rawMood);
-
-        // Score songs (simple heuristic).
-        Map<Long, Double> scoreById = new HashMap<>();
-        for (Song s : candidates) {
-            double score = 1.0;
-            if (desiredMood != null && s.getMood() != null && s.getMood().compatibleWith(desiredMood)) {
-                score += 1.0;
-            }
-            if (desiredBpm != null && s.getBpm() != null) {
-                int diff = Math.abs(desiredBpm - s.getBpm());
-                score += Math.max(0.0, 1.0 - (diff / 60.0));
-            }
-            scoreById.put(s.getId(), score);
-        }
+        return packSetList(candidates, targetDurationSeconds, rawMood, desiredBpm, null).songs();
+    }
 
-        List<Song> sorted = candidates.stream()
-                .sorted((a, b) -> Double.compare(scoreById.getOrDefault(b.getId(), 0.0),
-                        scoreById.getOrDefault(a.getId(), 0.0)))
-                .toList();
+    /**
+     * Chooses songs for the target duration with the given packing mode (null = configured default).
+     * The result reports the remaining gap to the target.
+     */
+    public PackResult packSetList(List<Song> candidates,
+                                  int targetDurationSeconds,
+                                  String rawMood,
+                                  Integer desiredBpm,
+                                  PackingMode mode) {
+        return packSetList(candidates, targetDurationSeconds, rawMood, desiredBpm, mode, false);
+    }
 
-        List<Song> result = new ArrayList<>();
-        int total = 0;
-        for (Song s : sorted) {
-            int dur = s.getDurationInSeconds();
-            if (dur <= 0) continue;
-            if (total + dur > targetDurationSeconds) continue;
-            result.add(s);
-            total += dur;
-            if (total >= targetDurationSeconds) break;
+    // reproducible: no time-budget shortcuts, see SetlistPacker#packReproducibly.
+    private PackResult packSetList(List<Song> candidates,
+                                   int targetDurationSeconds,
+                                   String rawMood,
+                                   Integer desiredBpm,
+                                   PackingMode mode,
+                                   boolean reproducible) {
+        if (candidates == null || candidates.isEmpty() || targetDurationSeconds <= 0) {
+            return PackResult.empty(targetDurationSeconds);
         }
+        SongMood desiredMood = moodCalculator.parseMood(rawMood);
+        SetlistPacker packer = packers.getOrDefault(mode != null ? mode : defaultPacking,
+                packers.get(PackingMode.FAST));
+        PackResult result = metrics.pack(packer.mode()).record(() -> reproducible
+                ? packer.packReproducibly(candidates, targetDurationSeconds, desiredMood, desiredBpm)
+                : packer.pack(candidates, targetDurationSeconds, desiredMood, desiredBpm));
 
         // Fallback: if none fit individually (e.g. each > target), pick the shortest.
-        if (result.isEmpty()) {
-            Song shortest = sorted.stream()
+        if (result.songs().isEmpty()) {
+            Song shortest = candidates.stream()
                     .filter(s -> s.getDurationInSeconds() > 0)
                     .min(Comparator.comparingInt(Song::getDurationInSeconds))
                     .orElse(null);
-            if (shortest != null) result = List.of(shortest);
+            if (shortest != null) {
+                int dur = shortest.getDurationInSeconds();
+                result = new PackResult(List.of(shortest), dur, Math.max(0, targetDurationSeconds - dur), false);
+            }
         }
         return result;
     }
 
+    /**
+     * Up to count alternative sets for the same request, best first and mutually diverse, each
+     * reuse-filled (when allowed) and sequenced. Nothing is persisted.
+     */
+    public List<SetlistCandidate> buildCandidates(List<Song> candidates,
+                                                  int targetDurationSeconds,
+                                                  String rawMood,
+                                                  Integer desiredBpm,
+                                                  PackingMode mode,
+                                                  boolean allowReuse,
+                                                  int count,
+                                                  long seed) {
+        // Same seed, same candidates: nothing on this path may depend on the clock.
+        PackResult baseline = packSetList(candidates, targetDurationSeconds, rawMood, desiredBpm, mode, true);
+        return candidateGenerator.generate(candidates, baseline, targetDurationSeconds,
+                moodCalculator.parseMood(rawMood), desiredBpm, count, seed,
+                songs -> allowReuse
+                        ? fillSetWithReusedSongs(songs, targetDurationSeconds, true, rawMood, desiredBpm)
+                        : songs);
+    }
+
+    // Orders the chosen songs for smooth BPM/mood transitions (runs after selection and reuse fill).
+    public List<Song> sequenceSetList(List<Song> songs) {
+        return sequencer.sequence(songs);
+    }
+
     public List<Song> fillSetWithReusedSongs(List<Song> current,
                                              int targetDurationSeconds,
                                              boolean allowOverflow,
                                              String rawMood,
                                              Integer desiredBpm) {
         if (current == null || current.isEmpty() || targetDurationSeconds <= 0) return current;
+        return metrics.reuseFill.record(() -> fillReused(current, targetDurationSeconds, allowOverflow, rawMood, desiredBpm));
+    }
+
+    private List<Song> fillReused(List<Song> current,
+                                  int targetDurationSeconds,
+                                  boolean allowOverflow,
+                                  String rawMood,
+                                  Integer desiredBpm) {
         SongMood desiredMood = moodCalculator.parseMood(rawMood);
 
         // Score existing songs for reuse selection.
@@ -179,31 +241,43 @@ public class SetlistService {
     }
 
     // -------------------- Persistence --------------------
+    // One insert for the setlist, then the items as JDBC batches (see SetlistItemBatchWriter).
     @Transactional
     public void saveBuiltSetlist(Profile owner, String title, List<Song> songs) {
         if (songs == null) throw new IllegalArgumentException("songs required");
-        String t = (title == null || title.isBlank()) ? "Setlist" : title.trim();
+        persist(new PendingSetlist(owner, title, songs, LocalDateTime.now()));
+    }
+
+    // Write-behind flush: every queued setlist of the batch in one transaction.
+    @Transactional
+    public void saveBuiltSetlists(List<PendingSetlist> batch) {
+        for (PendingSetlist p : batch) persist(p);
+    }
+
+    private void persist(PendingSetlist p) {
+        metrics.save.record(() -> insert(p));
+    }
+
+    private void insert(PendingSetlist p) {
+        String t = (p.title() == null || p.title().isBlank()) ? "Setlist" : p.title().trim();
 
         Setlist entity = new Setlist();
-        entity.setOwner(owner); // owner may be null (guest build)
+        entity.setOwner(p.owner()); // owner may be null (guest build)
         entity.setTitle(t);
-        entity.setCreatedAt(LocalDateTime.now());
+        entity.setCreatedAt(p.createdAt());
 
-        List<SetlistItem> items = new ArrayList<>(songs.size());
-        int idx = 0;
         int totalSeconds = 0;
-        for (Song s : songs) {
+        int count = 0;
+        for (Song s : p.songs()) {
             if (s == null) continue;
-            SetlistItem item = new SetlistItem();
-            item.setPositionIndex(idx++);
-            item.setSong(s);
-            item.setReused(false); // original build phase
-            items.add(item);
             totalSeconds += s.getDurationInSeconds();
+            count++;
         }
-        entity.setItems(items);
         entity.setTotalDurationSeconds(totalSeconds);
-        setlistRepository.save(entity);
+        entity.setItemCount(count); // the items go in through the batch writer, one per non-null song
+        Setlist saved = setlistRepository.save(entity); // IDENTITY: inserted immediately, id assigned
+        itemWriter.insertItems(saved.getId(), p.songs());
+        events.publishEvent(StatsDelta.setlistCreated(p.owner() != null ? p.owner().getId() : null));
     }
 
     // Convenience that resolves session owner automatically.
@@ -213,37 +287,35 @@ public class SetlistService {
         saveBuiltSetlist(owner, title, songs);
     }
 
+    /** Keyset page of summaries, newest first; a null cursor starts from the newest setlist. */
     @Transactional(readOnly = true)
-    public List<SetlistSummaryDto> listSetlists() {
-        return setlistRepository.findAllByOrderByCreatedAtDesc().stream()
-                .map(SetlistSummaryDto::from)
-                .toList();
+    public SetlistPageDto listSetlistPage(SetlistCursor cursor, int limit) {
+        // One extra row tells whether another page follows.
+        Limit fetch = Limit.of(limit + 1);
+        List<SetlistSummaryDto> rows = cursor == null
+                ? setlistRepository.findSummaries(fetch)
+                : setlistRepository.findSummariesBefore(cursor.createdAt(), cursor.id(), fetch);
+        if (rows.size() <= limit) return new SetlistPageDto(rows, null);
+        List<SetlistSummaryDto> page = rows.subList(0, limit);
+        return new SetlistPageDto(page, SetlistCursor.after(page.get(limit - 1)).encode());
+    }
+
+    /** Feeds every summary, newest first, to the consumer from a forward-only cursor. */
+    @Transactional(readOnly = true)
+    public void forEachSetlistSummary(Consumer<SetlistSummaryDto> consumer) {
+        try (Stream<SetlistSummaryDto> rows = setlistRepository.streamSummaries()) {
+            rows.forEach(consumer);
+        }
     }
 
     // -------------------- Session helper --------------------
     private Profile resolveSessionProfile() {
         ServletRequestAttributes attrs = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
         if (attrs == null) return null;
-        HttpServletRequest req = attrs.getRequest();
-        if (req == null) return null;
-        HttpSession session = req.getSession(false);
-        if (session == null) return null;
-        Object obj = session.getAttribute("profile");
-        return (obj instanceof Profile) ? (Profile) obj : null;
+        return CurrentProfile.get(attrs.getRequest());
     }
 
     // -------------------- Internal helpers --------------------
-    private static String normOrNull(String s) {
-        if (s == null) return null;
-        String n = s.trim();
-        return n.isEmpty() ? null : n.toLowerCase(Locale.ROOT);
-    }
-
-    private static boolean containsIgnoreCase(String haystack, String needle) {
-        if (haystack == null || needle == null) return false;
-        return haystack.toLowerCase(Locale.ROOT).contains(needle.toLowerCase(Locale.ROOT));
-    }
-
     private static Set<SongGenre> parseGenre(String raw) {
         if (raw == null || raw.isBlank()) return null;
         try {
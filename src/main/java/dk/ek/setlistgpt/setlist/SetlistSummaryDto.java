@@ -21,13 +21,8 @@ public class SetlistSummaryDto {
     private int totalDurationSeconds;
     private int items;
 
-    public static SetlistSummaryDto from(Setlist s) {
-        return new SetlistSummaryDto(
-                s.getId(),
-                s.getTitle(),
-                s.getCreatedAt(),
-                s.getTotalDurationSeconds(),
-                s.getItems() == null ? 0 : s.getItems().size()
-        );
+    // JPQL constructor expression: count(...) arrives as a long.
+    public SetlistSummaryDto(Long id, String title, LocalDateTime createdAt, int totalDurationSeconds, long items) {
+        this(id, title, createdAt, totalDurationSeconds, (int) items);
     }
 }
\ No newline at end of file
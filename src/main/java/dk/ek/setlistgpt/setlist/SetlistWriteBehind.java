@@ -0,0 +1,223 @@
+package dk.ek.setlistgpt.setlist;
+
+import dk.ek.setlistgpt.profile.Profile;
+import dk.ek.setlistgpt.song.Song;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional write-behind for built setlists. In "guests" mode setlists without an owner (nobody
+ * reads those back) are queued, in "all" mode every setlist is; "off" saves inline as before.
+ *
+ * A single background worker drains the bounded queue and saves up to batch-size setlists per
+ * transaction. When the queue is full the caller waits up to offer-timeout-ms and then saves
+ * inline, so a slow database pushes back on request threads instead of growing memory.
+ * On shutdown the queue is drained. That happens in {@link #PHASE}, below the web server's
+ * graceful shutdown and stop phases, so setlists queued by requests finishing during graceful
+ * shutdown are still saved.
+ */
+@Component
+public class SetlistWriteBehind implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SetlistWriteBehind.class);
+
+    public enum Mode { OFF, GUESTS, ALL }
+
+    // Boot stops the web server gracefully at DEFAULT_PHASE - 1024 and shuts it at - 2048.
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    /** Snapshot for the admin metrics endpoint; flush times in milliseconds. */
+    public record Stats(String mode,
+                        int queueDepth,
+                        int capacity,
+                        long enqueued,
+                        long savedInline,
+                        long flushed,
+                        long failed,
+                        long batches,
+                        double lastFlushMillis,
+                        double maxFlushMillis,
+                        double avgFlushMillis) {
+    }
+
+    private final SetlistService service;
+    private final Mode mode;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final long drainTimeoutMs;
+    private final BlockingQueue<PendingSetlist> queue;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong savedInline = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong flushNanosTotal = new AtomicLong();
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public SetlistWriteBehind(SetlistService service,
+                              @Value("${app.setlist.write-behind.mode:off}") String mode,
+                              @Value("${app.setlist.write-behind.capacity:1000}") int capacity,
+                              @Value("${app.setlist.write-behind.batch-size:50}") int batchSize,
+                              @Value("${app.setlist.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+                              @Value("${app.setlist.write-behind.offer-timeout-ms:50}") long offerTimeoutMs,
+                              @Value("${app.setlist.write-behind.drain-timeout-ms:10000}") long drainTimeoutMs) {
+        this.service = service;
+        this.mode = parseMode(mode);
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.offerTimeoutMs = Math.max(0, offerTimeoutMs);
+        this.drainTimeoutMs = Math.max(0, drainTimeoutMs);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+    }
+
+    /** Saves the built setlist now, or queues it when the configured mode covers this owner. */
+    public void save(Profile owner, String title, List<Song> songs) {
+        if (songs == null) throw new IllegalArgumentException("songs required");
+        boolean deferred = running && (mode == Mode.ALL || (mode == Mode.GUESTS && owner == null));
+        if (deferred) {
+            PendingSetlist pending = new PendingSetlist(owner, title, new ArrayList<>(songs), LocalDateTime.now());
+            try {
+                if (queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    enqueued.incrementAndGet();
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (deferred) savedInline.incrementAndGet();
+        service.saveBuiltSetlist(owner, title, songs);
+    }
+
+    public Stats stats() {
+        long n = batches.get();
+        return new Stats(
+                mode.name().toLowerCase(Locale.ROOT),
+                queue.size(),
+                capacity,
+                enqueued.get(),
+                savedInline.get(),
+                flushed.get(),
+                failed.get(),
+                n,
+                lastFlushNanos / 1e6,
+                maxFlushNanos / 1e6,
+                n == 0 ? 0 : flushNanosTotal.get() / 1e6 / n);
+    }
+
+    // -------------------- Lifecycle --------------------
+    @Override
+    public void start() {
+        if (mode == Mode.OFF || running) return;
+        running = true;
+        worker = new Thread(this::runWorker, "setlist-write-behind");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Setlist write-behind started: mode={}, capacity={}, batchSize={}", mode, capacity, batchSize);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        try {
+            worker.join(drainTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything queued by a request that raced with shutdown, or left by a worker that timed out.
+        if (!worker.isAlive()) {
+            while (!queue.isEmpty()) flushNext();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Setlist write-behind stopped with {} unsaved setlists", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    // -------------------- Worker --------------------
+    private void runWorker() {
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSetlist first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) flush(first);
+            } catch (InterruptedException e) {
+                if (!running) break;
+            } catch (RuntimeException e) {
+                log.error("Setlist write-behind worker error", e);
+            }
+        }
+    }
+
+    private void flushNext() {
+        PendingSetlist first = queue.poll();
+        if (first != null) flush(first);
+    }
+
+    private void flush(PendingSetlist first) {
+        List<PendingSetlist> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+
+        long start = System.nanoTime();
+        try {
+            service.saveBuiltSetlists(batch);
+            flushed.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            // One bad setlist must not lose the rest of the batch: retry them one transaction each.
+            log.warn("Batch of {} setlists failed, saving individually: {}", batch.size(), e.getMessage());
+            for (PendingSetlist p : batch) {
+                try {
+                    service.saveBuiltSetlists(List.of(p));
+                    flushed.incrementAndGet();
+                } catch (RuntimeException single) {
+                    failed.incrementAndGet();
+                    log.error("Dropping setlist '{}' after failed save", p.title(), single);
+                }
+            }
+        }
+        long took = System.nanoTime() - start;
+        batches.incrementAndGet();
+        flushNanosTotal.addAndGet(took);
+        lastFlushNanos = took;
+        if (took > maxFlushNanos) maxFlushNanos = took;
+    }
+
+    private static Mode parseMode(String raw) {
+        if (raw == null || raw.isBlank()) return Mode.OFF;
+        try {
+            return Mode.valueOf(raw.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return Mode.OFF;
+        }
+    }
+}
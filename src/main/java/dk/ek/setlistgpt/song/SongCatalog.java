@@ -0,0 +1,298 @@
+package dk.ek.setlistgpt.song;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read-optimized in-memory copy of the songs table, stored column by column.
+ * Genre and mood filters are answered from per-value bitmaps and text filters from
+ * trigram indexes over the lowercased title/artist columns, so building a setlist no
+ * longer hydrates every Song through Hibernate. Loaded lazily on first query and kept
+ * current from {@link SongChangedEvent}s once the publishing transaction commits.
+ */
+@Component
+public class SongCatalog {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NONE = -1;
+
+    private final SongRepository songRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock. Rows are append-only; removed rows are cleared from the live bitmap.
+    private boolean loaded;
+    private int size;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] bpms = new int[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private byte[] genres = new byte[INITIAL_CAPACITY];
+    private byte[] moods = new byte[INITIAL_CAPACITY];
+    private String[] titles = new String[INITIAL_CAPACITY];   // lowercased
+    private String[] artists = new String[INITIAL_CAPACITY];  // lowercased
+    private Song[] rows = new Song[INITIAL_CAPACITY];         // detached snapshots handed to callers
+    private long[] live = new long[words(INITIAL_CAPACITY)];
+    private final long[][] genrePostings = new long[SongGenre.values().length][words(INITIAL_CAPACITY)];
+    // One extra slot at the end collects songs without a mood.
+    private final long[][] moodPostings = new long[SongMood.values().length + 1][words(INITIAL_CAPACITY)];
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private final TrigramIndex titleIndex = new TrigramIndex();
+    private final TrigramIndex artistIndex = new TrigramIndex();
+
+    public SongCatalog(SongRepository songRepository) {
+        this.songRepository = songRepository;
+    }
+
+    /**
+     * Returns catalog songs matching every given criterion (null criteria are ignored).
+     *
+     * @param titleQuery         case-insensitive substring of the title
+     * @param artistQuery        case-insensitive substring of the artist
+     * @param allowedGenres      song genre must be one of these
+     * @param mood               song mood must be compatible with this mood
+     * @param includeUnknownMood whether songs without a mood pass the mood filter
+     * @return matching songs in catalog (insertion) order
+     */
+    public List<Song> find(String titleQuery,
+                           String artistQuery,
+                           Set<SongGenre> allowedGenres,
+                           SongMood mood,
+                           boolean includeUnknownMood) {
+        ensureLoaded();
+        String titleQ = normOrNull(titleQuery);
+        String artistQ = normOrNull(artistQuery);
+
+        lock.readLock().lock();
+        try {
+            int n = words(size);
+            long[] mask = Arrays.copyOf(live, n);
+            if (allowedGenres != null) {
+                long[] any = new long[n];
+                for (SongGenre g : allowedGenres) or(any, genrePostings[g.ordinal()], n);
+                and(mask, any, n);
+            }
+            if (mood != null) {
+                long[] any = new long[n];
+                for (int bits = mood.compatibleMask(); bits != 0; bits &= bits - 1) {
+                    or(any, moodPostings[Integer.numberOfTrailingZeros(bits)], n);
+                }
+                if (includeUnknownMood) or(any, moodPostings[SongMood.values().length], n);
+                and(mask, any, n);
+            }
+            if (titleQ != null) and(mask, titleIndex.containsCandidates(titleQ), n);
+            if (artistQ != null) and(mask, artistIndex.containsCandidates(artistQ), n);
+
+            List<Song> out = new ArrayList<>();
+            for (int w = 0; w < n; w++) {
+                long bits = mask[w];
+                while (bits != 0) {
+                    int row = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    // verification pass: gram candidates may not contain the needle contiguously
+                    if (titleQ != null && (titles[row] == null || !titles[row].contains(titleQ))) continue;
+                    if (artistQ != null && (artists[row] == null || !artists[row].contains(artistQ))) continue;
+                    out.add(rows[row]);
+                }
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked autocomplete over distinct artist names: exact, prefix, word prefix,
+     * substring and then fuzzy matches.
+     *
+     * @return display values (original casing), best first
+     */
+    public List<String> suggestArtists(String query, int limit) {
+        return suggest(artistIndex, query, limit, true);
+    }
+
+    /** Same as {@link #suggestArtists} but over song titles. */
+    public List<String> suggestTitles(String query, int limit) {
+        return suggest(titleIndex, query, limit, false);
+    }
+
+    private List<String> suggest(TrigramIndex index, String query, int limit, boolean artist) {
+        ensureLoaded();
+        String q = normOrNull(query);
+        if (q == null) return List.of();
+
+        lock.readLock().lock();
+        try {
+            String[] values = artist ? artists : titles;
+            int[] hits = index.suggest(q, limit, row -> values[row]);
+            List<String> out = new ArrayList<>(hits.length);
+            for (int row : hits) {
+                Song s = rows[row];
+                out.add((artist ? s.getArtist() : s.getTitle()).trim());
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Applies saved/removed songs after the publishing transaction commits (or immediately outside one).
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSongChanged(SongChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            // Not loaded yet: the first query reads the committed table anyway.
+            if (!loaded) return;
+            for (Song s : event.saved()) {
+                if (s != null && s.getId() != null) upsert(s);
+            }
+            for (Long id : event.removedIds()) {
+                if (id != null) remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // -------------------- Loading --------------------
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) return;
+            for (Song s : songRepository.findAll()) {
+                if (s.getId() != null) upsert(s);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // -------------------- Mutation (write lock held) --------------------
+    private void upsert(Song s) {
+        Integer existing = rowById.get(s.getId());
+        int row;
+        if (existing != null) {
+            row = existing;
+            clearPostings(row);
+            titleIndex.remove(row, titles[row]);
+            artistIndex.remove(row, artists[row]);
+        } else {
+            row = size;
+            ensureCapacity(size + 1);
+            size++;
+            rowById.put(s.getId(), row);
+        }
+
+        ids[row] = s.getId();
+        bpms[row] = s.getBpm() != null ? s.getBpm() : NONE;
+        durations[row] = s.getDurationInSeconds();
+        genres[row] = (byte) (s.getGenre() != null ? s.getGenre().ordinal() : NONE);
+        moods[row] = (byte) (s.getMood() != null ? s.getMood().ordinal() : NONE);
+        titles[row] = normOrNull(s.getTitle());
+        artists[row] = normOrNull(s.getArtist());
+        rows[row] = snapshot(s);
+
+        titleIndex.add(row, titles[row]);
+        artistIndex.add(row, artists[row]);
+        setBit(live, row);
+        if (genres[row] != NONE) setBit(genrePostings[genres[row]], row);
+        setBit(moodPostings[moodSlot(row)], row);
+    }
+
+    private void remove(Long id) {
+        Integer row = rowById.remove(id);
+        if (row == null) return;
+        clearPostings(row);
+        titleIndex.remove(row, titles[row]);
+        artistIndex.remove(row, artists[row]);
+        clearBit(live, row);
+        titles[row] = null;
+        artists[row] = null;
+        rows[row] = null;
+    }
+
+    private void clearPostings(int row) {
+        if (genres[row] != NONE) clearBit(genrePostings[genres[row]], row);
+        clearBit(moodPostings[moodSlot(row)], row);
+    }
+
+    private int moodSlot(int row) {
+        return moods[row] != NONE ? moods[row] : SongMood.values().length;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) return;
+        int cap = Math.max(needed, ids.length * 2);
+        ids = Arrays.copyOf(ids, cap);
+        bpms = Arrays.copyOf(bpms, cap);
+        durations = Arrays.copyOf(durations, cap);
+        genres = Arrays.copyOf(genres, cap);
+        moods = Arrays.copyOf(moods, cap);
+        titles = Arrays.copyOf(titles, cap);
+        artists = Arrays.copyOf(artists, cap);
+        rows = Arrays.copyOf(rows, cap);
+        int w = words(cap);
+        live = Arrays.copyOf(live, w);
+        for (int i = 0; i < genrePostings.length; i++) genrePostings[i] = Arrays.copyOf(genrePostings[i], w);
+        for (int i = 0; i < moodPostings.length; i++) moodPostings[i] = Arrays.copyOf(moodPostings[i], w);
+    }
+
+    // Copy without the lazy repertoire association so rows stay usable outside a session.
+    private static Song snapshot(Song s) {
+        return Song.builder()
+                .id(s.getId())
+                .title(s.getTitle())
+                .artist(s.getArtist())
+                .genre(s.getGenre())
+                .bpm(s.getBpm())
+                .mood(s.getMood())
+                .durationMinutes(s.getDurationMinutes())
+                .durationSeconds(s.getDurationSeconds())
+                .build();
+    }
+
+    // -------------------- Bitmap helpers --------------------
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static void setBit(long[] bitmap, int i) {
+        bitmap[i >>> 6] |= 1L << i;
+    }
+
+    private static void clearBit(long[] bitmap, int i) {
+        bitmap[i >>> 6] &= ~(1L << i);
+    }
+
+    private static void or(long[] target, long[] source, int n) {
+        for (int i = 0; i < n; i++) target[i] |= source[i];
+    }
+
+    private static void and(long[] target, long[] source, int n) {
+        for (int i = 0; i < n; i++) target[i] &= source[i];
+    }
+
+    // Intersects the bitmap with a sorted row list; null means "no restriction".
+    private static void and(long[] target, int[] sortedRows, int n) {
+        if (sortedRows == null) return;
+        long[] keep = new long[n];
+        for (int row : sortedRows) {
+            if (row < (n << 6)) setBit(keep, row);
+        }
+        and(target, keep, n);
+    }
+
+    private static String normOrNull(String s) {
+        if (s == null) return null;
+        String n = s.trim();
+        return n.isEmpty() ? null : n.toLowerCase(Locale.ROOT);
+    }
+}
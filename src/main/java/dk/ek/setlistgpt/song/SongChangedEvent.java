@@ -0,0 +1,24 @@
+package dk.ek.setlistgpt.song;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when songs are saved or deleted, so read-side copies (see SongCatalog)
+ * can update incrementally instead of re-reading the whole table.
+ */
+public record SongChangedEvent(List<Song> saved, List<Long> removedIds) {
+
+    public static SongChangedEvent saved(Song... songs) {
+        return new SongChangedEvent(Arrays.asList(songs), List.of());
+    }
+
+    public static SongChangedEvent saved(Collection<Song> songs) {
+        return new SongChangedEvent(List.copyOf(songs), List.of());
+    }
+
+    public static SongChangedEvent removed(Long songId) {
+        return new SongChangedEvent(List.of(), List.of(songId));
+    }
+}
@@ -0,0 +1,109 @@
+package dk.ek.setlistgpt.song;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dk.ek.setlistgpt.profile.CurrentProfile;
+import dk.ek.setlistgpt.profile.Profile;
+import dk.ek.setlistgpt.profile.ProfileType;
+import dk.ek.setlistgpt.repertoire.Repertoire;
+import dk.ek.setlistgpt.repertoire.RepertoireRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Map;
+
+/**
+ * Bulk song import: POST /api/songs/import with a text/csv (header row naming the columns) or
+ * application/x-ndjson body (one JSON object per line), optionally ?repertoireId= to add the songs
+ * to one of your repertoires. The body is parsed while it is being received and the response is
+ * NDJSON written as the import runs: one {"line","error"} object per rejected row, then a final
+ * {"done":true,...} object with the totals.
+ */
+@RestController
+@RequestMapping("/api/songs")
+public class SongImportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final SongImportService importService;
+    private final RepertoireRepository repertoires;
+    private final ObjectMapper objectMapper;
+
+    public SongImportController(SongImportService importService,
+                                RepertoireRepository repertoires,
+                                ObjectMapper objectMapper) {
+        this.importService = importService;
+        this.repertoires = repertoires;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", NDJSON}, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> importSongs(@RequestParam(required = false) Long repertoireId,
+                                                             HttpServletRequest request) {
+        Repertoire target = null;
+        if (repertoireId != null) {
+            Profile current = CurrentProfile.get(request);
+            if (current == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            target = repertoires.findById(repertoireId).orElse(null);
+            if (target == null) return ResponseEntity.notFound().build();
+            boolean owner = target.getOwner() != null && current.getId() != null
+                    && current.getId().equals(target.getOwner().getId());
+            if (!owner && current.getType() != ProfileType.ADMIN) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+        }
+
+        boolean csv;
+        Charset charset;
+        try {
+            csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+            charset = request.getCharacterEncoding() != null
+                    ? Charset.forName(request.getCharacterEncoding())
+                    : StandardCharsets.UTF_8;
+        } catch (InvalidMediaTypeException | IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return ResponseEntity.badRequest().build(); // charset the JVM cannot decode
+        }
+        Repertoire into = target;
+        StreamingResponseBody body = out -> {
+            Reader reader = new InputStreamReader(request.getInputStream(), charset);
+            try (SongImportParser parser = csv
+                    ? SongImportParser.csv(reader)
+                    : SongImportParser.ndjson(reader, objectMapper)) {
+                SongImportService.Summary summary = importService.importSongs(parser, into,
+                        error -> writeLine(out, error));
+                writeLine(out, Map.of(
+                        "done", true,
+                        "rows", summary.rows(),
+                        "imported", summary.imported(),
+                        "failed", summary.failed(),
+                        "truncated", summary.truncated()));
+            } catch (IllegalArgumentException e) {
+                // Unreadable upload (e.g. no usable CSV header): whatever was saved so far stays.
+                writeLine(out, Map.of("done", false, "error", e.getMessage()));
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // client went away
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    // One JSON value per line, flushed so the client sees errors while the upload is still running.
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package dk.ek.setlistgpt.song;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pulls import rows out of a CSV or NDJSON body one at a time, so an upload is never held in
+ * memory as a whole. A row that cannot be read comes back with an error instead of data;
+ * line numbers refer to the uploaded text (the CSV header is line 1). Input that cannot be
+ * parsed any further (no usable CSV header, a runaway quoted field) throws
+ * IllegalArgumentException.
+ */
+public abstract class SongImportParser implements Closeable {
+
+    /** One parsed row: data is null when error is set. */
+    public record Row(long line, SongImportRow data, String error) {
+    }
+
+    // Guards against an unterminated quote swallowing the rest of the upload.
+    static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    protected final BufferedReader in;
+
+    private SongImportParser(Reader in) {
+        this.in = in instanceof BufferedReader b ? b : new BufferedReader(in);
+    }
+
+    public static SongImportParser csv(Reader in) {
+        return new Csv(in);
+    }
+
+    public static SongImportParser ndjson(Reader in, ObjectMapper objectMapper) {
+        return new Ndjson(in, objectMapper);
+    }
+
+    /** Next row, or null at the end of the input. Blank lines are skipped. */
+    public abstract Row next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // -------------------- NDJSON --------------------
+    private static final class Ndjson extends SongImportParser {
+        private final ObjectMapper objectMapper;
+        private long line;
+
+        Ndjson(Reader in, ObjectMapper objectMapper) {
+            super(in);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = in.readLine()) != null) {
+                line++;
+                if (text.isBlank()) continue;
+                try {
+                    return new Row(line, objectMapper.readValue(text, SongImportRow.class), null);
+                } catch (JsonProcessingException e) {
+                    return new Row(line, null, "malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    // -------------------- CSV --------------------
+    // RFC 4180: comma separated, optional double quotes, "" inside quotes, quoted line breaks.
+    private static final class Csv extends SongImportParser {
+        private static final Map<String, Integer> COLUMNS = new HashMap<>();
+
+        static {
+            String[][] aliases = {
+                    {"title"}, {"artist"}, {"genre"}, {"bpm", "tempo"}, {"mood"},
+                    {"duration", "length"}, {"durationminutes", "minutes"}, {"durationseconds", "seconds"}
+            };
+            for (int i = 0; i < aliases.length; i++) {
+                for (String a : aliases[i]) COLUMNS.put(a, i);
+            }
+        }
+
+        private long line = 1;
+        private int pending = -2; // one char of lookahead; -2 = none
+        private int[] slots;      // column index -> SongImportRow component, -1 = ignored
+
+        Csv(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (slots == null && !readHeader()) return null;
+            List<String> fields;
+            long start;
+            do {
+                start = line;
+                fields = readRecord();
+                if (fields == null) return null;
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+
+            String[] v = new String[8];
+            for (int i = 0; i < fields.size() && i < slots.length; i++) {
+                if (slots[i] >= 0) v[slots[i]] = fields.get(i);
+            }
+            return new Row(start, new SongImportRow(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7]), null);
+        }
+
+        private boolean readHeader() throws IOException {
+            List<String> header = readRecord();
+            if (header == null) return false;
+            slots = new int[header.size()];
+            boolean named = false;
+            for (int i = 0; i < header.size(); i++) {
+                String h = header.get(i).replace("\uFEFF", "").trim()
+                        .replaceAll("[\\s_\\-]+", "").toLowerCase(Locale.ROOT);
+                slots[i] = COLUMNS.getOrDefault(h, -1);
+                named |= slots[i] == 0 || slots[i] == 1;
+            }
+            if (!named) throw new IllegalArgumentException("CSV header must name a title or artist column");
+            return true;
+        }
+
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            int chars = 0;
+            int c;
+            while ((c = read()) != -1) {
+                any = true;
+                if (++chars > MAX_RECORD_CHARS) {
+                    throw new IllegalArgumentException("CSV record at line " + line + " exceeds " + MAX_RECORD_CHARS + " characters");
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        int n = read();
+                        if (n == '"') field.append('"');
+                        else {
+                            quoted = false;
+                            pending = n;
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n') {
+                    if (c == '\r') {
+                        int n = read();
+                        if (n != '\n') pending = n;
+                    }
+                    line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+            }
+            if (!any) return null;
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return in.read();
+        }
+    }
+}
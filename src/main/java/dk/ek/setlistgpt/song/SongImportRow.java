@@ -0,0 +1,93 @@
+package dk.ek.setlistgpt.song;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.Locale;
+
+/**
+ * One row of a bulk song import, as read from a CSV column or an NDJSON property. Everything
+ * arrives as text so a bad value becomes a per-row error instead of failing the whole upload.
+ * Duration is either {@code duration} ("m:ss" or total seconds) or minutes + seconds.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record SongImportRow(String title,
+                            String artist,
+                            String genre,
+                            String bpm,
+                            String mood,
+                            String duration,
+                            @JsonAlias("minutes") String durationMinutes,
+                            @JsonAlias("seconds") String durationSeconds) {
+
+    /**
+     * Validates the row with the same rules as POST /api/songs and {@link Song#setDuration}.
+     *
+     * @throws IllegalArgumentException with a message suitable for the per-row error report
+     */
+    public Song toSong() {
+        String t = trimToNull(title);
+        String a = trimToNull(artist);
+        if (t == null && a == null) throw new IllegalArgumentException("enter at least title or artist");
+
+        Song song = new Song();
+        song.setTitle(t);
+        song.setArtist(a);
+        song.setGenre(parseEnum(SongGenre.class, genre, "genre"));
+        song.setMood(parseEnum(SongMood.class, mood, "mood"));
+        Integer b = parseInt(bpm, "bpm");
+        if (b != null && b <= 0) throw new IllegalArgumentException("bpm must be positive");
+        song.setBpm(b);
+
+        int minutes;
+        int seconds;
+        String d = trimToNull(duration);
+        if (d != null) {
+            int colon = d.indexOf(':');
+            if (colon >= 0) {
+                minutes = requireInt(d.substring(0, colon), "duration");
+                seconds = requireInt(d.substring(colon + 1), "duration");
+            } else {
+                int total = requireInt(d, "duration");
+                minutes = total / 60;
+                seconds = total % 60;
+            }
+        } else {
+            Integer m = parseInt(durationMinutes, "durationMinutes");
+            Integer s = parseInt(durationSeconds, "durationSeconds");
+            minutes = m == null ? 0 : m;
+            seconds = s == null ? 0 : s;
+        }
+        song.setDuration(minutes, seconds); // throws with the entity's own messages
+        return song;
+    }
+
+    private static String trimToNull(String v) {
+        if (v == null) return null;
+        String t = v.trim();
+        return t.isEmpty() ? null : t;
+    }
+
+    private static Integer parseInt(String v, String field) {
+        String t = trimToNull(v);
+        return t == null ? null : requireInt(t, field);
+    }
+
+    private static int requireInt(String v, String field) {
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " must be a whole number: '" + v.trim() + "'");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String v, String field) {
+        String t = trimToNull(v);
+        if (t == null) return null;
+        try {
+            return Enum.valueOf(type, t.replaceAll("[\\s\\-]+", "_").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown " + field + ": '" + t + "'");
+        }
+    }
+}
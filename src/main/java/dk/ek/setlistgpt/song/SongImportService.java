@@ -0,0 +1,135 @@
+package dk.ek.setlistgpt.song;
+
+import dk.ek.setlistgpt.repertoire.Repertoire;
+import dk.ek.setlistgpt.repertoire.RepertoireChangedEvent;
+import dk.ek.setlistgpt.repertoire.RepertoireRepository;
+import dk.ek.setlistgpt.stats.StatsDelta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bulk song import. Rows are validated as they are parsed and saved batch-size at a time, one
+ * transaction per batch, so memory stays bounded by the batch and a failure only costs that
+ * batch. A failed batch is retried row by row to find the offending rows; committed batches
+ * stay committed if the upload is aborted part way.
+ */
+@Service
+public class SongImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(SongImportService.class);
+
+    /** A rejected row; line is the line number in the uploaded text. */
+    public record RowError(long line, String error) {
+    }
+
+    /** Totals for one upload; truncated when rows beyond max-rows were ignored. */
+    public record Summary(long rows, long imported, long failed, boolean truncated) {
+    }
+
+    private final SongRepository songRepository;
+    private final RepertoireRepository repertoireRepository;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final int maxRows;
+
+    public SongImportService(SongRepository songRepository,
+                             RepertoireRepository repertoireRepository,
+                             ApplicationEventPublisher events,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.songs.import.batch-size:500}") int batchSize,
+                             @Value("${app.songs.import.max-rows:50000}") int maxRows) {
+        this.songRepository = songRepository;
+        this.repertoireRepository = repertoireRepository;
+        this.events = events;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRows = Math.max(1, maxRows);
+    }
+
+    /**
+     * Imports every row the parser yields into the target repertoire (or as loose songs when
+     * null), reporting rejected rows to errors as soon as they are known.
+     */
+    public Summary importSongs(SongImportParser parser, Repertoire target, Consumer<RowError> errors) throws IOException {
+        List<Song> batch = new ArrayList<>(batchSize);
+        List<Long> lines = new ArrayList<>(batchSize);
+        long rows = 0;
+        long imported = 0;
+        long failed = 0;
+        boolean truncated = false;
+        SongImportParser.Row row;
+        while ((row = parser.next()) != null) {
+            if (rows == maxRows) {
+                truncated = true;
+                break;
+            }
+            rows++;
+            if (row.error() != null) {
+                failed++;
+                errors.accept(new RowError(row.line(), row.error()));
+                continue;
+            }
+            try {
+                batch.add(row.data().toSong());
+                lines.add(row.line());
+            } catch (IllegalArgumentException e) {
+                failed++;
+                errors.accept(new RowError(row.line(), e.getMessage()));
+                continue;
+            }
+            if (batch.size() >= batchSize) {
+                int saved = flush(batch, lines, target, errors);
+                imported += saved;
+                failed += batch.size() - saved;
+                batch.clear();
+                lines.clear();
+            }
+        }
+        int saved = flush(batch, lines, target, errors);
+        return new Summary(rows, imported + saved, failed + batch.size() - saved, truncated);
+    }
+
+    // Saves the batch in one transaction; on failure retries each row alone. Returns rows saved.
+    private int flush(List<Song> batch, List<Long> lines, Repertoire target, Consumer<RowError> errors) {
+        if (batch.isEmpty()) return 0;
+        try {
+            tx.executeWithoutResult(status -> save(batch, target));
+            return batch.size();
+        } catch (RuntimeException e) {
+            log.warn("Import batch of {} songs failed, saving individually: {}", batch.size(), e.getMessage());
+        }
+        int saved = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Song song = batch.get(i);
+            song.setId(null); // the rolled-back insert may have assigned one
+            try {
+                tx.executeWithoutResult(status -> save(List.of(song), target));
+                saved++;
+            } catch (RuntimeException e) {
+                errors.accept(new RowError(lines.get(i), "could not save: " + e.getMessage()));
+            }
+        }
+        return saved;
+    }
+
+    private void save(List<Song> songs, Repertoire target) {
+        Repertoire ref = target == null ? null : repertoireRepository.getReferenceById(target.getId());
+        for (Song s : songs) s.setRepertoire(ref);
+        List<Song> saved = songRepository.saveAll(songs);
+        events.publishEvent(SongChangedEvent.saved(saved));
+        Long ownerId = target != null && target.getOwner() != null ? target.getOwner().getId() : null;
+        events.publishEvent(StatsDelta.songsCreated(ownerId, saved.size()));
+        if (target != null) events.publishEvent(RepertoireChangedEvent.of(target));
+    }
+}
@@ -1,7 +1,5 @@
 package dk.ek.setlistgpt.song;
 
-import java.util.*;
-
 /**
  * Enum representing various moods a song can have, plus compatibility logic.
  */
@@ -24,7 +22,10 @@ public enum SongMood {
     NOSTALGIC,
     GROOVY;
 
-    private static final Map<SongMood, Set<SongMood>> RELATED = new EnumMap<>(SongMood.class);
+    // Bit i of RELATED[m] is set when moods m and i are related. One int covers all 17 moods;
+    // COMPATIBLE additionally sets each mood's own bit. Both are symmetric and never change.
+    private static final int[] RELATED = new int[values().length];
+    private static final int[] COMPATIBLE = new int[values().length];
 
     static {
         group(ENERGETIC, DRIVING, PARTY, GROOVY);
@@ -44,12 +45,15 @@ public enum SongMood {
         group(NOSTALGIC, MELLOW, DREAMY, MELANCHOLIC);
         group(CALM, CHILL, MELLOW, DREAMY);
         group(ANGRY, INTENSE, DRIVING, DARK);
+        for (SongMood m : values()) {
+            COMPATIBLE[m.ordinal()] = RELATED[m.ordinal()] | (1 << m.ordinal());
+        }
     }
 
     private static void group(SongMood key, SongMood... others) {
-        RELATED.computeIfAbsent(key, k -> new HashSet<>()).addAll(Arrays.asList(others));
         for (SongMood o : others) {
-            RELATED.computeIfAbsent(o, k -> new HashSet<>()).add(key);
+            RELATED[key.ordinal()] |= 1 << o.ordinal();
+            RELATED[o.ordinal()] |= 1 << key.ordinal();
         }
     }
 
@@ -58,7 +62,21 @@ public enum SongMood {
      */
     public boolean compatibleWith(SongMood other) {
         if (other == null) return false;
-        if (this == other) return true;
-        return RELATED.getOrDefault(this, Collections.emptySet()).contains(other);
+        return (COMPATIBLE[ordinal()] & (1 << other.ordinal())) != 0;
+    }
+
+    /**
+     * Returns true if the other mood is related to (but not the same as) this mood.
+     */
+    public boolean relatedTo(SongMood other) {
+        if (other == null) return false;
+        return (RELATED[ordinal()] & (1 << other.ordinal())) != 0;
+    }
+
+    /**
+     * Bitmask of the moods compatible with this one (bit = ordinal), including itself.
+     */
+    public int compatibleMask() {
+        return COMPATIBLE[ordinal()];
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,31 @@
 package dk.ek.setlistgpt.song;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 /** Spring Data JPA repository for Song */
 public interface SongRepository extends JpaRepository<Song, Long> {
+
+    // BPM enrichment: songs without a BPM, paged by id.
+    @Query("select s from Song s where s.bpm is null and s.id > :afterId order by s.id")
+    List<Song> findMissingBpm(Long afterId, Limit limit);
+
+    // Repertoire songs page, projected straight into DTOs and keyed by id.
+    @Query("select new dk.ek.setlistgpt.song.SongDto(s.id, s.title, s.artist, s.genre, s.bpm, s.mood, "
+            + "s.durationMinutes, s.durationSeconds, s.durationMinutes * 60 + s.durationSeconds) "
+            + "from Song s where s.repertoire.id = :repertoireId and s.id > :afterId order by s.id")
+    List<SongDto> findPageByRepertoireId(Long repertoireId, Long afterId, Limit limit);
+
+    // Only fills gaps, so a BPM entered by a user in the meantime is never overwritten.
+    @Modifying(clearAutomatically = true)
+    @Query("update Song s set s.bpm = :bpm where s.id in :ids and s.bpm is null")
+    int fillMissingBpm(Integer bpm, Collection<Long> ids);
+
+    // Re-read after fillMissingBpm: only rows that still exist and now carry that bpm.
+    List<Song> findByIdInAndBpm(Collection<Long> ids, Integer bpm);
 }
@@ -5,21 +5,21 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Simple tolerant search endpoint for songs.
  * Accepts optional query params: artist, genre, mood.
  * Returns a JSON array of objects with { id, title, artist, durationInSeconds }.
+ * Also serves ranked artist/title autocomplete from the catalog's trigram indexes.
  */
 @RestController
 @RequestMapping("/api/songs")
 public class SongSearchController {
 
-    private final SongRepository songs;
+    private final SongCatalog catalog;
 
-    public SongSearchController(SongRepository songs) {
-        this.songs = songs;
+    public SongSearchController(SongCatalog catalog) {
+        this.catalog = catalog;
     }
 
     @GetMapping("/search")
@@ -28,14 +28,11 @@ public class SongSearchController {
             @RequestParam(required = false) String genre,
             @RequestParam(required = false) String mood
     ) {
-        String artistNeedle = normalize(artist);
         Set<SongGenre> allowedGenres = SongGenreGroup.resolve(genre);
         SongMood requestedMood = parseMood(mood);
 
-        return songs.findAll().stream()
-                .filter(s -> matchArtist(s, artistNeedle))
-                .filter(s -> matchGenre(s, allowedGenres))
-                .filter(s -> matchMood(s, requestedMood))
+        // Songs without a mood are excluded when a mood is requested.
+        return catalog.find(null, artist, allowedGenres, requestedMood, false).stream()
                 .sorted(Comparator.comparing(
                         (Song s) -> Optional.ofNullable(s.getTitle()).orElse(""),
                         String.CASE_INSENSITIVE_ORDER
@@ -44,30 +41,17 @@ public class SongSearchController {
                 .collect(Collectors.toList());
     }
 
-    private static boolean matchArtist(Song s, String needle) {
-        if (needle == null) return true;
-        return containsIgnoreCase(s.getArtist(), needle);
-    }
-
-    private static boolean matchGenre(Song s, Set<SongGenre> allowed) {
-        if (allowed == null || allowed.isEmpty()) return true;
-        return s.getGenre() != null && allowed.contains(s.getGenre());
-    }
-
-    private static boolean matchMood(Song s, SongMood requested) {
-        if (requested == null) return true;
-        return s.getMood() != null && s.getMood().compatibleWith(requested);
-    }
-
-    private static String normalize(String s) {
-        if (s == null) return null;
-        String t = s.trim();
-        return t.isEmpty() ? null : t;
-    }
-
-    private static boolean containsIgnoreCase(String haystack, String needle) {
-        if (haystack == null || needle == null) return false;
-        return haystack.toLowerCase(Locale.ROOT).contains(needle.toLowerCase(Locale.ROOT));
+    // Autocomplete: field=artist (default) or title; returns distinct values, best match first.
+    @GetMapping("/suggest")
+    public List<String> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "artist") String field,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        int capped = Math.max(1, Math.min(50, limit));
+        return "title".equalsIgnoreCase(field)
+                ? catalog.suggestTitles(q, capped)
+                : catalog.suggestArtists(q, capped);
     }
 
     private static SongMood parseMood(String raw) {
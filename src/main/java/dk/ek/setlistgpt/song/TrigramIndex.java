@@ -0,0 +1,239 @@
+package dk.ek.setlistgpt.song;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Trigram inverted index over one normalized (trimmed, lowercased) text column of SongCatalog.
+ * Maps every 3-character gram of a value to the sorted rows containing it, plus word-start
+ * grams padded with a marker so one and two character prefixes can be looked up too.
+ * Not thread-safe; SongCatalog guards it with its read/write lock.
+ */
+final class TrigramIndex {
+
+    // Pads word starts so "ab" becomes the gram (MARK, 'a', 'b').
+    private static final char MARK = '\u0002';
+    // A fuzzy match must share at least this fraction of the query's grams.
+    private static final double MIN_FUZZY_SIMILARITY = 0.6;
+
+    private static final int TIER_FUZZY = 0;
+    private static final int TIER_CONTAINS = 1;
+    private static final int TIER_WORD_PREFIX = 2;
+    private static final int TIER_PREFIX = 3;
+    private static final int TIER_EXACT = 4;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    void add(int row, String value) {
+        if (value == null) return;
+        for (long gram : grams(value, true)) {
+            postings.computeIfAbsent(gram, k -> new Postings()).add(row);
+        }
+    }
+
+    void remove(int row, String value) {
+        if (value == null) return;
+        for (long gram : grams(value, true)) {
+            Postings p = postings.get(gram);
+            if (p == null) continue;
+            p.remove(row);
+            if (p.size == 0) postings.remove(gram);
+        }
+    }
+
+    /**
+     * Rows that may contain the needle, from intersecting the postings of its grams.
+     * Callers still verify with String.contains. Returns null when the needle is too short
+     * to narrow anything down (fewer than 3 characters).
+     */
+    int[] containsCandidates(String needle) {
+        if (needle.length() < 3) return null;
+        List<Postings> lists = new ArrayList<>();
+        for (long gram : grams(needle, false)) {
+            Postings p = postings.get(gram);
+            if (p == null) return new int[0];
+            lists.add(p);
+        }
+        lists.sort(Comparator.comparingInt(p -> p.size));
+
+        Postings first = lists.get(0);
+        int[] acc = Arrays.copyOf(first.rows, first.size);
+        int n = acc.length;
+        for (int i = 1; i < lists.size() && n > 0; i++) {
+            n = intersect(acc, n, lists.get(i));
+        }
+        return Arrays.copyOf(acc, n);
+    }
+
+    /**
+     * Ranks indexed values against a query: exact, prefix, word prefix, substring, then
+     * fuzzy matches sharing most of the query's grams. Ties go to shorter values.
+     *
+     * @param query   normalized query
+     * @param limit   max number of distinct values to return
+     * @param valueOf normalized value for a row (null for removed rows)
+     * @return one representative row per distinct value, best first
+     */
+    int[] suggest(String query, int limit, IntFunction<String> valueOf) {
+        if (query.isEmpty() || limit <= 0) return new int[0];
+
+        // Short queries can only be answered as word prefixes.
+        long[] grams = query.length() < 3
+                ? new long[]{gram(MARK, query.length() == 1 ? MARK : query.charAt(0), query.charAt(query.length() - 1))}
+                : grams(query, false);
+
+        List<Postings> lists = new ArrayList<>();
+        for (long g : grams) {
+            Postings p = postings.get(g);
+            lists.add(p != null ? p : Postings.EMPTY);
+        }
+        lists.sort(Comparator.comparingInt(p -> p.size));
+
+        // Any value sharing at least `need` of k grams appears in one of the k - need + 1 smallest lists.
+        int k = grams.length;
+        int need = query.length() < 3 ? 1 : (int) Math.ceil(k * MIN_FUZZY_SIMILARITY);
+        Map<String, Match> best = new HashMap<>();
+        for (int i = 0; i < k - need + 1; i++) {
+            Postings p = lists.get(i);
+            for (int j = 0; j < p.size; j++) {
+                int row = p.rows[j];
+                String value = valueOf.apply(row);
+                if (value == null) continue;
+                if (best.containsKey(value)) continue;
+                Match m = rank(row, value, query, grams, need);
+                if (m != null) best.put(value, m);
+            }
+        }
+
+        // Min-heap on rank: the head is the weakest of the current top matches.
+        PriorityQueue<Match> top = new PriorityQueue<>();
+        for (Match m : best.values()) {
+            top.add(m);
+            if (top.size() > limit) top.poll();
+        }
+        int[] out = new int[top.size()];
+        for (int i = out.length - 1; i >= 0; i--) out[i] = top.poll().row;
+        return out;
+    }
+
+    private static Match rank(int row, String value, String query, long[] grams, int need) {
+        if (value.equals(query)) return new Match(row, value, TIER_EXACT, 1.0);
+        if (value.startsWith(query)) return new Match(row, value, TIER_PREFIX, 1.0);
+        int at = value.indexOf(query);
+        if (at > 0 && !Character.isLetterOrDigit(value.charAt(at - 1))) {
+            return new Match(row, value, TIER_WORD_PREFIX, 1.0);
+        }
+        if (at > 0) {
+            // a later occurrence may still start a word
+            for (int i = value.indexOf(query, at + 1); i > 0; i = value.indexOf(query, i + 1)) {
+                if (!Character.isLetterOrDigit(value.charAt(i - 1))) return new Match(row, value, TIER_WORD_PREFIX, 1.0);
+            }
+            return new Match(row, value, TIER_CONTAINS, 1.0);
+        }
+        if (query.length() < 3) return null;
+
+        int shared = 0;
+        for (long g : grams) {
+            if (containsGram(value, g)) shared++;
+        }
+        if (shared < need) return null;
+        return new Match(row, value, TIER_FUZZY, (double) shared / grams.length);
+    }
+
+    private static boolean containsGram(String value, long gram) {
+        char a = (char) (gram >>> 32);
+        char b = (char) (gram >>> 16);
+        char c = (char) gram;
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            if (value.charAt(i) == a && value.charAt(i + 1) == b && value.charAt(i + 2) == c) return true;
+        }
+        return false;
+    }
+
+    // Distinct grams of a value; word-start grams are only included for indexing.
+    private static long[] grams(String value, boolean withWordStarts) {
+        int len = value.length();
+        long[] out = new long[Math.max(0, len - 2) + (withWordStarts ? 2 * len : 0)];
+        int n = 0;
+        for (int i = 0; i + 3 <= len; i++) {
+            out[n++] = gram(value.charAt(i), value.charAt(i + 1), value.charAt(i + 2));
+        }
+        if (withWordStarts) {
+            for (int i = 0; i < len; i++) {
+                char c = value.charAt(i);
+                if (!Character.isLetterOrDigit(c)) continue;
+                if (i > 0 && Character.isLetterOrDigit(value.charAt(i - 1))) continue;
+                out[n++] = gram(MARK, MARK, c);
+                if (i + 1 < len) out[n++] = gram(MARK, c, value.charAt(i + 1));
+            }
+        }
+        long[] grams = Arrays.copyOf(out, n);
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) grams[distinct++] = grams[i];
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private static long gram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    // Keeps rows present in both acc[0..n) and p, compacting into acc; returns the new length.
+    private static int intersect(int[] acc, int n, Postings p) {
+        int out = 0;
+        int j = 0;
+        for (int i = 0; i < n && j < p.size; ) {
+            if (acc[i] < p.rows[j]) i++;
+            else if (acc[i] > p.rows[j]) j++;
+            else {
+                acc[out++] = acc[i];
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    /** Sorted, duplicate-free growable list of rows. */
+    private static final class Postings {
+        static final Postings EMPTY = new Postings();
+
+        int[] rows = new int[4];
+        int size;
+
+        void add(int row) {
+            // Bulk loads append rows in ascending order.
+            if (size == 0 || rows[size - 1] < row) {
+                if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+                rows[size++] = row;
+                return;
+            }
+            int at = Arrays.binarySearch(rows, 0, size, row);
+            if (at >= 0) return;
+            at = -at - 1;
+            if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+            System.arraycopy(rows, at, rows, at + 1, size - at);
+            rows[at] = row;
+            size++;
+        }
+
+        void remove(int row) {
+            int at = Arrays.binarySearch(rows, 0, size, row);
+            if (at < 0) return;
+            System.arraycopy(rows, at + 1, rows, at, size - at - 1);
+            size--;
+        }
+    }
+
+    private record Match(int row, String value, int tier, double similarity) implements Comparable<Match> {
+        @Override
+        public int compareTo(Match o) {
+            if (tier != o.tier) return Integer.compare(tier, o.tier);
+            if (similarity != o.similarity) return Double.compare(similarity, o.similarity);
+            if (value.length() != o.value.length()) return Integer.compare(o.value.length(), value.length());
+            return o.value.compareTo(value);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dk.ek.setlistgpt.stats;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Maintained per-profile counters for the admin dashboard (see StatsService), so the
+ * dashboard reads one row per profile instead of running COUNT subqueries.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "profile_stats")
+public class ProfileStats {
+    @Id
+    @Column(name = "profile_id")
+    private Long profileId;
+
+    private long repertoires;
+
+    // Songs in repertoires owned by the profile.
+    private long songs;
+
+    private long setlists;
+}
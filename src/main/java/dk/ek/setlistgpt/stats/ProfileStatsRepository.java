@@ -0,0 +1,36 @@
+package dk.ek.setlistgpt.stats;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+/** Spring Data JPA repository for ProfileStats; counters are only changed through relative updates. */
+public interface ProfileStatsRepository extends JpaRepository<ProfileStats, Long> {
+
+    @Modifying
+    @Query("update ProfileStats s set s.repertoires = s.repertoires + :repertoires, s.songs = s.songs + :songs, "
+            + "s.setlists = s.setlists + :setlists where s.profileId = :profileId")
+    int add(Long profileId, long repertoires, long songs, long setlists);
+
+    // Recount of one profile (or all with profileId null) from the source tables. An upsert, so
+    // a row inserted concurrently is overwritten instead of failing (and rolling back) the caller.
+    @Modifying(clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+           insert into profile_stats (profile_id, repertoires, songs, setlists)
+           select p.id,
+                  (select count(*) from repertoires r where r.owner_id = p.id),
+                  (select count(*) from songs s join repertoires rep on rep.id = s.repertoire_id
+                    where rep.owner_id = p.id),
+                  (select count(*) from setlists sl where sl.owner_id = p.id)
+           from profiles p
+           where :profileId is null or p.id = :profileId
+           on duplicate key update repertoires = values(repertoires), songs = values(songs),
+                                   setlists = values(setlists)
+           """)
+    int recount(Long profileId);
+
+    // Rows left behind by profiles removed outside StatsService.profileDeleted.
+    @Modifying
+    @Query("delete from ProfileStats s where not exists (select p from Profile p where p.id = s.profileId)")
+    int deleteOrphans();
+}
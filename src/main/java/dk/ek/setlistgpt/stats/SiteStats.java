@@ -0,0 +1,31 @@
+package dk.ek.setlistgpt.stats;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Maintained global totals (a single row, id 1). Unlike the sum of ProfileStats these include
+ * ownerless repertoires, songs and guest setlists.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "site_stats")
+public class SiteStats {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id = ID;
+
+    private long profiles;
+    private long admins;
+    private long musicians;
+    private long repertoires;
+    private long songs;
+    private long setlists;
+}
@@ -0,0 +1,111 @@
+package dk.ek.setlistgpt.stats;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Global repertoire, song and setlist totals from committed StatsDeltas, summed in memory and
+ * added to the single site_stats row every flush-interval. Setlist builds and imports then never
+ * queue on that row's lock; StatsService.totals() adds what is still pending. A crash loses at
+ * most one interval of changes, which the next rebuild corrects.
+ */
+@Component
+public class SiteStatsBuffer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SiteStatsBuffer.class);
+
+    // Below the setlist write-behind (DEFAULT_PHASE - 4096), whose final drain still adds setlists.
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 8192;
+
+    private static final int REPERTOIRES = 0;
+    private static final int SONGS = 1;
+    private static final int SETLISTS = 2;
+
+    private final SiteStatsRepository siteStats;
+    private final Duration flushInterval;
+    private final AtomicLongArray pending = new AtomicLongArray(3);
+    private ScheduledExecutorService scheduler;
+
+    public SiteStatsBuffer(SiteStatsRepository siteStats,
+                           @Value("${app.admin.stats.flush-interval:2s}") Duration flushInterval) {
+        this.siteStats = siteStats;
+        this.flushInterval = flushInterval;
+    }
+
+    public void add(long repertoires, long songs, long setlists) {
+        if (repertoires != 0) pending.addAndGet(REPERTOIRES, repertoires);
+        if (songs != 0) pending.addAndGet(SONGS, songs);
+        if (setlists != 0) pending.addAndGet(SETLISTS, setlists);
+    }
+
+    /** The stored row plus the changes not yet written to it. */
+    public SiteStats withPending(SiteStats row) {
+        return new SiteStats(row.getId(), row.getProfiles(), row.getAdmins(), row.getMusicians(),
+                row.getRepertoires() + pending.get(REPERTOIRES),
+                row.getSongs() + pending.get(SONGS),
+                row.getSetlists() + pending.get(SETLISTS));
+    }
+
+    /** Drops pending changes; a recount from the source tables already includes them. */
+    public void discard() {
+        for (int i = 0; i < pending.length(); i++) pending.set(i, 0);
+    }
+
+    /** Writes the pending changes to the row; on failure they stay pending for the next flush. */
+    public void flush() {
+        long repertoires = pending.getAndSet(REPERTOIRES, 0);
+        long songs = pending.getAndSet(SONGS, 0);
+        long setlists = pending.getAndSet(SETLISTS, 0);
+        if (repertoires == 0 && songs == 0 && setlists == 0) return;
+        try {
+            siteStats.add(0, 0, 0, repertoires, songs, setlists);
+        } catch (RuntimeException e) {
+            add(repertoires, songs, setlists);
+            log.warn("Site statistics flush failed, retrying next interval: {}", e.getMessage());
+        }
+    }
+
+    // -------------------- Lifecycle --------------------
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "site-stats-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1, flushInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
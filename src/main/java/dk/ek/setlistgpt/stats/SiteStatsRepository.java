@@ -0,0 +1,45 @@
+package dk.ek.setlistgpt.stats;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Spring Data JPA repository for the single SiteStats row. */
+public interface SiteStatsRepository extends JpaRepository<SiteStats, Integer> {
+
+    // add() only updates, so the row has to exist first; leaves an existing row untouched.
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+           insert into site_stats (id, profiles, admins, musicians, repertoires, songs, setlists)
+           values (1, 0, 0, 0, 0, 0, 0)
+           on duplicate key update id = id
+           """)
+    int createRow();
+
+    // Joins the caller's transaction; SiteStatsBuffer calls it without one.
+    @Transactional
+    @Modifying
+    @Query("update SiteStats s set s.profiles = s.profiles + :profiles, s.admins = s.admins + :admins, "
+            + "s.musicians = s.musicians + :musicians, s.repertoires = s.repertoires + :repertoires, "
+            + "s.songs = s.songs + :songs, s.setlists = s.setlists + :setlists where s.id = 1")
+    int add(long profiles, long admins, long musicians, long repertoires, long songs, long setlists);
+
+    // Recount from the source tables in one statement, inserting the row if it is missing.
+    @Modifying(clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+           insert into site_stats (id, profiles, admins, musicians, repertoires, songs, setlists)
+           select 1,
+                  (select count(*) from profiles),
+                  (select count(*) from profiles where type = 'ADMIN'),
+                  (select count(*) from profiles where type = 'MUSICIAN'),
+                  (select count(*) from repertoires),
+                  (select count(*) from songs),
+                  (select count(*) from setlists)
+           on duplicate key update profiles = values(profiles), admins = values(admins),
+                                   musicians = values(musicians), repertoires = values(repertoires),
+                                   songs = values(songs), setlists = values(setlists)
+           """)
+    int recount();
+}
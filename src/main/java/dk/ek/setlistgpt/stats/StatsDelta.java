@@ -0,0 +1,29 @@
+package dk.ek.setlistgpt.stats;
+
+/**
+ * Published next to the writes that change dashboard counters; StatsService applies it in the
+ * publishing transaction. ownerId is null for ownerless data, which only moves the global totals.
+ * countsGlobally is false when existing rows only change owner (a loose song joining a repertoire).
+ */
+public record StatsDelta(Long ownerId, int repertoires, int songs, int setlists, boolean countsGlobally) {
+
+    public static StatsDelta repertoireCreated(Long ownerId, int songs) {
+        return new StatsDelta(ownerId, 1, songs, 0, true);
+    }
+
+    public static StatsDelta songsCreated(Long ownerId, int n) {
+        return new StatsDelta(ownerId, 0, n, 0, true);
+    }
+
+    public static StatsDelta songAttached(Long ownerId) {
+        return new StatsDelta(ownerId, 0, 1, 0, false);
+    }
+
+    public static StatsDelta songDeleted(Long ownerId) {
+        return new StatsDelta(ownerId, 0, -1, 0, true);
+    }
+
+    public static StatsDelta setlistCreated(Long ownerId) {
+        return new StatsDelta(ownerId, 0, 0, 1, true);
+    }
+}
@@ -0,0 +1,117 @@
+package dk.ek.setlistgpt.stats;
+
+import dk.ek.setlistgpt.profile.Profile;
+import dk.ek.setlistgpt.profile.ProfileType;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps ProfileStats and SiteStats current. Per-profile writes join the caller's transaction, so
+ * a rolled back change never moves a counter; the global totals of a StatsDelta are buffered
+ * after commit (see SiteStatsBuffer) so concurrent writers do not queue on the one site row. A full recount from the source tables runs once at startup
+ * (rows written while counters did not exist, seed data) and on demand from the admin API.
+ * Recounts overwrite rows in place with upserts, so they never delete a counter a concurrent
+ * delta is about to update or collide with one it is inserting.
+ */
+@Service
+public class StatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatsService.class);
+
+    private final ProfileStatsRepository profileStats;
+    private final SiteStatsRepository siteStats;
+    private final SiteStatsBuffer siteBuffer;
+    private final boolean rebuildOnStartup;
+
+    public StatsService(ProfileStatsRepository profileStats,
+                        SiteStatsRepository siteStats,
+                        SiteStatsBuffer siteBuffer,
+                        @Value("${app.admin.stats.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.profileStats = profileStats;
+        this.siteStats = siteStats;
+        this.siteBuffer = siteBuffer;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    // Before any bean can record a change (ProfileService seeds the admin in its @PostConstruct).
+    @PostConstruct
+    public void createSiteRow() {
+        siteStats.createRow();
+    }
+
+    // Synchronous listener: runs inside the publisher's transaction when there is one.
+    @EventListener
+    @Transactional
+    public void onDelta(StatsDelta d) {
+        if (d.ownerId() != null
+                && profileStats.add(d.ownerId(), d.repertoires(), d.songs(), d.setlists()) == 0) {
+            // No counter row yet (profile predates the table): count it from scratch instead.
+            profileStats.recount(d.ownerId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeltaCommitted(StatsDelta d) {
+        if (d.countsGlobally()) siteBuffer.add(d.repertoires(), d.songs(), d.setlists());
+    }
+
+    @Transactional
+    public void profileCreated(Profile p) {
+        profileStats.save(new ProfileStats(p.getId(), 0, 0, 0));
+        siteStats.add(1, p.getType() == ProfileType.ADMIN ? 1 : 0, p.getType() == ProfileType.MUSICIAN ? 1 : 0, 0, 0, 0);
+    }
+
+    @Transactional
+    public void profileTypeChanged(ProfileType from, ProfileType to) {
+        if (from == to) return;
+        int admins = (to == ProfileType.ADMIN ? 1 : 0) - (from == ProfileType.ADMIN ? 1 : 0);
+        int musicians = (to == ProfileType.MUSICIAN ? 1 : 0) - (from == ProfileType.MUSICIAN ? 1 : 0);
+        siteStats.add(0, admins, musicians, 0, 0, 0);
+    }
+
+    // Call before deleting the profile; its repertoires and setlists go with it (or the delete fails).
+    @Transactional
+    public void profileDeleted(Profile p) {
+        ProfileStats own = profileStats.findById(p.getId()).orElse(null);
+        siteStats.add(-1,
+                p.getType() == ProfileType.ADMIN ? -1 : 0,
+                p.getType() == ProfileType.MUSICIAN ? -1 : 0,
+                own == null ? 0 : -own.getRepertoires(),
+                own == null ? 0 : -own.getSongs(),
+                own == null ? 0 : -own.getSetlists());
+        if (own != null) profileStats.delete(own);
+    }
+
+    @Transactional(readOnly = true)
+    public SiteStats totals() {
+        return siteBuffer.withPending(siteStats.findById(SiteStats.ID).orElseGet(SiteStats::new));
+    }
+
+    /** Recounts every counter from the source tables. */
+    @Transactional
+    public SiteStats rebuild() {
+        siteBuffer.discard();
+        profileStats.recount(null);
+        profileStats.deleteOrphans();
+        siteStats.recount();
+        return siteStats.findById(SiteStats.ID).orElseThrow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildOnStartup() {
+        if (!rebuildOnStartup) return;
+        long start = System.nanoTime();
+        SiteStats totals = rebuild();
+        log.info("Admin statistics rebuilt in {} ms: {} profiles, {} repertoires, {} songs, {} setlists",
+                (System.nanoTime() - start) / 1_000_000, totals.getProfiles(), totals.getRepertoires(),
+                totals.getSongs(), totals.getSetlists());
+    }
+}
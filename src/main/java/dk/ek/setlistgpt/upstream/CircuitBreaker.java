@@ -0,0 +1,103 @@
+package dk.ek.setlistgpt.upstream;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker. CLOSED lets every call through and opens after
+ * failureThreshold failures in a row; OPEN rejects calls until openDuration has passed, then
+ * HALF_OPEN admits up to halfOpenProbes trial calls. A successful probe closes the circuit,
+ * a failed one opens it again.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock.
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private int probesInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openNanos, int halfOpenProbes) {
+        this(failureThreshold, openNanos, halfOpenProbes, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, long openNanos, int halfOpenProbes, LongSupplier nanoClock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = Math.max(0, openNanos);
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.nanoClock = nanoClock;
+    }
+
+    /** Whether a call may go out now; every true must be followed by one on* callback. */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAt < openNanos) return false;
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight >= halfOpenProbes) return false;
+                probesInFlight++;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            consecutiveFailures = 0;
+            if (state == State.HALF_OPEN) {
+                state = State.CLOSED;
+                probesInFlight = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = nanoClock.getAsLong();
+                consecutiveFailures = 0;
+                probesInFlight = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The call ended without a verdict (cancelled); frees its probe slot. */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && probesInFlight > 0) probesInFlight--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
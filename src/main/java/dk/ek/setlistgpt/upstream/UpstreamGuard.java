@@ -0,0 +1,146 @@
+package dk.ek.setlistgpt.upstream;
+
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Resilience policy for one upstream API, applied around each reactive call:
+ * <ul>
+ *   <li>bulkhead: at most maxConcurrent attempts in flight, extra attempts fail fast;</li>
+ *   <li>circuit breaker: transient failures (timeouts, connect errors, 5xx, 429) count
+ *       against it, 4xx answers count as the upstream being healthy;</li>
+ *   <li>per-attempt timeout, then retries of transient failures with jittered backoff;</li>
+ *   <li>optional hedging: if an attempt has no answer after hedgeDelay a second one is raced
+ *       against it and the first value wins. Only for idempotent, cheap requests.</li>
+ * </ul>
+ * Rejections surface as {@link UpstreamUnavailableException} and are not retried.
+ */
+public class UpstreamGuard {
+
+    private final UpstreamSettings settings;
+    private final CircuitBreaker breaker;
+    private final Semaphore bulkhead;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public UpstreamGuard(UpstreamSettings settings) {
+        this.settings = settings;
+        this.breaker = new CircuitBreaker(settings.failureThreshold(), settings.openDuration().toNanos(),
+                settings.halfOpenProbes());
+        this.bulkhead = new Semaphore(Math.max(1, settings.maxConcurrent()));
+    }
+
+    public String name() {
+        return settings.name();
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return breaker.state();
+    }
+
+    public int inFlight() {
+        return Math.max(1, settings.maxConcurrent()) - bulkhead.availablePermits();
+    }
+
+    /** Calls rejected by the open circuit or the full bulkhead. */
+    public long rejected() {
+        return rejected.get();
+    }
+
+    /** Single-response call with timeout, hedging and retries. */
+    public <T> Mono<T> call(Supplier<Mono<T>> request) {
+        Mono<T> guarded = hedged(request);
+        if (settings.retries() <= 0) return guarded;
+        return guarded.retryWhen(Retry.backoff(settings.retries(), settings.retryBackoff())
+                .jitter(0.5)
+                .filter(UpstreamGuard::isTransient)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Streaming call: bulkhead and breaker only. The bulkhead permit is held until the stream
+     * ends; the connector's read timeout bounds gaps between chunks.
+     */
+    public <T> Flux<T> stream(Supplier<Flux<T>> request) {
+        return Flux.defer(() -> {
+            RuntimeException rejection = admit();
+            if (rejection != null) return Flux.error(rejection);
+            return Flux.defer(request)
+                    .doOnComplete(breaker::onSuccess)
+                    .doOnError(this::record)
+                    .doOnCancel(breaker::onIgnored)
+                    .doFinally(signal -> bulkhead.release());
+        });
+    }
+
+    private <T> Mono<T> hedged(Supplier<Mono<T>> request) {
+        if (settings.hedgeDelay().isZero() || settings.hedgeDelay().isNegative()) return attempt(request);
+        return Mono.defer(() -> {
+            Sinks.One<Boolean> primaryDone = Sinks.one();
+            Mono<T> primary = attempt(request).doFinally(signal -> primaryDone.tryEmitValue(true));
+            // The hedge only starts while the primary is still running; once it has failed the
+            // hedge completes empty at once, so the failure is not delayed by hedgeDelay.
+            Mono<T> hedge = Mono.delay(settings.hedgeDelay())
+                    .takeUntilOther(primaryDone.asMono())
+                    .flatMap(tick -> attempt(request));
+            return Mono.firstWithValue(primary, hedge)
+                    .onErrorMap(NoSuchElementException.class, UpstreamGuard::firstSuppressed);
+        });
+    }
+
+    private <T> Mono<T> attempt(Supplier<Mono<T>> request) {
+        return Mono.defer(() -> {
+            RuntimeException rejection = admit();
+            if (rejection != null) return Mono.error(rejection);
+            return Mono.defer(request)
+                    .timeout(settings.attemptTimeout())
+                    .doOnSuccess(value -> breaker.onSuccess())
+                    .doOnError(this::record)
+                    .doOnCancel(breaker::onIgnored)
+                    .doFinally(signal -> bulkhead.release());
+        });
+    }
+
+    // Takes a breaker slot and a bulkhead permit, or returns why the call is rejected.
+    private RuntimeException admit() {
+        if (!breaker.tryAcquire()) {
+            rejected.incrementAndGet();
+            return new UpstreamUnavailableException(settings.name(), "circuit open");
+        }
+        if (!bulkhead.tryAcquire()) {
+            breaker.onIgnored();
+            rejected.incrementAndGet();
+            return new UpstreamUnavailableException(settings.name(), "too many concurrent calls");
+        }
+        return null;
+    }
+
+    private void record(Throwable e) {
+        if (isTransient(e)) breaker.onFailure();
+        else breaker.onSuccess();
+    }
+
+    /** Failures worth retrying and counting against the breaker. */
+    public static boolean isTransient(Throwable e) {
+        if (e instanceof TimeoutException || e instanceof WebClientRequestException) return true;
+        if (e instanceof WebClientResponseException r) {
+            return r.getStatusCode().is5xxServerError() || r.getStatusCode().value() == 429;
+        }
+        return false;
+    }
+
+    // firstWithValue reports "all sources failed" as NoSuchElementException with the causes suppressed.
+    private static Throwable firstSuppressed(NoSuchElementException e) {
+        Throwable[] causes = e.getSuppressed();
+        return causes.length > 0 ? causes[0] : e;
+    }
+}
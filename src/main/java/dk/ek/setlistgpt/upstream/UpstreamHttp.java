@@ -0,0 +1,32 @@
+package dk.ek.setlistgpt.upstream;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/** Reactor Netty connectors with a dedicated, bounded connection pool per upstream. */
+public final class UpstreamHttp {
+
+    private UpstreamHttp() {
+    }
+
+    /**
+     * Connect timeout on the socket, read timeout as the longest gap between reads of a
+     * response (so long streamed responses stay alive while data flows), and waits for a
+     * pooled connection bounded by the attempt timeout.
+     */
+    public static ReactorClientHttpConnector connector(UpstreamSettings s) {
+        ConnectionProvider pool = ConnectionProvider.builder(s.name())
+                .maxConnections(Math.max(1, s.maxConnections()))
+                .pendingAcquireTimeout(s.attemptTimeout())
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient http = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) Math.min(Integer.MAX_VALUE, s.connectTimeout().toMillis()))
+                .responseTimeout(s.readTimeout());
+        return new ReactorClientHttpConnector(http);
+    }
+}
@@ -0,0 +1,64 @@
+package dk.ek.setlistgpt.upstream;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Outbound call timing ("upstream.requests", tagged upstream, operation and outcome) and the
+ * guard's own state as meters. The timer covers the guarded call as the caller sees it:
+ * hedges, retries and rejections included.
+ */
+public final class UpstreamMetrics {
+
+    private UpstreamMetrics() {
+    }
+
+    public static <T> Mono<T> timed(Mono<T> call, MeterRegistry registry, String upstream, String operation) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return call.doFinally(signal -> stop(sample, registry, upstream, operation, signal));
+        });
+    }
+
+    /** Times a stream from subscription until it completes, fails or is cancelled. */
+    public static <T> Flux<T> timed(Flux<T> call, MeterRegistry registry, String upstream, String operation) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return call.doFinally(signal -> stop(sample, registry, upstream, operation, signal));
+        });
+    }
+
+    /** Circuit state (0 closed, 1 open, 2 half open), bulkhead usage and rejections of one guard. */
+    public static void bind(UpstreamGuard guard, MeterRegistry registry) {
+        Gauge.builder("upstream.circuit.state", guard, g -> g.circuitState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half open")
+                .tag("upstream", guard.name())
+                .register(registry);
+        Gauge.builder("upstream.in.flight", guard, UpstreamGuard::inFlight)
+                .tag("upstream", guard.name())
+                .register(registry);
+        FunctionCounter.builder("upstream.rejected", guard, UpstreamGuard::rejected)
+                .description("Calls refused by the open circuit or the full bulkhead")
+                .tag("upstream", guard.name())
+                .register(registry);
+    }
+
+    private static void stop(Timer.Sample sample, MeterRegistry registry, String upstream, String operation,
+                             SignalType signal) {
+        String outcome = switch (signal) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            default -> "cancelled";
+        };
+        sample.stop(Timer.builder("upstream.requests")
+                .tag("upstream", upstream)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+}
@@ -0,0 +1,40 @@
+package dk.ek.setlistgpt.upstream;
+
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Resilience settings of one upstream API, read from app.upstream.&lt;name&gt;.* with the
+ * defaults below. A zero hedge-delay disables hedging; zero retries disables retrying.
+ */
+public record UpstreamSettings(String name,
+                               Duration connectTimeout,
+                               Duration readTimeout,
+                               int maxConnections,
+                               int maxConcurrent,
+                               Duration attemptTimeout,
+                               int retries,
+                               Duration retryBackoff,
+                               Duration hedgeDelay,
+                               int failureThreshold,
+                               Duration openDuration,
+                               int halfOpenProbes) {
+
+    public static UpstreamSettings from(Environment env, String name) {
+        String p = "app.upstream." + name + ".";
+        return new UpstreamSettings(
+                name,
+                env.getProperty(p + "connect-timeout", Duration.class, Duration.ofSeconds(2)),
+                env.getProperty(p + "read-timeout", Duration.class, Duration.ofSeconds(10)),
+                env.getProperty(p + "max-connections", Integer.class, 50),
+                env.getProperty(p + "max-concurrent", Integer.class, 16),
+                env.getProperty(p + "attempt-timeout", Duration.class, Duration.ofSeconds(10)),
+                env.getProperty(p + "retries", Integer.class, 2),
+                env.getProperty(p + "retry-backoff", Duration.class, Duration.ofMillis(200)),
+                env.getProperty(p + "hedge-delay", Duration.class, Duration.ZERO),
+                env.getProperty(p + "breaker.failure-threshold", Integer.class, 5),
+                env.getProperty(p + "breaker.open-duration", Duration.class, Duration.ofSeconds(30)),
+                env.getProperty(p + "breaker.half-open-probes", Integer.class, 1));
+    }
+}
@@ -0,0 +1,16 @@
+package dk.ek.setlistgpt.upstream;
+
+/** Call rejected locally without reaching the upstream: circuit open or bulkhead full. */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private final String upstream;
+
+    public UpstreamUnavailableException(String upstream, String reason) {
+        super(upstream + " unavailable: " + reason);
+        this.upstream = upstream;
+    }
+
+    public String getUpstream() {
+        return upstream;
+    }
+}
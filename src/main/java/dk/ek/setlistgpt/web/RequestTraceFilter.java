@@ -0,0 +1,93 @@
+package dk.ek.setlistgpt.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sampled request tracing and per-request debug logging. A sampled request gets a traceId in the
+ * MDC and one summary line (method, path, status, duration) when it completes; all others pass
+ * straight through with no logging work at all.
+ *
+ * A request carrying the debug header (matching app.logging.debug-token when one is set) is
+ * always traced and runs with debug=on in the MDC, which the turbo filter in logback-spring.xml
+ * turns into DEBUG output for that request only: security decisions, SQL, CsrfDebugFilter.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestTraceFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestTraceFilter.class);
+
+    public static final String TRACE_ID = "traceId";
+    public static final String DEBUG = "debug";
+    private static final String DEBUG_ATTRIBUTE = RequestTraceFilter.class.getName() + ".debug";
+
+    private final boolean debugHeaderEnabled;
+    private final String debugHeader;
+    private final byte[] debugToken;
+    private final double sampleRate;
+
+    public RequestTraceFilter(@Value("${app.logging.debug-header.enabled:true}") boolean debugHeaderEnabled,
+                              @Value("${app.logging.debug-header:X-Debug-Trace}") String debugHeader,
+                              @Value("${app.logging.debug-token:}") String debugToken,
+                              @Value("${app.logging.request-sample-rate:0.0}") double sampleRate) {
+        this.debugHeaderEnabled = debugHeaderEnabled;
+        this.debugHeader = debugHeader;
+        this.debugToken = debugToken.isBlank() ? null : debugToken.trim().getBytes(StandardCharsets.UTF_8);
+        this.sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+    }
+
+    /** True while the request opted in to debug logging through the header. */
+    public static boolean isDebug(HttpServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(DEBUG_ATTRIBUTE));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        boolean debug = debugHeaderEnabled && optedIn(request.getHeader(debugHeader));
+        if (!debug && (sampleRate == 0.0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String traceId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        MDC.put(TRACE_ID, traceId);
+        if (debug) {
+            MDC.put(DEBUG, "on");
+            request.setAttribute(DEBUG_ATTRIBUTE, Boolean.TRUE);
+            response.setHeader("X-Trace-Id", traceId);
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            log.info("{} {} -> {} in {} ms", request.getMethod(), request.getRequestURI(),
+                    response.getStatus(), (System.nanoTime() - start) / 1_000_000);
+            MDC.remove(DEBUG);
+            MDC.remove(TRACE_ID);
+        }
+    }
+
+    private boolean optedIn(String value) {
+        if (value == null || value.isBlank()) return false;
+        if (debugToken == null) return true;
+        return MessageDigest.isEqual(debugToken, value.trim().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -40,13 +40,7 @@ public class SpaController {
     // Serve the SPA for browser navigations (Accept: text/html)
     @GetMapping(value = "/api/login", produces = MediaType.TEXT_HTML_VALUE)
     public String getApiLoginHtml(HttpServletRequest request) {
-        String referer = request.getHeader("Referer");
-        String ua = request.getHeader("User-Agent");
-        String accept = request.getHeader("Accept");
-        String remote = request.getRemoteAddr();
-        String sessionId = (request.getSession(false) != null) ? request.getSession(false).getId() : null;
-        log.info("GET /api/login (html) - referer={} accept={} ua={} remote={} sessionId={}",
-                referer, accept, ua, remote, sessionId);
+        logLoginProbe("html", request);
 
         // Serve index so the SPA can handle routing client-side.
         return "index";
@@ -56,14 +50,7 @@ public class SpaController {
     @ResponseBody
     @GetMapping(value = "/api/login", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, Object>> getApiLoginJson(HttpServletRequest request) {
-        String referer = request.getHeader("Referer");
-        String ua = request.getHeader("User-Agent");
-        String accept = request.getHeader("Accept");
-        String remote = request.getRemoteAddr();
-        String sessionId = (request.getSession(false) != null) ? request.getSession(false).getId() : null;
-
-        log.info("GET /api/login (json) - referer={} accept={} ua={} remote={} sessionId={}",
-                referer, accept, ua, remote, sessionId);
+        logLoginProbe("json", request);
 
         Map<String, Object> body = Map.of(
                 "error", "method_not_allowed",
@@ -72,6 +59,15 @@ public class SpaController {
         return ResponseEntity.status(HttpStatus.METHOD_NOT_ALLOWED).body(body);
     }
 
+    // Request details are only gathered when DEBUG is on (globally or for a traced request).
+    private void logLoginProbe(String kind, HttpServletRequest request) {
+        if (!log.isDebugEnabled()) return;
+        String sessionId = (request.getSession(false) != null) ? request.getSession(false).getId() : null;
+        log.debug("GET /api/login ({}) - referer={} accept={} ua={} remote={} sessionId={}", kind,
+                request.getHeader("Referer"), request.getHeader("Accept"), request.getHeader("User-Agent"),
+                request.getRemoteAddr(), sessionId);
+    }
+
     // Keep only the JSON error handler to avoid conflicting with Spring Boot's BasicErrorController which
     // already provides an HTML error handler. API clients still receive JSON error payloads.
     @ResponseBody
@@ -53,15 +53,50 @@
         </div>`;
     }
 
+    // Profiles are listed one page per type; the pagers step through /api/admin/profiles.
+    const PAGE_SIZE = 100;
+    const LISTS = {
+        ADMIN: { list: 'adminsList', pager: 'adminsPager', empty: 'No admins.' },
+        MUSICIAN: { list: 'musiciansList', pager: 'musiciansPager', empty: 'No musicians.' }
+    };
+
+    function renderProfilePage(type, items, page, total) {
+        const cfg = LISTS[type];
+        $(cfg.list).innerHTML = (items && items.length) ? items.map(renderProfileRow).join('') : `<p>${cfg.empty}</p>`;
+        const pages = Math.max(1, Math.ceil((total ?? 0) / PAGE_SIZE));
+        const pagerEl = $(cfg.pager);
+        pagerEl.innerHTML = pages > 1
+            ? `<button class="page-btn" data-type="${type}" data-page="${page - 1}" ${page <= 0 ? 'disabled' : ''}>Previous</button>
+               Page ${page + 1} of ${pages} (${total})
+               <button class="page-btn" data-type="${type}" data-page="${page + 1}" ${page + 1 >= pages ? 'disabled' : ''}>Next</button>`
+            : '';
+        pagerEl.querySelectorAll('.page-btn').forEach(btn => {
+            btn.addEventListener('click', () => loadProfilePage(btn.dataset.type, Number(btn.dataset.page)));
+        });
+        attachProfileButtons($(cfg.list));
+    }
+
+    async function loadProfilePage(type, page) {
+        const listEl = $(LISTS[type].list);
+        listEl.textContent = 'Loading…';
+        try {
+            const dto = await fetchJson(`/api/admin/profiles?type=${type}&page=${page}&size=${PAGE_SIZE}`);
+            renderProfilePage(type, dto.items, dto.page, dto.total);
+        } catch (e) {
+            listEl.textContent = 'Failed to load.';
+            $('summaryArea').textContent = String(e);
+        }
+    }
+
     async function loadGrouped() {
         const adminsEl = $('adminsList'), musoEl = $('musiciansList'), sumEl = $('summaryArea');
         adminsEl.textContent = 'Loading…';
         musoEl.textContent = 'Loading…';
         sumEl.textContent = '';
         try {
-            const dto = await fetchJson('/api/admin/profiles/grouped');
-            adminsEl.innerHTML = (dto.admins && dto.admins.length) ? dto.admins.map(renderProfileRow).join('') : '<p>No admins.</p>';
-            musoEl.innerHTML = (dto.musicians && dto.musicians.length) ? dto.musicians.map(renderProfileRow).join('') : '<p>No musicians.</p>';
+            const dto = await fetchJson(`/api/admin/profiles/grouped?size=${PAGE_SIZE}`);
+            renderProfilePage('ADMIN', dto.admins, 0, dto.adminProfiles);
+            renderProfilePage('MUSICIAN', dto.musicians, 0, dto.musicianProfiles);
             const totals = [];
             if (dto.totalProfiles != null) totals.push(`Profiles: ${dto.totalProfiles}`);
             if (dto.repertoires != null) totals.push(`Repertoires: ${dto.repertoires}`);
@@ -69,7 +104,6 @@
             if (dto.setlists != null) totals.push(`Setlists: ${dto.setlists}`);
             if (dto.currentAdminName) totals.push(`You: ${escapeHtml(dto.currentAdminName)}`);
             sumEl.textContent = totals.join(' • ');
-            attachProfileButtons();
         } catch (e) {
             adminsEl.textContent = 'Failed to load.';
             musoEl.textContent = 'Failed to load.';
@@ -77,8 +111,8 @@
         }
     }
 
-    function attachProfileButtons() {
-        document.querySelectorAll('.profile-btn').forEach(btn => {
+    function attachProfileButtons(root) {
+        root.querySelectorAll('.profile-btn').forEach(btn => {
             btn.addEventListener('click', () => {
                 const id = btn.dataset.id;
                 if (id) loadProfileDetail(id);
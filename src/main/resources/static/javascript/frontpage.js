@@ -229,21 +229,7 @@ console.log('frontpage.js loaded');
         if (!results) return;
         status.textContent = `Loading repertoires for ${ownerName}...`;
         try {
-            // Ensure each repertoire has a songs array (fetch on demand)
-            const fetchPromises = repsForOwner.map(async (rep) => {
-                if (Array.isArray(rep.songs)) return rep;
-                try {
-                    const full = await fetchJson('/api/repertoires/' + encodeURIComponent(rep.id));
-                    rep.songs = Array.isArray(full.songs) ? full.songs : (full.songs || []);
-                } catch (e) {
-                    // if fetch fails, leave songs as empty array
-                    rep.songs = [];
-                }
-                return rep;
-            });
-            await Promise.all(fetchPromises);
-
-            // render repertorie list with song counts
+            // render repertorie list with song counts (summaries carry songCount; songs load on click)
             const rows = repsForOwner.map(r => {
                 const id = escapeHtml(r.id);
                 const title = escapeHtml(r.title || '(untitled)');
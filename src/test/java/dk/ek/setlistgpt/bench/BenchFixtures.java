@@ -0,0 +1,97 @@
+package dk.ek.setlistgpt.bench;
+
+import dk.ek.setlistgpt.setlist.GreedySetlistPacker;
+import dk.ek.setlistgpt.setlist.KnapsackSetlistPacker;
+import dk.ek.setlistgpt.setlist.MoodCalculator;
+import dk.ek.setlistgpt.setlist.SetlistCandidateGenerator;
+import dk.ek.setlistgpt.setlist.SetlistMetrics;
+import dk.ek.setlistgpt.setlist.SetlistSequencer;
+import dk.ek.setlistgpt.setlist.SetlistService;
+import dk.ek.setlistgpt.song.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic catalogs and Spring-free wiring of the setlist pipeline for the JMH benchmarks.
+ * Songs are generated deterministically from a seed so runs are comparable.
+ */
+final class BenchFixtures {
+
+    private static final String[] WORDS = {
+            "night", "fire", "river", "golden", "electric", "heart", "summer", "shadow", "city", "dream",
+            "blue", "wild", "midnight", "highway", "echo", "velvet", "thunder", "silver", "ocean", "neon"
+    };
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ra", "ton", "vel", "den", "sa", "ri", "mor", "bel", "quin"};
+
+    private BenchFixtures() {
+    }
+
+    static List<Song> songs(int count, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        SongGenre[] genres = SongGenre.values();
+        SongMood[] moods = SongMood.values();
+        // roughly 20 songs per artist
+        String[] artists = new String[Math.max(1, count / 20)];
+        for (int i = 0; i < artists.length; i++) {
+            artists[i] = (rnd.nextInt(3) == 0 ? "The " : "") + name(rnd) + " " + name(rnd);
+        }
+
+        List<Song> songs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean sparse = rnd.nextInt(10) == 0; // some songs lack mood/bpm like real data
+            songs.add(Song.builder()
+                    .id((long) i + 1)
+                    .title(WORDS[rnd.nextInt(WORDS.length)] + " " + WORDS[rnd.nextInt(WORDS.length)] + " " + i)
+                    .artist(artists[rnd.nextInt(artists.length)])
+                    .genre(genres[rnd.nextInt(genres.length)])
+                    .mood(sparse ? null : moods[rnd.nextInt(moods.length)])
+                    .bpm(sparse ? null : 60 + rnd.nextInt(120))
+                    .durationMinutes(1 + rnd.nextInt(7))
+                    .durationSeconds(rnd.nextInt(60))
+                    .build());
+        }
+        return songs;
+    }
+
+    // Read-only repository stand-in: only findAll()/count() are used by the benchmarked code.
+    static SongRepository songRepository(List<Song> songs) {
+        return (SongRepository) Proxy.newProxyInstance(
+                SongRepository.class.getClassLoader(),
+                new Class<?>[]{SongRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> songs;
+                    case "count" -> (long) songs.size();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "SongRepository(" + songs.size() + " synthetic songs)";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static SetlistService setlistService(SongRepository repo, SongCatalog catalog, MoodCalculator moodCalculator) {
+        return new SetlistService(
+                repo,
+                moodCalculator,
+                null, // setlist persistence is not benchmarked here
+                catalog,
+                event -> { },
+                List.of(new GreedySetlistPacker(), new KnapsackSetlistPacker(moodCalculator, 5000, 50)),
+                "optimal",
+                new SetlistSequencer(true, 5),
+                null, // nor the item writer
+                new SetlistCandidateGenerator(moodCalculator, new SetlistSequencer(true, 5), 0, 4, 0.35, 0.5),
+                new SetlistMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static String name(SplittableRandom rnd) {
+        StringBuilder sb = new StringBuilder();
+        int parts = 2 + rnd.nextInt(2);
+        for (int i = 0; i < parts; i++) sb.append(SYLLABLES[rnd.nextInt(SYLLABLES.length)]);
+        sb.setCharAt(0, Character.toUpperCase(sb.charAt(0)));
+        return sb.toString();
+    }
+}
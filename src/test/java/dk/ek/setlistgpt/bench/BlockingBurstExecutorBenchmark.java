@@ -0,0 +1,88 @@
+package dk.ek.setlistgpt.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Executor comparison behind spring.threads.virtual.enabled, without Tomcat, Spring MVC or a
+ * database: a burst of tasks shaped like a typical controller call here, i.e. a short
+ * lock-guarded section, a Thread.sleep standing in for a JDBC round trip and a Mono.delay
+ * unwrapped with block() standing in for a WebClient call. Runs them on a fixed pool the size of
+ * Tomcat's default 200 threads versus one virtual thread per task. It shows how each executor
+ * copes with blocking waits, not how fast real endpoints are. Score is the time to finish the
+ * whole burst; lower is better.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BlockingBurstExecutorBenchmark {
+
+    // Tomcat's server.tomcat.threads.max default.
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long JDBC_MILLIS = 10;
+    private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(20);
+
+    @Param({"200", "1000", "5000"})
+    public int concurrentRequests;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private final ReentrantLock catalogLock = new ReentrantLock();
+    private ExecutorService executor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            int id = i;
+            responses.add(executor.submit(() -> handle(id)));
+        }
+        int sum = 0;
+        for (Future<Integer> f : responses) sum += f.get();
+        return sum;
+    }
+
+    private int handle(int id) throws InterruptedException {
+        catalogLock.lock();
+        try {
+            id ^= 0x5f3759df;
+        } finally {
+            catalogLock.unlock();
+        }
+        Thread.sleep(JDBC_MILLIS);
+        return Mono.delay(UPSTREAM_LATENCY).thenReturn(id & 1).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(BlockingBurstExecutorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
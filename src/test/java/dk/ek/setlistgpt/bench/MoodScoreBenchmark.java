@@ -0,0 +1,85 @@
+package dk.ek.setlistgpt.bench;
+
+import dk.ek.setlistgpt.setlist.MoodCalculator;
+import dk.ek.setlistgpt.song.Song;
+import dk.ek.setlistgpt.song.SongMood;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mood scoring hot path: MoodCalculator.score and SongMood.compatibleWith over 1024 songs.
+ * Both read the precomputed mood masks/score table, so with -prof gc the
+ * gc.alloc.rate.norm of every benchmark here should stay at ~0 B/op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoodScoreBenchmark {
+
+    private static final int SONGS = 1024;
+
+    private final MoodCalculator calculator = new MoodCalculator();
+    private Song[] songs;
+    private SongMood[] moods;
+    private SongMood desired;
+    private Integer desiredBpm;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        SongMood[] all = SongMood.values();
+        songs = new Song[SONGS];
+        moods = new SongMood[SONGS];
+        for (int i = 0; i < SONGS; i++) {
+            // every 10th song has no mood/bpm to cover the fallback branches
+            boolean unknown = i % 10 == 0;
+            songs[i] = Song.builder()
+                    .id((long) i)
+                    .mood(unknown ? null : all[rnd.nextInt(all.length)])
+                    .bpm(unknown ? null : 60 + rnd.nextInt(120))
+                    .durationMinutes(3)
+                    .build();
+            moods[i] = all[rnd.nextInt(all.length)];
+        }
+        desired = SongMood.HAPPY;
+        desiredBpm = 120;
+    }
+
+    @Benchmark
+    public void scoreMoodAndBpm(Blackhole bh) {
+        for (Song s : songs) bh.consume(calculator.score(s, desired, desiredBpm));
+    }
+
+    @Benchmark
+    public void scoreMoodOnly(Blackhole bh) {
+        for (Song s : songs) bh.consume(calculator.score(s, desired, null));
+    }
+
+    @Benchmark
+    public int compatibleWith() {
+        int hits = 0;
+        for (int i = 1; i < SONGS; i++) {
+            if (moods[i].compatibleWith(moods[i - 1])) hits++;
+        }
+        return hits;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opts = new OptionsBuilder()
+                .include(MoodScoreBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opts).run();
+    }
+}
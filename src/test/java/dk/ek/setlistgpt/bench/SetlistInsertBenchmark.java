@@ -0,0 +1,93 @@
+package dk.ek.setlistgpt.bench;
+
+import dk.ek.setlistgpt.setlist.SetlistItemBatchWriter;
+import dk.ek.setlistgpt.song.Song;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert latency per saved setlist: one INSERT per item (what the IDENTITY-mapped cascade did)
+ * versus SetlistItemBatchWriter. Runs against in-memory H2, so there is no network round trip
+ * and the gap here is a lower bound of what a remote MySQL with rewriteBatchedStatements shows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetlistInsertBenchmark {
+
+    private static final String SINGLE_INSERT =
+            "insert into setlist_items (setlist_id, position_index, song_id, reused) values (?, ?, ?, ?)";
+
+    @Param({"10", "30", "100"})
+    public int setSize;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate tx;
+    private SetlistItemBatchWriter writer;
+    private List<Song> songs;
+    private long setlistId;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1", true);
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("drop table if exists setlist_items");
+        jdbc.execute("create table setlist_items ("
+                + "id bigint auto_increment primary key, "
+                + "setlist_id bigint, position_index int, song_id bigint, reused boolean)");
+        tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        writer = new SetlistItemBatchWriter(jdbc, 50);
+        songs = BenchFixtures.songs(setSize, 7);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        jdbc.execute("truncate table setlist_items");
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public int rowByRow() {
+        long id = ++setlistId;
+        return tx.execute(status -> {
+            int pos = 0;
+            for (Song s : songs) {
+                jdbc.update(SINGLE_INSERT, id, pos++, s.getId(), false);
+            }
+            return pos;
+        });
+    }
+
+    @Benchmark
+    public int batched() {
+        long id = ++setlistId;
+        return tx.execute(status -> writer.insertItems(id, songs));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opts = new OptionsBuilder()
+                .include(SetlistInsertBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opts).run();
+    }
+}
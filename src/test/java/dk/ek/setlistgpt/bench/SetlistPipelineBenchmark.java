@@ -0,0 +1,106 @@
+package dk.ek.setlistgpt.bench;
+
+import dk.ek.setlistgpt.setlist.MoodCalculator;
+import dk.ek.setlistgpt.setlist.PackingMode;
+import dk.ek.setlistgpt.setlist.SetlistCandidate;
+import dk.ek.setlistgpt.setlist.SetlistService;
+import dk.ek.setlistgpt.song.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regression baseline for the setlist build pipeline over synthetic catalogs of 1k, 100k and 1M songs.
+ * Each stage is measured on its own: filtering, packing (optimal and fast), reuse fill,
+ * mood scoring of the candidates and the song search endpoint.
+ *
+ * Run all benchmarks with: ./mvnw -Pbench test-compile exec:exec@jmh
+ * (throughput plus -prof gc allocation numbers; results in target/jmh-result.json).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class SetlistPipelineBenchmark {
+
+    private static final int TARGET_SECONDS = 45 * 60;
+
+    @Param({"1000", "100000", "1000000"})
+    public int catalogSize;
+
+    private final MoodCalculator moodCalculator = new MoodCalculator();
+    private SetlistService service;
+    private SongSearchController search;
+    private List<Song> candidates;
+    private List<Song> shortSet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Song> songs = BenchFixtures.songs(catalogSize, 42);
+        SongRepository repo = BenchFixtures.songRepository(songs);
+        SongCatalog catalog = new SongCatalog(repo);
+        service = BenchFixtures.setlistService(repo, catalog, moodCalculator);
+        search = new SongSearchController(catalog);
+
+        // first query loads the catalog, so loading stays out of the measurements
+        candidates = service.filterSongsByCriteria(null, null, "rock", null, "happy");
+        shortSet = candidates.subList(0, Math.min(5, candidates.size()));
+    }
+
+    @Benchmark
+    public List<Song> filterSongsByCriteria() {
+        return service.filterSongsByCriteria(null, null, "rock", null, "happy");
+    }
+
+    @Benchmark
+    public List<Song> filterSongsByArtist() {
+        return service.filterSongsByCriteria(null, "the ka", null, null, null);
+    }
+
+    @Benchmark
+    public List<Song> buildSetList() {
+        return service.packSetList(candidates, TARGET_SECONDS, "happy", 120, PackingMode.OPTIMAL).songs();
+    }
+
+    @Benchmark
+    public List<Song> buildSetListFast() {
+        return service.packSetList(candidates, TARGET_SECONDS, "happy", 120, PackingMode.FAST).songs();
+    }
+
+    @Benchmark
+    public List<SetlistCandidate> buildCandidates() {
+        return service.buildCandidates(candidates, TARGET_SECONDS, "happy", 120, PackingMode.OPTIMAL, false, 5, 42L);
+    }
+
+    @Benchmark
+    public List<Song> fillSetWithReusedSongs() {
+        return service.fillSetWithReusedSongs(shortSet, TARGET_SECONDS, true, "happy", 120);
+    }
+
+    @Benchmark
+    public void moodScore(Blackhole bh) {
+        for (Song s : candidates) bh.consume(moodCalculator.score(s, SongMood.HAPPY, 120));
+    }
+
+    @Benchmark
+    public List<SongDto> search() {
+        return search.search("the", "rock", "happy");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opts = new OptionsBuilder()
+                .include(SetlistPipelineBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opts).run();
+    }
+}
@@ -0,0 +1,57 @@
+package dk.ek.setlistgpt.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dk.ek.setlistgpt.profile.CurrentProfile;
+import dk.ek.setlistgpt.profile.Profile;
+import dk.ek.setlistgpt.profile.ProfileType;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/** Access and content negotiation checks of ExportController. */
+class ExportControllerTest {
+
+    private final ExportService exportService = mock(ExportService.class);
+    private final ExportController controller = new ExportController(exportService, new ObjectMapper());
+
+    private static MockHttpServletRequest as(long id, ProfileType type) {
+        Profile p = new Profile();
+        p.setId(id);
+        p.setType(type);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/export/songs");
+        request.setAttribute(CurrentProfile.REQUEST_ATTRIBUTE, p);
+        return request;
+    }
+
+    @Test
+    void onlyAdminsMayExportAnotherProfile() {
+        assertEquals(HttpStatus.FORBIDDEN,
+                controller.export("songs", null, 8L, null, as(7L, ProfileType.MUSICIAN)).getStatusCode());
+        verifyNoInteractions(exportService);
+        assertEquals(HttpStatus.OK,
+                controller.export("songs", null, 7L, null, as(7L, ProfileType.MUSICIAN)).getStatusCode());
+        assertEquals(HttpStatus.OK,
+                controller.export("songs", null, 8L, null, as(1L, ProfileType.ADMIN)).getStatusCode());
+    }
+
+    @Test
+    void gzipIsUsedOnlyWithANonZeroWeight() {
+        assertTrue(ExportController.acceptsGzip("gzip, deflate, br"));
+        assertTrue(ExportController.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(ExportController.acceptsGzip("*"));
+        assertFalse(ExportController.acceptsGzip(null));
+        assertFalse(ExportController.acceptsGzip("identity"));
+        assertFalse(ExportController.acceptsGzip("gzip;q=0"));
+        assertFalse(ExportController.acceptsGzip("gzip; q=0.000, deflate"));
+        assertFalse(ExportController.acceptsGzip("*;q=1, gzip;q=0"));
+        assertFalse(ExportController.acceptsGzip("*;q=0"));
+
+        var response = controller.export("songs", "csv", null, "gzip;q=0", as(7L, ProfileType.MUSICIAN));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+}
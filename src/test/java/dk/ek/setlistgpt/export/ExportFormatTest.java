@@ -0,0 +1,60 @@
+package dk.ek.setlistgpt.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dk.ek.setlistgpt.song.Song;
+import dk.ek.setlistgpt.song.SongGenre;
+import dk.ek.setlistgpt.song.SongImportParser;
+import dk.ek.setlistgpt.song.SongMood;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** CSV writing of exports, and reading a song export back through the bulk import parser. */
+class ExportFormatTest {
+
+    private static String csvLine(Object... values) throws IOException {
+        StringWriter w = new StringWriter();
+        ExportFormat.writeCsvLine(w, values);
+        return w.toString();
+    }
+
+    @Test
+    void fieldsAreQuotedOnlyWhenNeeded() throws IOException {
+        assertEquals("a,b c,17,ROCK\r\n", csvLine("a", "b c", 17, SongGenre.ROCK));
+        assertEquals("\"Hello, Goodbye\",\"The \"\"Real\"\" One\"\r\n", csvLine("Hello, Goodbye", "The \"Real\" One"));
+        assertEquals("\"two\nlines\",\"cr\r\"\r\n", csvLine("two\nlines", "cr\r"));
+        assertEquals(",x,\r\n", csvLine(null, "x", null));
+    }
+
+    @Test
+    void songExportReadsBackThroughTheImportParser() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportFormat.RowWriter writer = ExportFormat.CSV.open(out, new ObjectMapper(), SongExportRow.HEADER);
+        writer.write(new SongExportRow(1L, "Covers, vol. 1", 10L, "The \"Real\" Slim Shady", "Eminem",
+                SongGenre.HIP_HOP, 104, SongMood.HAPPY, 4, 44));
+        writer.write(new SongExportRow(1L, "Covers, vol. 1", 11L, "Line one\nline two", "X", null, null, null, 3, 5));
+        writer.flush();
+
+        try (SongImportParser parser = SongImportParser.csv(new StringReader(out.toString(StandardCharsets.UTF_8)))) {
+            Song first = parser.next().data().toSong();
+            assertEquals("The \"Real\" Slim Shady", first.getTitle());
+            assertEquals("Eminem", first.getArtist());
+            assertEquals(SongGenre.HIP_HOP, first.getGenre());
+            assertEquals(104, first.getBpm());
+            assertEquals(SongMood.HAPPY, first.getMood());
+            assertEquals(4, first.getDurationMinutes());
+            assertEquals(44, first.getDurationSeconds());
+
+            SongImportParser.Row second = parser.next();
+            assertEquals(3L, second.line());
+            assertEquals("Line one\nline two", second.data().toSong().getTitle());
+            assertNull(parser.next());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package dk.ek.setlistgpt.export;
+
+import dk.ek.setlistgpt.profile.Profile;
+import dk.ek.setlistgpt.setlist.Setlist;
+import dk.ek.setlistgpt.setlist.SetlistItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Export queries on the embedded test database. */
+@DataJpaTest
+@Import(ExportService.class)
+class ExportServiceTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Test
+    void emptySetlistsAreExportedAsOneRow() {
+        Profile owner = em.persist(Profile.builder().name("ada").password("x").build());
+        Setlist empty = new Setlist();
+        empty.setTitle("empty");
+        empty.setOwner(owner);
+        empty.setCreatedAt(LocalDateTime.of(2026, 1, 2, 0, 0));
+        em.persist(empty);
+        Setlist played = new Setlist();
+        played.setTitle("played");
+        played.setOwner(owner);
+        played.setCreatedAt(LocalDateTime.of(2026, 1, 1, 0, 0));
+        SetlistItem item = new SetlistItem();
+        item.setPositionIndex(0);
+        played.addItem(item);
+        em.persist(played);
+        em.flush();
+        em.clear();
+
+        List<ExportRow> rows = new ArrayList<>();
+        exportService.export(ExportKind.SETLISTS, owner.getId(), rows::add);
+
+        assertEquals(2, rows.size());
+        SetlistExportRow first = (SetlistExportRow) rows.get(0);
+        assertEquals("empty", first.setlist());
+        assertNull(first.position());
+        assertNull(first.songId());
+        SetlistExportRow second = (SetlistExportRow) rows.get(1);
+        assertEquals("played", second.setlist());
+        assertEquals(0, second.position());
+    }
+}
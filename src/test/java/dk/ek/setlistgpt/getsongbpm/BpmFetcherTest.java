@@ -0,0 +1,143 @@
+package dk.ek.setlistgpt.getsongbpm;
+
+import com.sun.net.httpserver.HttpServer;
+import dk.ek.setlistgpt.upstream.UpstreamGuard;
+import dk.ek.setlistgpt.upstream.UpstreamSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** BpmFetcher + GetSongBpmClient against a local fake of the BPM search endpoint. */
+class BpmFetcherTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private HttpServer server;
+    private GetSongBpmClient client;
+
+    @BeforeEach
+    void startFake() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/tracks", exchange -> {
+            calls.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+                String query = URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8);
+                int status = 200;
+                String body;
+                if (query.contains("song:Broken")) {
+                    status = 500;
+                    body = "{}";
+                } else if (query.contains("song:Halo")) {
+                    body = "{\"search\":[{\"title\":\"Halo\",\"tempo\":\"79.5\"}]}";
+                } else if (query.contains("song:Kiss")) {
+                    body = "{\"search\":[{\"title\":\"Kiss\",\"tempo\":111}]}";
+                } else {
+                    body = "{\"search\":{\"error\":\"no result\"}}";
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        server.start();
+        // No retries or hedging, so every lookup is exactly one request.
+        UpstreamGuard guard = new UpstreamGuard(new UpstreamSettings("getsongbpm-fake",
+                Duration.ofSeconds(1), Duration.ofSeconds(5), 20, 16, Duration.ofSeconds(5),
+                0, Duration.ofMillis(10), Duration.ZERO, 100, Duration.ofSeconds(30), 1));
+        client = new GetSongBpmClient(WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                .build(), guard, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void stopFake() {
+        server.stop(0);
+    }
+
+    private static BpmFetcher.Track track(String artist, String title) {
+        return new BpmFetcher.Track(BpmLookup.key(artist, title), artist, title);
+    }
+
+    @Test
+    void resolvesTempoAndRemembersMisses() {
+        BpmFetcher fetcher = new BpmFetcher(client, 4, 0);
+
+        Map<String, BpmLookup> byKey = fetcher.fetch(List.of(
+                        track("Beyoncé", "Halo"),
+                        track("Prince", "Kiss"),
+                        track("Nobody", "Unknown Song"),
+                        track("Someone", "Broken")))
+                .stream()
+                .collect(Collectors.toMap(BpmLookup::getLookupKey, Function.identity()));
+
+        assertEquals(80, byKey.get(BpmLookup.key("beyonce", "halo")).getBpm());
+        assertEquals(111, byKey.get(BpmLookup.key("Prince", "Kiss")).getBpm());
+        // known miss: stored with a null bpm so it is not asked for again
+        assertTrue(byKey.containsKey(BpmLookup.key("Nobody", "Unknown Song")));
+        assertNull(byKey.get(BpmLookup.key("Nobody", "Unknown Song")).getBpm());
+        // failed call: left out so the next run retries it
+        assertFalse(byKey.containsKey(BpmLookup.key("Someone", "Broken")));
+    }
+
+    @Test
+    void boundsConcurrency() {
+        BpmFetcher fetcher = new BpmFetcher(client, 2, 0);
+        List<BpmFetcher.Track> tracks = IntStream.range(0, 12)
+                .mapToObj(i -> track("Artist " + i, "Song " + i))
+                .toList();
+
+        assertEquals(12, fetcher.fetch(tracks).size());
+        assertEquals(12, calls.get());
+        assertTrue(maxInFlight.get() <= 2, "max in flight was " + maxInFlight.get());
+    }
+
+    @Test
+    void limitsRequestRate() {
+        BpmFetcher fetcher = new BpmFetcher(client, 8, 20); // one call per 50 ms
+        List<BpmFetcher.Track> tracks = IntStream.range(0, 6)
+                .mapToObj(i -> track("Artist " + i, "Song " + i))
+                .toList();
+
+        long start = System.nanoTime();
+        fetcher.fetch(tracks);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs >= 250, "6 calls at 20/s took only " + elapsedMs + " ms");
+    }
+
+    @Test
+    void keysIgnoreCaseAccentsAndPunctuation() {
+        assertEquals(BpmLookup.key("Beyoncé", "Halo!"), BpmLookup.key("  beyonce ", "halo"));
+        assertNull(BpmLookup.key(null, "Halo"));
+        assertNull(BpmLookup.key("Beyoncé", " - "));
+    }
+}
@@ -0,0 +1,196 @@
+package dk.ek.setlistgpt.groq;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import dk.ek.setlistgpt.upstream.UpstreamGuard;
+import dk.ek.setlistgpt.upstream.UpstreamSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** GroqClient + ChatCompletionCache against a local stub of the chat completions endpoint. */
+class GroqClientCacheTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMs;
+    private HttpServer server;
+    private WebClient webClient;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/chat/completions", exchange -> {
+            upstreamCalls.incrementAndGet();
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (request.contains("\"stream\":true")) {
+                exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(("data: {\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}\n\n"
+                            + "data: {\"choices\":[{\"delta\":{\"content\":\"1. Queen\"}}]}\n\n"
+                            + "data: {\"choices\":[{\"delta\":{\"content\":\" - Somebody\"}}]}\n\n"
+                            + "data: [DONE]\n\n").getBytes(StandardCharsets.UTF_8));
+                }
+                return;
+            }
+            byte[] body = ("{\"choices\":[{\"message\":{\"content\":\"call " + upstreamCalls.get() + "\"}}]}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        webClient = WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/chat/completions")
+                .build();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    // No retries or hedging, so upstreamCalls counts cache misses exactly.
+    private static UpstreamGuard guard() {
+        return new UpstreamGuard(new UpstreamSettings("groq-stub",
+                Duration.ofSeconds(1), Duration.ofSeconds(5), 10, 16, Duration.ofSeconds(5),
+                0, Duration.ofMillis(10), Duration.ZERO, 5, Duration.ofSeconds(30), 1));
+    }
+
+    private ChatCompletionCache cache(String file) {
+        return new ChatCompletionCache(true, 100, Duration.ofMinutes(5), file, mapper);
+    }
+
+    @Test
+    void identicalPromptsHitTheCache() {
+        GroqClient client = new GroqClient(webClient, guard(), cache(null), mapper, new SimpleMeterRegistry(), "stub-model", 300, 0.8);
+
+        Map<String, Object> first = client.generateChatCompletion("Happy rock set, 45 minutes");
+        Map<String, Object> second = client.generateChatCompletion("  happy ROCK set,\n45 minutes ");
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void differentParametersMissTheCache() {
+        ChatCompletionCache shared = cache(null);
+        new GroqClient(webClient, guard(), shared, mapper, new SimpleMeterRegistry(), "stub-model", 300, 0.8).generateChatCompletion("prompt");
+        new GroqClient(webClient, guard(), shared, mapper, new SimpleMeterRegistry(), "stub-model", 300, 0.2).generateChatCompletion("prompt");
+        new GroqClient(webClient, guard(), shared, mapper, new SimpleMeterRegistry(), "stub-model", 100, 0.8).generateChatCompletion("prompt");
+        new GroqClient(webClient, guard(), shared, mapper, new SimpleMeterRegistry(), "other-model", 300, 0.8).generateChatCompletion("prompt");
+
+        assertEquals(4, upstreamCalls.get());
+    }
+
+    @Test
+    void concurrentMissesShareOneUpstreamCall() throws Exception {
+        delayMs = 200;
+        GroqClient client = new GroqClient(webClient, guard(), cache(null), mapper, new SimpleMeterRegistry(), "stub-model", 300, 0.8);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Map<String, Object>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return client.generateChatCompletion("same prompt");
+                }));
+            }
+            start.countDown();
+            for (Future<Map<String, Object>> r : results) {
+                assertEquals(results.get(0).get(5, TimeUnit.SECONDS), r.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void cancelledLeaderDoesNotFailTheFollowers() throws Exception {
+        delayMs = 300;
+        ChatCompletionCache shared = cache(null);
+        GroqClient client = new GroqClient(webClient, guard(), shared, mapper, new SimpleMeterRegistry(), "stub-model", 300, 0.8);
+
+        // the leader's client goes away while the upstream call is running
+        Disposable leader = client.chatCompletion("same prompt").subscribe();
+        while (shared.misses() == 0) Thread.sleep(1);
+        CompletableFuture<Map<String, Object>> follower = client.chatCompletion("same prompt").toFuture();
+        leader.dispose();
+
+        Map<String, Object> value = follower.get(5, TimeUnit.SECONDS);
+        assertNotNull(value);
+        assertEquals(value, client.generateChatCompletion("same prompt"));
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        GroqClient client = new GroqClient(webClient, guard(), cache(null), mapper, new SimpleMeterRegistry(), "stub-model", 300, 0.8);
+        status = 500;
+        assertThrows(RuntimeException.class, () -> client.generateChatCompletion("prompt"));
+        status = 200;
+        assertNotNull(client.generateChatCompletion("prompt"));
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void streamedTokensArriveInOrderAndAreCached() {
+        GroqClient client = new GroqClient(webClient, guard(), cache(null), mapper, new SimpleMeterRegistry(), "stub-model", 300, 0.8);
+
+        List<String> streamed = client.streamChatCompletion("prompt").collectList().block();
+        List<String> replayed = client.streamChatCompletion("prompt").collectList().block();
+
+        assertEquals(List.of("1. Queen", " - Somebody"), streamed);
+        assertEquals(List.of("1. Queen - Somebody"), replayed);
+        assertTrue(client.generateChatCompletion("prompt").get("choices").toString().contains("1. Queen - Somebody"));
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void entriesSurviveRestartWhenPersisted(@TempDir Path dir) {
+        String file = dir.resolve("groq-cache.json").toString();
+        ChatCompletionCache before = cache(file);
+        Map<String, Object> original = new GroqClient(webClient, guard(), before, mapper, new SimpleMeterRegistry(), "stub-model", 300, 0.8)
+                .generateChatCompletion("prompt");
+        before.save();
+
+        ChatCompletionCache after = cache(file);
+        after.load();
+        Map<String, Object> restored = new GroqClient(webClient, guard(), after, mapper, new SimpleMeterRegistry(), "stub-model", 300, 0.8)
+                .generateChatCompletion("prompt");
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(original, restored);
+    }
+}
@@ -0,0 +1,42 @@
+package dk.ek.setlistgpt.profile;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** ProfileRepository queries on the embedded test database. */
+@DataJpaTest
+class ProfileRepositoryTest {
+
+    @Autowired
+    private ProfileRepository repo;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Test
+    void replacePasswordHashOnlyReplacesTheVerifiedHash() {
+        Long id = em.persistAndFlush(Profile.builder().name("ada").password("{bcrypt}old").build()).getId();
+
+        assertEquals(1, repo.replacePasswordHash(id, "{bcrypt}old", "{bcrypt}rehashed"));
+        // A second login that verified the old hash must not overwrite the new one.
+        assertEquals(0, repo.replacePasswordHash(id, "{bcrypt}old", "{bcrypt}other"));
+
+        em.clear();
+        assertEquals("{bcrypt}rehashed", repo.findById(id).orElseThrow().getPassword());
+    }
+
+    @Test
+    void replacePasswordHashLosesToAConcurrentPasswordChange() {
+        Profile p = em.persistAndFlush(Profile.builder().name("bob").password("{bcrypt}old").build());
+        p.setPassword("{bcrypt}changed");
+        em.flush();
+
+        assertEquals(0, repo.replacePasswordHash(p.getId(), "{bcrypt}old", "{bcrypt}rehashed"));
+        em.clear();
+        assertEquals("{bcrypt}changed", repo.findById(p.getId()).orElseThrow().getPassword());
+    }
+}
@@ -0,0 +1,132 @@
+package dk.ek.setlistgpt.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Load shedding and rehashing of PasswordVerifier with one thread, one queue slot and a blocking encoder. */
+class PasswordVerifierTest {
+
+    private final BlockingEncoder encoder = new BlockingEncoder();
+    private final PasswordVerifier verifier = new PasswordVerifier(encoder, 1, 1, Duration.ofMillis(100));
+
+    @AfterEach
+    void shutdown() {
+        encoder.release.countDown();
+        verifier.shutdown();
+    }
+
+    private CompletableFuture<PasswordVerifier.Result> verifyAsync(String raw, String stored) {
+        return CompletableFuture.supplyAsync(() -> verifier.verify(raw, stored), Thread::startVirtualThread);
+    }
+
+    // Occupies the only worker until encoder.release is opened.
+    private CompletableFuture<PasswordVerifier.Result> busyWorker() throws InterruptedException {
+        CompletableFuture<PasswordVerifier.Result> running = verifyAsync("secret", "hash:secret");
+        assertTrue(encoder.entered.await(5, TimeUnit.SECONDS));
+        return running;
+    }
+
+    @Test
+    void fullQueueIsRefusedWithRetryAfter() throws Exception {
+        CompletableFuture<PasswordVerifier.Result> running = busyWorker();
+        CompletableFuture<PasswordVerifier.Result> queued = verifyAsync("secret", "hash:secret");
+        waitForQueueDepth(1);
+
+        LoginThrottledException e = assertThrows(LoginThrottledException.class,
+                () -> verifier.verify("secret", "hash:secret"));
+        assertEquals(1, e.getRetryAfterSeconds());
+        assertEquals(1, verifier.rejected());
+
+        encoder.release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS).matches());
+        assertTrue(queued.get(5, TimeUnit.SECONDS).matches());
+        assertEquals(2, verifier.verified());
+    }
+
+    @Test
+    void checkThatWaitedPastTheTimeoutIsShedWithoutHashing() throws Exception {
+        CompletableFuture<PasswordVerifier.Result> running = busyWorker();
+        CompletableFuture<PasswordVerifier.Result> queued = verifyAsync("secret", "hash:secret");
+        waitForQueueDepth(1);
+        Thread.sleep(250);
+
+        encoder.release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS).matches());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(LoginThrottledException.class, e.getCause());
+        assertEquals(1, encoder.matches.get());
+        assertEquals(1, verifier.verified());
+        assertEquals(1, verifier.rejected());
+    }
+
+    @Test
+    void startedCheckIsNotCutOffByTheTimeout() throws Exception {
+        CompletableFuture<PasswordVerifier.Result> running = busyWorker();
+        Thread.sleep(250);
+        assertFalse(running.isDone());
+
+        encoder.release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS).matches());
+        assertEquals(0, verifier.rejected());
+    }
+
+    @Test
+    void weakHashMatchReturnsARehash() {
+        encoder.release.countDown();
+        PasswordVerifier.Result r = verifier.verify("secret", "weak:secret");
+        assertTrue(r.matches());
+        assertEquals("hash:secret", r.rehash());
+        assertEquals(1, verifier.rehashed());
+
+        assertFalse(verifier.verify("wrong", "weak:secret").matches());
+        assertNull(verifier.verify("secret", "hash:secret").rehash());
+        assertEquals(1, verifier.rehashed());
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (verifier.queueDepth() != depth) {
+            assertTrue(System.nanoTime() < until, "queue never reached " + depth);
+            Thread.sleep(1);
+        }
+    }
+
+    // "hash:x" is current, "weak:x" needs upgrading; matches() blocks until released.
+    private static final class BlockingEncoder implements PasswordEncoder {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger matches = new AtomicInteger();
+
+        @Override
+        public String encode(CharSequence raw) {
+            return "hash:" + raw;
+        }
+
+        @Override
+        public boolean matches(CharSequence raw, String stored) {
+            matches.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return stored.substring(stored.indexOf(':') + 1).contentEquals(raw);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String stored) {
+            return stored.startsWith("weak:");
+        }
+    }
+}
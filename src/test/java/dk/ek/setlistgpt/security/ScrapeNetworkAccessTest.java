@@ -0,0 +1,32 @@
+package dk.ek.setlistgpt.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The /actuator/** network rule of SecurityConfig. */
+class ScrapeNetworkAccessTest {
+
+    private static boolean granted(AuthorizationManager<RequestAuthorizationContext> rule, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/prometheus");
+        request.setRemoteAddr(remoteAddr);
+        return rule.check(() -> null, new RequestAuthorizationContext(request)).isGranted();
+    }
+
+    @Test
+    void onlyConfiguredNetworksAreGranted() {
+        var rule = SecurityConfig.fromNetworks("127.0.0.1/32, 10.20.0.0/16");
+        assertTrue(granted(rule, "127.0.0.1"));
+        assertTrue(granted(rule, "10.20.3.4"));
+        assertFalse(granted(rule, "10.21.0.1"));
+        assertFalse(granted(rule, "203.0.113.9"));
+    }
+
+    @Test
+    void emptyListGrantsNobody() {
+        assertFalse(granted(SecurityConfig.fromNetworks(""), "127.0.0.1"));
+    }
+}
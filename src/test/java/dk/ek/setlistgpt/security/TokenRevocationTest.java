@@ -0,0 +1,67 @@
+package dk.ek.setlistgpt.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dk.ek.setlistgpt.profile.Profile;
+import dk.ek.setlistgpt.profile.ProfileType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/** Profile-wide token revocation through ProfileTokenService with the repository mocked out. */
+class TokenRevocationTest {
+
+    private static final String KEYS = "k1:" + Base64.getEncoder().encodeToString(
+            "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+
+    private final TokenRevocationRepository repo = mock(TokenRevocationRepository.class);
+    private final TokenRevocationList revocations =
+            new TokenRevocationList(repo, "token", Duration.ofHours(12), Duration.ofSeconds(30));
+    private final ProfileTokenService tokens = new ProfileTokenService(new ObjectMapper(), revocations,
+            "token", KEYS, "", Duration.ofHours(12), "SETLIST_AUTH", false);
+
+    private static Profile profile(String name) {
+        return Profile.builder().id(7L).name(name).type(ProfileType.MUSICIAN).build();
+    }
+
+    @Test
+    void tokenReissuedRightAfterARevocationIsValid() {
+        String old = tokens.issue(profile("ada"));
+        assertNotNull(tokens.verify(old));
+
+        // rename: every older token dies, the one issued for the new name in the same second lives
+        revocations.revokeProfile(7L);
+        String renewed = tokens.issue(profile("ada2"));
+
+        assertNull(tokens.verify(old));
+        ProfileTokenService.Claims claims = tokens.verify(renewed);
+        assertNotNull(claims);
+        assertEquals("ada2", claims.name());
+    }
+
+    @Test
+    void refreshedRowsKeepTheirMillisecondCutoff() {
+        TokenRevocation row = new TokenRevocation(1L, null, 7L, 1_000_500L, Long.MAX_VALUE);
+        when(repo.findByExpiresAtGreaterThan(anyLong())).thenReturn(List.of(row));
+        revocations.refresh();
+
+        assertTrue(revocations.isRevoked("a", 7L, 1_000_499L));
+        assertFalse(revocations.isRevoked("b", 7L, 1_000_500L));
+    }
+
+    @Test
+    void cutoffIsStrictlyBefore() {
+        revocations.revokeProfile(7L);
+        long now = System.currentTimeMillis();
+        assertFalse(revocations.isRevoked("a", 7L, now));
+        assertTrue(revocations.isRevoked("b", 7L, now - 1000));
+        assertFalse(revocations.isRevoked("c", 8L, now - 1000));
+    }
+}
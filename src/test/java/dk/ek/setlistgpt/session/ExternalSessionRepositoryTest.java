@@ -0,0 +1,141 @@
+package dk.ek.setlistgpt.session;
+
+import dk.ek.setlistgpt.profile.CurrentProfile;
+import dk.ek.setlistgpt.profile.Profile;
+import dk.ek.setlistgpt.profile.ProfileType;
+import org.junit.jupiter.api.Test;
+import org.springframework.session.MapSession;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** ExternalSessionRepository on the in-process store, two "nodes" sharing one store. */
+class ExternalSessionRepositoryTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final CountingStore store = new CountingStore();
+
+    private ExternalSessionRepository node() {
+        return new ExternalSessionRepository(store, Duration.ofMinutes(20), Duration.ofSeconds(5), 100,
+                Duration.ofSeconds(60), Duration.ofMinutes(5), clock);
+    }
+
+    private static Profile profile() {
+        return Profile.builder().id(7L).name("ada").password("{bcrypt}hash").type(ProfileType.ADMIN).build();
+    }
+
+    @Test
+    void signedInSessionIsVisibleOnAnotherNodeWithoutThePassword() {
+        ExternalSessionRepository a = node();
+        MapSession session = a.createSession();
+        session.setAttribute(CurrentProfile.SESSION_ATTRIBUTE, profile());
+        session.setAttribute("scratch", "not shared");
+        a.save(session);
+
+        MapSession loaded = node().findById(session.getId());
+        assertNotNull(loaded);
+        Profile p = loaded.getAttribute(CurrentProfile.SESSION_ATTRIBUTE);
+        assertEquals(7L, p.getId());
+        assertEquals("ada", p.getName());
+        assertEquals(ProfileType.ADMIN, p.getType());
+        assertNull(p.getPassword());
+        assertNull(loaded.getAttribute("scratch"));
+    }
+
+    @Test
+    void anonymousSessionsAreNotStored() {
+        ExternalSessionRepository a = node();
+        MapSession session = a.createSession();
+        a.save(session);
+        assertEquals(0, store.puts.get());
+        assertNull(node().findById(session.getId()));
+    }
+
+    @Test
+    void touchesAreWrittenAtMostOncePerTouchInterval() {
+        ExternalSessionRepository a = node();
+        MapSession session = a.createSession();
+        session.setAttribute(CurrentProfile.SESSION_ATTRIBUTE, profile());
+        a.save(session);
+        assertEquals(1, store.puts.get());
+
+        // next request 2s later: read from the near cache, touch only -> no write
+        clock.advance(Duration.ofSeconds(2));
+        MapSession again = a.findById(session.getId());
+        again.setLastAccessedTime(clock.instant());
+        a.save(again);
+        assertEquals(1, store.puts.get());
+        assertEquals(1, a.hits());
+
+        // a minute later the touch is written so the stored expiry moves on
+        clock.advance(Duration.ofSeconds(60));
+        again = a.findById(session.getId());
+        again.setLastAccessedTime(clock.instant());
+        a.save(again);
+        assertEquals(2, store.puts.get());
+    }
+
+    @Test
+    void expiredDeletedAndRenamedSessionsAreGone() {
+        ExternalSessionRepository a = node();
+        MapSession session = a.createSession();
+        session.setAttribute(CurrentProfile.SESSION_ATTRIBUTE, profile());
+        a.save(session);
+
+        String oldId = session.getId();
+        session.changeSessionId();
+        a.save(session);
+        assertNull(node().findById(oldId));
+        assertNotNull(node().findById(session.getId()));
+
+        a.deleteById(session.getId());
+        assertNull(node().findById(session.getId()));
+
+        MapSession shortLived = a.createSession();
+        shortLived.setAttribute(CurrentProfile.SESSION_ATTRIBUTE, profile());
+        shortLived.setMaxInactiveInterval(Duration.ofSeconds(30));
+        a.save(shortLived);
+        clock.advance(Duration.ofSeconds(31));
+        assertNull(a.findById(shortLived.getId()));
+        assertNull(node().findById(shortLived.getId()));
+    }
+
+    private static final class CountingStore extends InMemorySessionStore {
+        final AtomicInteger puts = new AtomicInteger();
+
+        @Override
+        public void put(SessionRecord record) {
+            puts.incrementAndGet();
+            super.put(record);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T12:00:00Z");
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
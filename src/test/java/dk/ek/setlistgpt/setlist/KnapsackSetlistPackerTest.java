@@ -0,0 +1,89 @@
+package dk.ek.setlistgpt.setlist;
+
+import dk.ek.setlistgpt.song.Song;
+import dk.ek.setlistgpt.song.SongMood;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Fill of the "optimal" packer against the greedy one on fixed inputs. */
+class KnapsackSetlistPackerTest {
+
+    private final MoodCalculator moodCalculator = new MoodCalculator();
+    private final KnapsackSetlistPacker knapsack = new KnapsackSetlistPacker(moodCalculator, 5000, 10_000);
+    private final GreedySetlistPacker greedy = new GreedySetlistPacker();
+
+    private static Song song(long id, int seconds, SongMood mood) {
+        return Song.builder().id(id).title("s" + id).mood(mood)
+                .durationMinutes(seconds / 60).durationSeconds(seconds % 60).build();
+    }
+
+    private static List<Long> ids(PackResult r) {
+        return r.songs().stream().map(Song::getId).sorted().toList();
+    }
+
+    @Test
+    void flatScoresMaximizeFillNotSongCount() {
+        // Three short songs are more songs, the long one is more music.
+        List<Song> songs = List.of(song(1, 590, null), song(2, 100, null), song(3, 100, null), song(4, 100, null));
+        PackResult k = knapsack.pack(songs, 600, null, null);
+        assertEquals(List.of(1L), ids(k));
+        assertEquals(10, k.gapSeconds());
+        assertTrue(k.gapSeconds() <= greedy.pack(songs, 600, null, null).gapSeconds());
+    }
+
+    @Test
+    void closesGapsGreedyLeaves() {
+        List<Song> songs = List.of(song(1, 400, null), song(2, 300, null), song(3, 300, null));
+        assertEquals(200, greedy.pack(songs, 600, null, null).gapSeconds());
+        PackResult k = knapsack.pack(songs, 600, null, null);
+        assertEquals(0, k.gapSeconds());
+        assertEquals(List.of(2L, 3L), ids(k));
+    }
+
+    @Test
+    void neverLeavesMoreDeadAirThanGreedy() {
+        SplittableRandom rnd = new SplittableRandom(20260101L);
+        SongMood[] moods = SongMood.values();
+        for (int round = 0; round < 50; round++) {
+            List<Song> songs = new ArrayList<>();
+            int count = 5 + rnd.nextInt(60);
+            for (int i = 0; i < count; i++) {
+                songs.add(song(i + 1, 60 + rnd.nextInt(420), rnd.nextBoolean() ? moods[rnd.nextInt(moods.length)] : null));
+            }
+            int target = 600 + rnd.nextInt(3600);
+            SongMood mood = rnd.nextBoolean() ? moods[rnd.nextInt(moods.length)] : null;
+            Integer bpm = rnd.nextBoolean() ? 80 + rnd.nextInt(80) : null;
+
+            PackResult k = knapsack.pack(songs, target, mood, bpm);
+            PackResult g = greedy.pack(songs, target, mood, bpm);
+            assertTrue(k.totalSeconds() <= target);
+            assertEquals(k.songs().stream().mapToInt(Song::getDurationInSeconds).sum(), k.totalSeconds());
+            assertTrue(k.totalSeconds() >= g.totalSeconds(),
+                    "round " + round + ": knapsack " + k.totalSeconds() + "s < greedy " + g.totalSeconds() + "s");
+        }
+    }
+
+    @Test
+    void scoreDecidesBetweenEquallyFullSets() {
+        List<Song> songs = List.of(
+                song(1, 300, SongMood.CALM), song(2, 300, SongMood.ENERGETIC),
+                song(3, 300, SongMood.CALM), song(4, 300, SongMood.ENERGETIC));
+        PackResult k = knapsack.pack(songs, 600, SongMood.ENERGETIC, null);
+        assertEquals(0, k.gapSeconds());
+        assertEquals(List.of(2L, 4L), ids(k));
+    }
+
+    @Test
+    void reproduciblePackingIgnoresTheTimeBudget() {
+        KnapsackSetlistPacker noTime = new KnapsackSetlistPacker(moodCalculator, 5000, 0);
+        List<Song> songs = List.of(song(1, 400, null), song(2, 300, null), song(3, 300, null));
+        PackResult reproducible = noTime.packReproducibly(songs, 600, null, null);
+        assertTrue(reproducible.optimal());
+        assertEquals(0, reproducible.gapSeconds());
+    }
+}
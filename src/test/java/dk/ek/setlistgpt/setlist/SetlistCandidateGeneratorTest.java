@@ -0,0 +1,108 @@
+package dk.ek.setlistgpt.setlist;
+
+import dk.ek.setlistgpt.song.Song;
+import dk.ek.setlistgpt.song.SongMood;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Seed contract and basic guarantees of the multi-candidate generator. */
+class SetlistCandidateGeneratorTest {
+
+    private static final int TARGET = 45 * 60;
+
+    private final MoodCalculator moodCalculator = new MoodCalculator();
+    private final List<SetlistCandidateGenerator> generators = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        generators.forEach(SetlistCandidateGenerator::shutdown);
+    }
+
+    private SetlistCandidateGenerator generator(int parallelism, long sequencingBudgetMs) {
+        SetlistCandidateGenerator g = new SetlistCandidateGenerator(moodCalculator,
+                new SetlistSequencer(true, sequencingBudgetMs), parallelism, 4, 0.35, 0.5);
+        generators.add(g);
+        return g;
+    }
+
+    static List<Song> catalog(int count, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        SongMood[] moods = SongMood.values();
+        List<Song> songs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            songs.add(Song.builder()
+                    .id((long) i + 1)
+                    .title("song " + i)
+                    .artist("artist " + (i % 17))
+                    .mood(rnd.nextInt(8) == 0 ? null : moods[rnd.nextInt(moods.length)])
+                    .bpm(rnd.nextInt(8) == 0 ? null : 70 + rnd.nextInt(100))
+                    .durationMinutes(2 + rnd.nextInt(5))
+                    .durationSeconds(rnd.nextInt(60))
+                    .build());
+        }
+        return songs;
+    }
+
+    private List<List<Long>> run(SetlistCandidateGenerator g, List<Song> songs, long knapsackBudgetMs, long seed) {
+        KnapsackSetlistPacker packer = new KnapsackSetlistPacker(moodCalculator, 5000, knapsackBudgetMs);
+        PackResult baseline = packer.packReproducibly(songs, TARGET, SongMood.ENERGETIC, null);
+        return ids(g.generate(songs, baseline, TARGET, SongMood.ENERGETIC, null, 4, seed, UnaryOperator.identity()));
+    }
+
+    private static List<List<Long>> ids(List<SetlistCandidate> candidates) {
+        return candidates.stream().map(c -> c.songs().stream().map(Song::getId).toList()).toList();
+    }
+
+    @Test
+    void sameSeedGivesSameCandidatesWhateverThePoolOrTimeBudgets() {
+        List<Song> songs = catalog(300, 7);
+        // one thread and no time at all vs. a wide pool with generous budgets
+        List<List<Long>> starved = run(generator(1, 0), songs, 0, 42L);
+        List<List<Long>> relaxed = run(generator(4, 1_000), songs, 1_000, 42L);
+
+        assertFalse(starved.isEmpty());
+        assertEquals(starved, relaxed);
+        assertEquals(starved, run(generator(2, 5), songs, 50, 42L));
+    }
+
+    @Test
+    void differentSeedsGiveDifferentAlternatives() {
+        SetlistCandidateGenerator g = generator(2, 5);
+        List<Song> songs = catalog(300, 7);
+        assertNotEquals(run(g, songs, 50, 1L), run(g, songs, 50, 2L));
+    }
+
+    @Test
+    void candidatesAreDistinctFitTheTargetAndStartWithTheBest() {
+        SetlistCandidateGenerator g = generator(2, 5);
+        List<Song> songs = catalog(300, 11);
+        PackResult baseline = new GreedySetlistPacker().pack(songs, TARGET, SongMood.CALM, null);
+        List<SetlistCandidate> out = g.generate(songs, baseline, TARGET, SongMood.CALM, null, 5, 3L, UnaryOperator.identity());
+
+        assertEquals(5, out.size());
+        Set<Set<Long>> seen = new HashSet<>();
+        for (SetlistCandidate c : out) {
+            int total = c.songs().stream().mapToInt(Song::getDurationInSeconds).sum();
+            assertEquals(total, c.totalSeconds());
+            assertTrue(total <= TARGET);
+            assertEquals(TARGET - total, c.gapSeconds());
+            assertTrue(seen.add(new HashSet<>(c.songs().stream().map(Song::getId).toList())), "duplicate candidate");
+            assertTrue(c.score() <= out.get(0).score());
+        }
+    }
+
+    @Test
+    void emptyInputGivesNoCandidates() {
+        SetlistCandidateGenerator g = generator(1, 5);
+        assertTrue(g.generate(List.of(), PackResult.empty(TARGET), TARGET, null, null, 3, 1L, UnaryOperator.identity()).isEmpty());
+    }
+}
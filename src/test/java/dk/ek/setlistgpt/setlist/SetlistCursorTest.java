@@ -0,0 +1,49 @@
+package dk.ek.setlistgpt.setlist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/** Encoding of the setlist keyset cursor and how the listing treats a token it did not issue. */
+class SetlistCursorTest {
+
+    private static String base64(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void encodedCursorDecodesToTheSameKey() {
+        SetlistCursor cursor = new SetlistCursor(LocalDateTime.of(2026, 3, 4, 5, 6, 7, 890_000_000), 42L);
+        String token = cursor.encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), "URL safe without padding: " + token);
+        assertEquals(cursor, SetlistCursor.decode(token));
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SetlistCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> SetlistCursor.decode(base64("2026-03-04T05:06")));
+        assertThrows(IllegalArgumentException.class, () -> SetlistCursor.decode(base64("yesterday|42")));
+        assertThrows(IllegalArgumentException.class, () -> SetlistCursor.decode(base64("2026-03-04T05:06|x")));
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() {
+        SetlistService service = mock(SetlistService.class);
+        SetlistController controller = new SetlistController(service, mock(SetlistWriteBehind.class),
+                new ObjectMapper(), mock(SetlistMetrics.class), 10);
+
+        assertEquals(HttpStatus.BAD_REQUEST, controller.listSetlistPage(10, "not base64!").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.listSetlistPage(10, base64("nope")).getStatusCode());
+        verifyNoInteractions(service);
+    }
+}
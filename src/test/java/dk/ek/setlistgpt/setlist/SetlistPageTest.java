@@ -0,0 +1,69 @@
+package dk.ek.setlistgpt.setlist;
+
+import dk.ek.setlistgpt.song.SongCatalog;
+import dk.ek.setlistgpt.song.SongRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/** Keyset paging of the setlist listing on the embedded test database. */
+@DataJpaTest
+class SetlistPageTest {
+
+    @Autowired
+    private SetlistRepository setlists;
+
+    @Autowired
+    private TestEntityManager em;
+
+    private SetlistService service() {
+        return new SetlistService(mock(SongRepository.class), mock(MoodCalculator.class), setlists,
+                mock(SongCatalog.class), mock(ApplicationEventPublisher.class), List.of(), "optimal",
+                mock(SetlistSequencer.class), mock(SetlistItemBatchWriter.class),
+                mock(SetlistCandidateGenerator.class), mock(SetlistMetrics.class));
+    }
+
+    private Long persist(String title, LocalDateTime createdAt) {
+        Setlist s = new Setlist();
+        s.setTitle(title);
+        s.setCreatedAt(createdAt);
+        return em.persist(s).getId();
+    }
+
+    @Test
+    void pagesSplitRowsWithTheSameCreatedAtByIdWithoutGapsOrRepeats() {
+        LocalDateTime same = LocalDateTime.of(2026, 5, 1, 12, 0);
+        Long newest = persist("newest", same.plusHours(1));
+        List<Long> tied = new ArrayList<>();
+        for (int i = 0; i < 4; i++) tied.add(persist("tied " + i, same));
+        Long oldest = persist("oldest", same.minusHours(1));
+        em.flush();
+
+        SetlistService service = service();
+        List<Long> seen = new ArrayList<>();
+        SetlistPageDto page = service.listSetlistPage(null, 2);
+        int pages = 1;
+        page.items().forEach(s -> seen.add(s.getId()));
+        while (page.nextCursor() != null) {
+            page = service.listSetlistPage(SetlistCursor.decode(page.nextCursor()), 2);
+            page.items().forEach(s -> seen.add(s.getId()));
+            pages++;
+        }
+
+        // The page boundaries fall inside the run of equal createdAt values.
+        List<Long> expected = new ArrayList<>(List.of(newest));
+        expected.addAll(tied.reversed());
+        expected.add(oldest);
+        assertEquals(expected, seen);
+        assertEquals(3, pages);
+    }
+}
@@ -0,0 +1,102 @@
+package dk.ek.setlistgpt.setlist;
+
+import dk.ek.setlistgpt.song.Song;
+import dk.ek.setlistgpt.song.SongMood;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Transition ordering of SetlistSequencer on small sets with a known best order. */
+class SetlistSequencerTest {
+
+    private final SetlistSequencer sequencer = new SetlistSequencer(true, 50);
+
+    private static Song song(long id, Integer bpm, SongMood mood) {
+        return Song.builder().id(id).title("s" + id).bpm(bpm).mood(mood).durationMinutes(3).build();
+    }
+
+    private static List<Long> ids(List<Song> songs) {
+        return songs.stream().map(Song::getId).toList();
+    }
+
+    private static List<Long> sortedIds(List<Song> songs) {
+        return songs.stream().map(Song::getId).sorted().toList();
+    }
+
+    @Test
+    void shuffledBpmLadderComesOutSorted() {
+        List<Song> ladder = new ArrayList<>();
+        for (int i = 0; i < 12; i++) ladder.add(song(i + 1, 80 + 10 * i, SongMood.PARTY));
+        List<Song> shuffled = new ArrayList<>(ladder);
+        Collections.shuffle(shuffled, new Random(42));
+
+        List<Long> out = ids(sequencer.sequenceReproducibly(shuffled));
+        List<Long> ascending = ids(ladder);
+        List<Long> descending = new ArrayList<>(ascending);
+        Collections.reverse(descending);
+        assertTrue(out.equals(ascending) || out.equals(descending), "not a monotonic BPM path: " + out);
+    }
+
+    @Test
+    void clashingMoodsAreGroupedWithOneChangeover() {
+        List<Song> alternating = new ArrayList<>();
+        for (int i = 0; i < 10; i++) alternating.add(song(i + 1, 120, i % 2 == 0 ? SongMood.SAD : SongMood.PARTY));
+
+        List<Song> out = sequencer.sequenceReproducibly(alternating);
+        int changes = 0;
+        for (int i = 1; i < out.size(); i++) {
+            if (out.get(i).getMood() != out.get(i - 1).getMood()) changes++;
+        }
+        assertEquals(1, changes);
+    }
+
+    @Test
+    void reusedCopiesOfASongAreKeptApart() {
+        List<Song> songs = List.of(song(1, 100, SongMood.CALM), song(1, 100, SongMood.CALM),
+                song(2, 100, SongMood.CALM), song(2, 100, SongMood.CALM), song(3, 100, SongMood.CALM));
+
+        List<Long> out = ids(sequencer.sequenceReproducibly(songs));
+        for (int i = 1; i < out.size(); i++) assertNotEquals(out.get(i - 1), out.get(i), out.toString());
+    }
+
+    @Test
+    void returnsAPermutationAndLeavesTheInputAlone() {
+        List<Song> songs = new ArrayList<>();
+        Random rnd = new Random(7);
+        SongMood[] moods = SongMood.values();
+        for (int i = 0; i < 40; i++) {
+            songs.add(song(i + 1, rnd.nextInt(4) == 0 ? null : 70 + rnd.nextInt(100),
+                    rnd.nextInt(4) == 0 ? null : moods[rnd.nextInt(moods.length)]));
+        }
+        List<Long> before = ids(songs);
+
+        List<Song> timed = sequencer.sequence(songs);
+        List<Song> reproducible = sequencer.sequenceReproducibly(songs);
+        assertEquals(before, ids(songs));
+        assertEquals(sortedIds(songs), sortedIds(timed));
+        assertEquals(sortedIds(songs), sortedIds(reproducible));
+        assertEquals(ids(reproducible), ids(sequencer.sequenceReproducibly(songs)));
+    }
+
+    @Test
+    void zeroBudgetStillGivesAValidOrder() {
+        SetlistSequencer rushed = new SetlistSequencer(true, 0);
+        List<Song> songs = List.of(song(1, 150, null), song(2, 90, null), song(3, 120, null), song(4, 100, null));
+        assertEquals(List.of(1L, 2L, 3L, 4L), sortedIds(rushed.sequence(songs)));
+    }
+
+    @Test
+    void shortOrDisabledInputIsReturnedAsIs() {
+        List<Song> two = List.of(song(1, 150, null), song(2, 90, null));
+        assertSame(two, sequencer.sequence(two));
+        assertNull(sequencer.sequence(null));
+
+        List<Song> three = List.of(song(1, 150, null), song(2, 90, null), song(3, 120, null));
+        assertSame(three, new SetlistSequencer(false, 50).sequence(three));
+    }
+}
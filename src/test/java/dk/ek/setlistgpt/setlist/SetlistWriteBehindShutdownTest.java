@@ -0,0 +1,77 @@
+package dk.ek.setlistgpt.setlist;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/** Write-behind must outlive the web server's graceful shutdown, so late requests still queue. */
+class SetlistWriteBehindShutdownTest {
+
+    @Test
+    void stopsAfterGracefulShutdownAndSavesSetlistsQueuedDuringIt() {
+        SetlistService service = mock(SetlistService.class);
+        SetlistWriteBehind writeBehind = new SetlistWriteBehind(service, "all", 10, 5, 20, 50, 5_000);
+        InFlightRequest request = new InFlightRequest(writeBehind);
+
+        GenericApplicationContext ctx = new GenericApplicationContext();
+        ctx.registerBean(SetlistWriteBehind.class, () -> writeBehind);
+        ctx.registerBean(InFlightRequest.class, () -> request);
+        ctx.refresh();
+        assertTrue(writeBehind.isRunning());
+        ctx.close();
+
+        assertTrue(request.ranDuringShutdown);
+        assertFalse(writeBehind.isRunning());
+        SetlistWriteBehind.Stats stats = writeBehind.stats();
+        assertEquals(1, stats.enqueued(), "write-behind was already stopped when the request finished");
+        assertEquals(1, stats.flushed());
+        assertEquals(0, stats.savedInline());
+        verify(service, atLeastOnce()).saveBuiltSetlists(anyList());
+        verify(service, never()).saveBuiltSetlist(any(), any(), anyList());
+    }
+
+    @Test
+    void phaseIsBelowTheWebServerPhases() {
+        assertTrue(SetlistWriteBehind.PHASE < WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+    }
+
+    // Stands in for a request that completes while the web server shuts down gracefully.
+    static final class InFlightRequest implements SmartLifecycle {
+        private final SetlistWriteBehind writeBehind;
+        private volatile boolean running;
+        volatile boolean ranDuringShutdown;
+
+        InFlightRequest(SetlistWriteBehind writeBehind) {
+            this.writeBehind = writeBehind;
+        }
+
+        @Override
+        public void start() {
+            running = true;
+        }
+
+        @Override
+        public void stop() {
+            writeBehind.save(null, "late set", List.of());
+            ranDuringShutdown = true;
+            running = false;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public int getPhase() {
+            return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package dk.ek.setlistgpt.song;
+
+import dk.ek.setlistgpt.repertoire.Repertoire;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/** SongCatalog filters over a mocked repository, kept current from SongChangedEvents. */
+class SongCatalogTest {
+
+    private final SongRepository repo = mock(SongRepository.class);
+    private final SongCatalog catalog = new SongCatalog(repo);
+
+    private static Song song(long id, String title, String artist, SongGenre genre, SongMood mood) {
+        return Song.builder().id(id).title(title).artist(artist).genre(genre).mood(mood)
+                .durationMinutes(3).build();
+    }
+
+    private List<Long> find(String title, String artist, Set<SongGenre> genres, SongMood mood, boolean unknownMood) {
+        return catalog.find(title, artist, genres, mood, unknownMood).stream().map(Song::getId).toList();
+    }
+
+    private void load(Song... songs) {
+        when(repo.findAll()).thenReturn(List.of(songs));
+    }
+
+    @Test
+    void filtersCombineAndKeepCatalogOrder() {
+        load(song(1, "Golden Hour", "Kacey Musgraves", SongGenre.COUNTRY, SongMood.HAPPY),
+                song(2, "Hour of Need", "The Band", SongGenre.ROCK, SongMood.SAD),
+                song(3, "Night Drive", "Kacey Musgraves", SongGenre.POP, null),
+                song(4, "After Hours", "The Weeknd", SongGenre.POP, SongMood.PARTY));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), find(null, null, null, null, false));
+        assertEquals(List.of(1L, 2L, 4L), find("  HOUR ", null, null, null, false));
+        assertEquals(List.of(1L, 3L), find(null, "musgraves", null, null, false));
+        assertEquals(List.of(3L, 4L), find(null, null, EnumSet.of(SongGenre.POP), null, false));
+        // PARTY is related to HAPPY, SAD is not
+        assertEquals(List.of(1L, 4L), find(null, null, null, SongMood.HAPPY, false));
+        assertEquals(List.of(1L, 3L, 4L), find(null, null, null, SongMood.HAPPY, true));
+        assertEquals(List.of(4L), find("hour", null, EnumSet.of(SongGenre.POP), SongMood.HAPPY, true));
+        // every gram of "our of n" is indexed, but only song 2 has them in a row
+        assertEquals(List.of(2L), find("our of n", null, null, null, false));
+        assertEquals(List.of(), find("hour dri", null, null, null, false));
+        assertEquals(List.of(), find("zzz", null, null, null, false));
+    }
+
+    @Test
+    void eventsUpdateTheLoadedCatalogWithoutRereading() {
+        load(song(1, "Golden Hour", "Kacey Musgraves", SongGenre.COUNTRY, SongMood.HAPPY),
+                song(2, "Hour of Need", "The Band", SongGenre.ROCK, SongMood.SAD));
+        assertEquals(List.of(1L, 2L), find(null, null, null, null, false));
+
+        catalog.onSongChanged(SongChangedEvent.saved(song(3, "Rush Hour", "Jane", SongGenre.POP, SongMood.CALM)));
+        assertEquals(List.of(1L, 2L, 3L), find("hour", null, null, null, false));
+
+        // an update moves the song out of its old postings
+        catalog.onSongChanged(SongChangedEvent.saved(song(1, "Slow Burn", "Kacey Musgraves", SongGenre.POP, SongMood.CALM)));
+        assertEquals(List.of(2L, 3L), find("hour", null, null, null, false));
+        assertEquals(List.of(), find(null, null, EnumSet.of(SongGenre.COUNTRY), null, false));
+        assertEquals(List.of(1L, 3L), find(null, null, EnumSet.of(SongGenre.POP), SongMood.CALM, false));
+        assertEquals("Slow Burn", catalog.find("slow", null, null, null, false).get(0).getTitle());
+
+        catalog.onSongChanged(SongChangedEvent.removed(2L));
+        assertEquals(List.of(3L), find("hour", null, null, null, false));
+        assertEquals(List.of(), find(null, "band", null, null, false));
+
+        verify(repo, times(1)).findAll();
+    }
+
+    @Test
+    void eventsBeforeTheFirstQueryAreLeftToTheLoad() {
+        load(song(1, "Golden Hour", "Kacey Musgraves", SongGenre.COUNTRY, SongMood.HAPPY));
+        catalog.onSongChanged(SongChangedEvent.saved(song(9, "Not Committed", "Nobody", SongGenre.POP, null)));
+        assertEquals(List.of(1L), find(null, null, null, null, false));
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        load();
+        assertEquals(List.of(), find(null, null, null, null, false));
+
+        List<Song> many = new ArrayList<>();
+        for (int i = 1; i <= 3000; i++) {
+            many.add(song(i, "Track " + i, i % 2 == 0 ? "Even" : "Odd", SongGenre.ROCK, SongMood.DARK));
+        }
+        catalog.onSongChanged(SongChangedEvent.saved(many));
+
+        assertEquals(3000, catalog.find(null, null, EnumSet.of(SongGenre.ROCK), SongMood.SAD, false).size());
+        assertEquals(1500, catalog.find(null, "even", null, null, false).size());
+        assertEquals(List.of(2999L), find("track 2999", null, null, null, false));
+    }
+
+    @Test
+    void returnsDetachedSnapshots() {
+        Song attached = song(1, "Golden Hour", "Kacey Musgraves", SongGenre.COUNTRY, SongMood.HAPPY);
+        attached.setRepertoire(new Repertoire());
+        load(attached);
+
+        Song row = catalog.find(null, null, null, null, false).get(0);
+        assertNotSame(attached, row);
+        assertNull(row.getRepertoire());
+        assertEquals("Golden Hour", row.getTitle());
+        assertEquals(180, row.getDurationInSeconds());
+    }
+
+    @Test
+    void suggestsDistinctArtistsBestFirst() {
+        load(song(1, "A", "Kacey Musgraves", null, null),
+                song(2, "B", "Kacey Musgraves", null, null),
+                song(3, "C", "Musgrove", null, null),
+                song(4, "D", "The Kacey Band", null, null));
+
+        assertEquals(List.of("Kacey Musgraves", "The Kacey Band"), catalog.suggestArtists("kacey", 5));
+        assertEquals(List.of("Kacey Musgraves"), catalog.suggestArtists("kacey", 1));
+        assertEquals(List.of(), catalog.suggestArtists("   ", 5));
+    }
+}
@@ -0,0 +1,43 @@
+package dk.ek.setlistgpt.song;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dk.ek.setlistgpt.repertoire.RepertoireRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/** Request checks of SongImportController that happen before the upload is read. */
+class SongImportControllerTest {
+
+    private final SongImportService importService = mock(SongImportService.class);
+    private final SongImportController controller =
+            new SongImportController(importService, mock(RepertoireRepository.class), new ObjectMapper());
+
+    private static MockHttpServletRequest upload(String charset) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/songs/import");
+        request.setContentType("text/csv");
+        request.setCharacterEncoding(charset);
+        request.setContent("title\nA\n".getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    @Test
+    void unknownOrMalformedCharsetIsABadRequest() {
+        assertEquals(HttpStatus.BAD_REQUEST, controller.importSongs(null, upload("x-no-such-charset")).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.importSongs(null, upload("bad name!")).getStatusCode());
+        verifyNoInteractions(importService);
+    }
+
+    @Test
+    void knownCharsetStartsTheImport() {
+        var response = controller.importSongs(null, upload("ISO-8859-1"));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+    }
+}
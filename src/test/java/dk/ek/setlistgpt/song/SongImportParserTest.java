@@ -0,0 +1,102 @@
+package dk.ek.setlistgpt.song;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** CSV (RFC 4180) and NDJSON parsing of bulk song uploads, including line numbering. */
+class SongImportParserTest {
+
+    private static List<SongImportParser.Row> csv(String text) throws IOException {
+        return all(SongImportParser.csv(new StringReader(text)));
+    }
+
+    private static List<SongImportParser.Row> all(SongImportParser parser) throws IOException {
+        List<SongImportParser.Row> rows = new ArrayList<>();
+        try (parser) {
+            for (SongImportParser.Row r; (r = parser.next()) != null; ) rows.add(r);
+        }
+        return rows;
+    }
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        List<SongImportParser.Row> rows = csv("""
+                title,artist,bpm
+                "Hello, Goodbye",The Beatles,96
+                "The ""Real"" Slim Shady",Eminem,104
+                "Line one
+                line two",,
+                """);
+        assertEquals(3, rows.size());
+        assertEquals("Hello, Goodbye", rows.get(0).data().title());
+        assertEquals("96", rows.get(0).data().bpm());
+        assertEquals("The \"Real\" Slim Shady", rows.get(1).data().title());
+        assertEquals("Line one\nline two", rows.get(2).data().title());
+        assertEquals("", rows.get(2).data().artist());
+        // a record's line is where it starts; the quoted break moves the next one on
+        assertEquals(List.of(2L, 3L, 4L), rows.stream().map(SongImportParser.Row::line).toList());
+    }
+
+    @Test
+    void crlfAndBareCrEndRecords() throws IOException {
+        List<SongImportParser.Row> rows = csv("title,artist\r\nA,x\r\n\"B\r\nb\",y\rC,z");
+        assertEquals(List.of("A", "B\r\nb", "C"), rows.stream().map(r -> r.data().title()).toList());
+        assertEquals(List.of("x", "y", "z"), rows.stream().map(r -> r.data().artist()).toList());
+        assertEquals(List.of(2L, 3L, 5L), rows.stream().map(SongImportParser.Row::line).toList());
+    }
+
+    @Test
+    void headerIsMatchedByAliasAndUnknownColumnsAreIgnored() throws IOException {
+        List<SongImportParser.Row> rows = csv("﻿Artist,Song Id,Title,Tempo,Length,Duration-Minutes\nABBA,17,Waterloo,147,2:46,9\n");
+        SongImportRow r = rows.get(0).data();
+        assertEquals("ABBA", r.artist());
+        assertEquals("Waterloo", r.title());
+        assertEquals("147", r.bpm());
+        assertEquals("2:46", r.duration());
+        assertEquals("9", r.durationMinutes());
+        assertNull(r.genre());
+    }
+
+    @Test
+    void blankLinesAndShortRecordsAreTolerated() throws IOException {
+        List<SongImportParser.Row> rows = csv("title,artist,mood\n\nA\n\r\nB,b,happy,extra\n");
+        assertEquals(2, rows.size());
+        assertEquals(3L, rows.get(0).line());
+        assertNull(rows.get(0).data().artist());
+        assertEquals(5L, rows.get(1).line());
+        assertEquals("happy", rows.get(1).data().mood());
+    }
+
+    @Test
+    void unusableInputIsRejected() throws IOException {
+        assertEquals(List.of(), csv(""));
+        assertThrows(IllegalArgumentException.class, () -> csv("name,bpm\nA,100\n"));
+        String runaway = "title\n\"" + "x".repeat(SongImportParser.MAX_RECORD_CHARS + 1);
+        assertThrows(IllegalArgumentException.class, () -> csv(runaway));
+    }
+
+    @Test
+    void ndjsonReportsMalformedLinesAndKeepsGoing() throws IOException {
+        List<SongImportParser.Row> rows = all(SongImportParser.ndjson(new StringReader("""
+                {"title":"A","minutes":"3","seconds":"5","extra":1}
+
+                {"title":
+                {"artist":"B","bpm":"120"}
+                """), new ObjectMapper()));
+        assertEquals(3, rows.size());
+        assertEquals("3", rows.get(0).data().durationMinutes());
+        assertEquals(1L, rows.get(0).line());
+        assertNull(rows.get(1).data());
+        assertEquals(3L, rows.get(1).line());
+        assertTrue(rows.get(1).error().startsWith("malformed JSON"));
+        assertEquals("B", rows.get(2).data().artist());
+        assertEquals(4L, rows.get(2).line());
+    }
+}
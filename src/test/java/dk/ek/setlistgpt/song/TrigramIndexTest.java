@@ -0,0 +1,101 @@
+package dk.ek.setlistgpt.song;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** TrigramIndex candidate lookup and ranked, fuzzy suggestions over normalized values. */
+class TrigramIndexTest {
+
+    private final String[] values = new String[8];
+    private final TrigramIndex index = new TrigramIndex();
+
+    private void put(int row, String value) {
+        values[row] = value;
+        index.add(row, value);
+    }
+
+    private void drop(int row) {
+        index.remove(row, values[row]);
+        values[row] = null;
+    }
+
+    private int[] suggest(String query, int limit) {
+        return index.suggest(query, limit, row -> values[row]);
+    }
+
+    private void loveSongs() {
+        put(0, "love");
+        put(1, "lovers rock");
+        put(2, "true love");
+        put(3, "glove box");
+    }
+
+    @Test
+    void containsCandidatesIntersectsPostings() {
+        loveSongs();
+        assertArrayEquals(new int[]{0, 1, 2, 3}, index.containsCandidates("ove"));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, index.containsCandidates("love"));
+        assertArrayEquals(new int[]{2}, index.containsCandidates("e lo"));
+        assertArrayEquals(new int[]{1}, index.containsCandidates("rs r"));
+        assertArrayEquals(new int[0], index.containsCandidates("xyz"));
+        // too short to narrow anything down
+        assertNull(index.containsCandidates("lo"));
+    }
+
+    @Test
+    void ranksExactThenPrefixThenWordPrefixThenSubstring() {
+        loveSongs();
+        assertArrayEquals(new int[]{0, 1, 2, 3}, suggest("love", 10));
+        assertArrayEquals(new int[]{0, 1}, suggest("love", 2));
+    }
+
+    @Test
+    void shortQueriesMatchWordStartsOnly() {
+        loveSongs();
+        assertArrayEquals(new int[]{0, 1, 2}, suggest("lo", 10));
+        assertArrayEquals(new int[]{3}, suggest("g", 10));
+        assertArrayEquals(new int[]{1}, suggest("r", 10));
+        assertArrayEquals(new int[0], suggest("v", 10));
+    }
+
+    @Test
+    void fuzzyMatchesNeedMostOfTheQueryGrams() {
+        put(0, "kacey musgraves");
+        put(1, "kasabian");
+        // one typo still shares 10 of 13 grams
+        assertArrayEquals(new int[]{0}, suggest("kasey musgraves", 10));
+        // a swapped pair in a short word shares too few
+        assertArrayEquals(new int[0], suggest("musgarves", 10));
+    }
+
+    @Test
+    void returnsOneRowPerDistinctValue() {
+        put(0, "love");
+        put(1, "love");
+        put(2, "lovely");
+        int[] hits = suggest("love", 10);
+        assertEquals(2, hits.length);
+        assertEquals("love", values[hits[0]]);
+        assertEquals(2, hits[1]);
+    }
+
+    @Test
+    void removedRowsAreNoLongerFound() {
+        loveSongs();
+        drop(0);
+        assertArrayEquals(new int[]{1, 2, 3}, suggest("love", 10));
+        assertArrayEquals(new int[]{1, 2, 3}, index.containsCandidates("love"));
+
+        drop(3);
+        assertArrayEquals(new int[0], index.containsCandidates("glo"));
+        assertArrayEquals(new int[0], suggest("g", 10));
+    }
+
+    @Test
+    void emptyQueryOrLimitGivesNothing() {
+        loveSongs();
+        assertArrayEquals(new int[0], suggest("", 10));
+        assertArrayEquals(new int[0], suggest("love", 0));
+    }
+}
@@ -0,0 +1,121 @@
+package dk.ek.setlistgpt.stats;
+
+import dk.ek.setlistgpt.profile.Profile;
+import dk.ek.setlistgpt.profile.ProfileType;
+import dk.ek.setlistgpt.repertoire.Repertoire;
+import dk.ek.setlistgpt.repertoire.RepertoireVisibility;
+import dk.ek.setlistgpt.song.Song;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** StatsService recounts and deltas on the embedded database in MySQL mode (the upserts are native). */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stats;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "app.admin.stats.rebuild-on-startup=false",
+        "app.admin.stats.flush-interval=1h"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StatsService.class, SiteStatsBuffer.class})
+class StatsServiceTest {
+
+    @Autowired
+    private StatsService stats;
+
+    @Autowired
+    private ProfileStatsRepository profileStats;
+
+    @Autowired
+    private SiteStatsRepository siteStats;
+
+    @Autowired
+    private SiteStatsBuffer siteBuffer;
+
+    @Autowired
+    private TestEntityManager em;
+
+    private Profile profileWithSongs(String name, int songs) {
+        Profile p = em.persist(Profile.builder().name(name).password("x").type(ProfileType.MUSICIAN).build());
+        Repertoire r = em.persist(Repertoire.builder().name(name + "'s").owner(p)
+                .visibility(RepertoireVisibility.PRIVATE).build());
+        for (int i = 0; i < songs; i++) {
+            em.persist(Song.builder().title(name + i).durationMinutes(3).repertoire(r).build());
+        }
+        em.flush();
+        return p;
+    }
+
+    @Test
+    void siteRowExistsBeforeTheFirstChange() {
+        assertTrue(siteStats.existsById(SiteStats.ID));
+        stats.onDeltaCommitted(StatsDelta.setlistCreated(null));
+        siteBuffer.flush();
+        // creating it again leaves the counters alone
+        siteStats.createRow();
+        em.clear();
+        assertEquals(1, siteStats.findById(SiteStats.ID).orElseThrow().getSetlists());
+    }
+
+    @Test
+    void globalTotalsSkipTheSiteRowUntilFlushed() {
+        stats.onDelta(StatsDelta.songsCreated(null, 3));
+        stats.onDeltaCommitted(StatsDelta.songsCreated(null, 3));
+        stats.onDeltaCommitted(StatsDelta.songAttached(null));
+        em.clear();
+        assertEquals(0, siteStats.findById(SiteStats.ID).orElseThrow().getSongs());
+        assertEquals(3, stats.totals().getSongs());
+
+        siteBuffer.flush();
+        em.clear();
+        assertEquals(3, siteStats.findById(SiteStats.ID).orElseThrow().getSongs());
+        assertEquals(3, stats.totals().getSongs());
+    }
+
+    @Test
+    void deltaForAProfileWithoutACounterRowRecountsIt() {
+        Profile p = profileWithSongs("ada", 2);
+        // the delta's own song is already in the table when the listener runs
+        stats.onDelta(StatsDelta.songsCreated(p.getId(), 2));
+        em.clear();
+
+        ProfileStats own = profileStats.findById(p.getId()).orElseThrow();
+        assertEquals(1, own.getRepertoires());
+        assertEquals(2, own.getSongs());
+    }
+
+    @Test
+    void recountOverwritesAnExistingRowInsteadOfFailing() {
+        Profile p = profileWithSongs("bob", 3);
+        em.persistAndFlush(new ProfileStats(p.getId(), 7, 7, 7));
+
+        profileStats.recount(p.getId());
+        ProfileStats own = profileStats.findById(p.getId()).orElseThrow();
+        assertEquals(1, own.getRepertoires());
+        assertEquals(3, own.getSongs());
+        assertEquals(0, own.getSetlists());
+    }
+
+    @Test
+    void rebuildKeepsRowsInPlaceAndDropsOrphans() {
+        Profile ada = profileWithSongs("ada", 2);
+        Profile bob = profileWithSongs("bob", 1);
+        em.persistAndFlush(new ProfileStats(ada.getId(), 0, 0, 0));
+        em.persistAndFlush(new ProfileStats(-1L, 5, 5, 5));
+        siteStats.add(9, 9, 9, 9, 9, 9);
+        siteBuffer.add(4, 4, 4);
+
+        SiteStats totals = stats.rebuild();
+        assertEquals(2, totals.getProfiles());
+        assertEquals(0, totals.getAdmins());
+        assertEquals(2, totals.getMusicians());
+        assertEquals(2, totals.getRepertoires());
+        assertEquals(3, totals.getSongs());
+        assertEquals(2, profileStats.findById(ada.getId()).orElseThrow().getSongs());
+        assertEquals(1, profileStats.findById(bob.getId()).orElseThrow().getSongs());
+        assertFalse(profileStats.existsById(-1L));
+    }
+}
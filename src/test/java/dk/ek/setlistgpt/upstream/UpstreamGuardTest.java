@@ -0,0 +1,191 @@
+package dk.ek.setlistgpt.upstream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** UpstreamGuard + UpstreamHttp against a local fault-injecting stub server. */
+class UpstreamGuardTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger flakyFailures = new AtomicInteger();
+    private final AtomicInteger firstSlowHits = new AtomicInteger();
+    private final AtomicBoolean failing = new AtomicBoolean(true);
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/ok", ex -> respond(ex, 200));
+        server.createContext("/slow", ex -> {
+            sleep(1000);
+            respond(ex, 200);
+        });
+        // first request hangs, later ones answer at once
+        server.createContext("/first-slow", ex -> {
+            if (firstSlowHits.getAndIncrement() == 0) sleep(2000);
+            respond(ex, 200);
+        });
+        server.createContext("/flaky", ex -> respond(ex, flakyFailures.getAndDecrement() > 0 ? 503 : 200));
+        server.createContext("/fail", ex -> respond(ex, failing.get() ? 503 : 200));
+        server.createContext("/bad", ex -> respond(ex, 400));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    private void respond(HttpExchange ex, int status) throws IOException {
+        calls.incrementAndGet();
+        byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().add("Content-Type", "application/json");
+        ex.sendResponseHeaders(status, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static UpstreamSettings settings(int retries, Duration hedgeDelay, int maxConcurrent, int failureThreshold) {
+        return new UpstreamSettings("stub",
+                Duration.ofMillis(500), Duration.ofMillis(300), 20, maxConcurrent, Duration.ofSeconds(3),
+                retries, Duration.ofMillis(20), hedgeDelay,
+                failureThreshold, Duration.ofMillis(300), 1);
+    }
+
+    private Mono<String> get(UpstreamGuard guard, UpstreamSettings s, String path) {
+        WebClient client = WebClient.builder().baseUrl(baseUrl).clientConnector(UpstreamHttp.connector(s)).build();
+        return guard.call(() -> client.get().uri(path).retrieve().bodyToMono(String.class));
+    }
+
+    @Test
+    void readTimeoutFailsSlowCallsFast() {
+        UpstreamSettings s = settings(0, Duration.ZERO, 4, 5);
+        UpstreamGuard guard = new UpstreamGuard(s);
+
+        long start = System.nanoTime();
+        RuntimeException e = assertThrows(RuntimeException.class, () -> get(guard, s, "/slow").block());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(UpstreamGuard.isTransient(e), e.toString());
+        assertTrue(elapsedMs < 900, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void retriesRecoverFromTransientErrors() {
+        UpstreamSettings s = settings(2, Duration.ZERO, 4, 5);
+        flakyFailures.set(2);
+
+        assertNotNull(get(new UpstreamGuard(s), s, "/flaky").block());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void clientErrorsAreNotRetriedAndKeepTheCircuitClosed() {
+        UpstreamSettings s = settings(2, Duration.ZERO, 4, 1);
+        UpstreamGuard guard = new UpstreamGuard(s);
+
+        assertThrows(WebClientResponseException.BadRequest.class, () -> get(guard, s, "/bad").block());
+        assertEquals(1, calls.get());
+        assertEquals(CircuitBreaker.State.CLOSED, guard.circuitState());
+    }
+
+    @Test
+    void circuitOpensThenClosesAfterSuccessfulProbe() {
+        UpstreamSettings s = settings(0, Duration.ZERO, 4, 3);
+        UpstreamGuard guard = new UpstreamGuard(s);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(WebClientResponseException.class, () -> get(guard, s, "/fail").block());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.circuitState());
+
+        // open: rejected locally, the stub is not called
+        assertThrows(UpstreamUnavailableException.class, () -> get(guard, s, "/fail").block());
+        assertEquals(3, calls.get());
+
+        sleep(350);
+        failing.set(false);
+        assertNotNull(get(guard, s, "/fail").block());
+        assertEquals(CircuitBreaker.State.CLOSED, guard.circuitState());
+    }
+
+    @Test
+    void failedProbeReopensTheCircuit() {
+        UpstreamSettings s = settings(0, Duration.ZERO, 4, 1);
+        UpstreamGuard guard = new UpstreamGuard(s);
+
+        assertThrows(WebClientResponseException.class, () -> get(guard, s, "/fail").block());
+        sleep(350);
+        assertThrows(WebClientResponseException.class, () -> get(guard, s, "/fail").block());
+
+        assertEquals(CircuitBreaker.State.OPEN, guard.circuitState());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondTheLimit() {
+        UpstreamSettings s = new UpstreamSettings("stub",
+                Duration.ofMillis(500), Duration.ofSeconds(2), 20, 2, Duration.ofSeconds(3),
+                0, Duration.ofMillis(20), Duration.ZERO, 100, Duration.ofSeconds(30), 1);
+        UpstreamGuard guard = new UpstreamGuard(s);
+
+        List<String> outcomes = Flux.range(0, 4)
+                .flatMap(i -> get(guard, s, "/slow")
+                        .map(body -> "ok")
+                        .onErrorResume(UpstreamUnavailableException.class, e -> Mono.just("rejected"))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .collectList()
+                .block();
+
+        assertEquals(2, outcomes.stream().filter("ok"::equals).count());
+        assertEquals(2, outcomes.stream().filter("rejected"::equals).count());
+        assertEquals(2, calls.get());
+        assertEquals(2, guard.rejected());
+    }
+
+    @Test
+    void hedgeAnswersWhenThePrimaryIsSlow() {
+        UpstreamSettings s = new UpstreamSettings("stub",
+                Duration.ofMillis(500), Duration.ofSeconds(5), 20, 4, Duration.ofSeconds(5),
+                0, Duration.ofMillis(20), Duration.ofMillis(100), 5, Duration.ofSeconds(30), 1);
+
+        long start = System.nanoTime();
+        assertNotNull(get(new UpstreamGuard(s), s, "/first-slow").block());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 1500, "took " + elapsedMs + " ms");
+        assertEquals(2, firstSlowHits.get());
+    }
+}